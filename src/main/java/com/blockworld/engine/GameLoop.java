@@ -6,7 +6,7 @@ import com.blockworld.ui.Hotbar;
 import com.blockworld.ui.HotbarItem;
 import com.blockworld.ui.Sidebar;
 import com.blockworld.ui.UIRenderer;
-import com.blockworld.world.Structure;
+import com.blockworld.world.StructureLibrary;
 import com.blockworld.world.World;
 
 import static org.lwjgl.glfw.GLFW.*;
@@ -30,6 +30,8 @@ public class GameLoop {
     private final Sidebar sidebar;
 
     private boolean running;
+    // Pencere başlığında gösterilen seçim özeti (değişince başlık yenilenir)
+    private String shownSelectionSummary;
 
     public GameLoop(Window window) {
         this.window = window;
@@ -68,6 +70,9 @@ public class GameLoop {
         // UI Renderer'ı başlat
         uiRenderer.init(window.getWidth(), window.getHeight());
 
+        // Bölüm mesh'leri dünya değişikliklerini dinler (ilk yüklemeler dahil)
+        world.addChangeListener(renderer);
+
         // Dünyayı başlat (zemin oluştur)
         world.init();
 
@@ -134,7 +139,7 @@ public class GameLoop {
 
         // Eğer sidebar açıksa oyuna müdahale etme, sadece sidebar'ı güncelle
         if (sidebar.isVisible()) {
-            sidebar.update(input, world.getSavedStructures(), hotbar);
+            sidebar.update(input, world.getStructureLibrary(), hotbar);
             return;
         }
 
@@ -150,8 +155,16 @@ public class GameLoop {
         // Dünya güncellemesi (blok ekleme/silme, yapı kaydetme)
         world.update(input, camera);
 
+        // Seçimdeki canlı blok sayımları başlıkta; özet yalnızca yeniden sayımda
+        // yeni bir nesne olur, bu yüzden referans karşılaştırması yeterli
+        String selectionSummary = world.getSelectionBox().getSummary();
+        if (selectionSummary != shownSelectionSummary) {
+            window.setTitleSuffix(selectionSummary);
+            shownSelectionSummary = selectionSummary;
+        }
+
         // Eğer yeni yapı kaydedildiyse hotbar'a ekle
-        Structure justSaved = world.consumeJustSavedStructure();
+        StructureLibrary.Entry justSaved = world.consumeJustSavedStructure();
         if (justSaved != null) {
             hotbar.addItem(new HotbarItem(justSaved));
             // Seçimi güncelle
@@ -207,7 +220,8 @@ public class GameLoop {
         HotbarItem item = hotbar.getSelectedItem();
         if (item != null) {
             if (item.isStructure()) {
-                world.setSelectedStructure(item.getStructure());
+                // Yüklenene kadar null döner; yükleme bitince sonraki tick seçilir
+                world.setSelectedStructure(world.getStructureLibrary().get(item.getStructure()));
                 world.setSelectedBlockType(null); // Blok seçimini kaldır
             } else {
                 world.setSelectedBlockType(item.getBlockType());
@@ -238,18 +252,24 @@ public class GameLoop {
         uiRenderer.beginRender();
         hotbar.render(uiRenderer);
 
+        // Yapı kaydı sürüyorsa ilerleme çubuğu
+        float captureProgress = world.getCaptureProgress();
+        if (captureProgress >= 0) {
+            float barWidth = 200;
+            float barX = (window.getWidth() - barWidth) / 2;
+            uiRenderer.drawRect(barX, 20, barWidth, 8, 0.1f, 0.1f, 0.1f, 0.7f);
+            uiRenderer.drawRect(barX, 20, barWidth * captureProgress, 8, 0.3f, 0.8f, 0.3f, 0.9f);
+        }
+
         // Sidebar'ı en son çiz (üstte kalsın)
         if (sidebar.isVisible()) {
-            sidebar.render(uiRenderer, world.getSavedStructures(), window.getWidth(), window.getHeight());
+            sidebar.render(uiRenderer, world.getStructureLibrary(), window.getWidth(), window.getHeight());
         }
 
         uiRenderer.endRender();
 
         // UI üzerine 3D Önizlemeleri çiz
         hotbar.render3DContents(renderer, window.getWidth(), window.getHeight());
-        if (sidebar.isVisible()) {
-            sidebar.render3DContents(renderer, world.getSavedStructures(), window.getWidth(), window.getHeight());
-        }
     }
 
     private void cleanup() {
@@ -175,4 +175,11 @@ public class Input {
         glfwGetWindowSize(windowHandle, w, h);
         return w[0];
     }
+
+    public int getWindowHeight() {
+        int[] w = new int[1];
+        int[] h = new int[1];
+        glfwGetWindowSize(windowHandle, w, h);
+        return h[0];
+    }
 }
@@ -124,6 +124,13 @@ public class Window {
         glfwSetErrorCallback(null).free();
     }
 
+    /**
+     * Başlığın arkasına ek bilgi yazar (null: yalnızca asıl başlık).
+     */
+    public void setTitleSuffix(String suffix) {
+        glfwSetWindowTitle(windowHandle, suffix != null ? title + " - " + suffix : title);
+    }
+
     public long getWindowHandle() {
         return windowHandle;
     }
@@ -37,7 +37,7 @@ public class Camera {
 
     public Camera() {
         // Kamerayı zeminin üstünde ve geri planda başlat
-        position = new Vector3f(8.0f, 3.0f, 20.0f);
+        position = new Vector3f(8.0f, 30.0f, 20.0f);
         front = new Vector3f(0.0f, 0.0f, -1.0f);
         up = new Vector3f(0.0f, 1.0f, 0.0f);
         right = new Vector3f(1.0f, 0.0f, 0.0f);
@@ -0,0 +1,318 @@
+package com.blockworld.graphics;
+
+import com.blockworld.world.BlockRegistry;
+import com.blockworld.world.Chunk;
+import com.blockworld.world.ChunkSection;
+import com.blockworld.world.World;
+
+import java.util.Arrays;
+
+/**
+ * Bir chunk bölümünün tüm görünür yüzlerini tek bir mesh'te toplar.
+ *
+ * Komşusu opak olan yüzler (ve iki yarı saydam blok, örneğin su, arasındaki
+ * yüzler) atlanır; böylece her blok için ayrı çizim çağrısı
+ * yerine bölüm başına tek bir çağrı yapılır. Köşe konumları bölümün
+ * başlangıcına göredir. Her yüz, önündeki hava hücresinin gökyüzü ve blok
+ * ışığını (0-1) taşır; günün saati gölgelendiricide uygulanır.
+ *
+ * Ortam örtmesi (AO): her yüz köşesinin önündeki iki kenar ve bir köşe
+ * komşusunun opaklığına göre köşe rengi koyulaştırılır; dörtgen, koyu
+ * köşeler köşegen boyunca yayılmasın diye gerekirse öteki köşegenden bölünür.
+ * Bölümün ve çevresindeki bir bloklık kabuğun id'leri yapım başında tek
+ * seferde 18³'lük bir önbelleğe okunur; yüz gizleme ve AO komşuları bu
+ * diziden sabit ofsetlerle okunur (dünya sorgusu yapılmaz). Renk ve
+ * opaklık {@link BlockRegistry}'nin id dizilerinden okunur.
+ */
+public class ChunkMesher {
+
+    // Yüz yönleri: ön(+z), arka(-z), üst(+y), alt(-y), sağ(+x), sol(-x)
+    private static final int[][] FACE_DIRS = {
+            { 0, 0, 1 }, { 0, 0, -1 }, { 0, 1, 0 }, { 0, -1, 0 }, { 1, 0, 0 }, { -1, 0, 0 }
+    };
+
+    // Yüz başına 4 köşe (blok merkezine göre, Mesh.createCube ile aynı sıra)
+    private static final float[][] FACE_VERTICES = {
+            { -0.5f, -0.5f, 0.5f, 0.5f, -0.5f, 0.5f, 0.5f, 0.5f, 0.5f, -0.5f, 0.5f, 0.5f },
+            { -0.5f, -0.5f, -0.5f, -0.5f, 0.5f, -0.5f, 0.5f, 0.5f, -0.5f, 0.5f, -0.5f, -0.5f },
+            { -0.5f, 0.5f, -0.5f, -0.5f, 0.5f, 0.5f, 0.5f, 0.5f, 0.5f, 0.5f, 0.5f, -0.5f },
+            { -0.5f, -0.5f, -0.5f, 0.5f, -0.5f, -0.5f, 0.5f, -0.5f, 0.5f, -0.5f, -0.5f, 0.5f },
+            { 0.5f, -0.5f, -0.5f, 0.5f, 0.5f, -0.5f, 0.5f, 0.5f, 0.5f, 0.5f, -0.5f, 0.5f },
+            { -0.5f, -0.5f, -0.5f, -0.5f, -0.5f, 0.5f, -0.5f, 0.5f, 0.5f, -0.5f, 0.5f, -0.5f },
+    };
+
+    // Kabuklu önbellek: bölüm + her yönde 1 blok (18³)
+    private static final int PADDED = ChunkSection.SIZE + 2;
+    private static final int STRIDE_Y = PADDED * PADDED;
+    private static final int STRIDE_Z = PADDED;
+
+    // Yüz başına önbellekte komşu ofseti
+    private static final int[] FACE_OFFSETS = new int[6];
+    // Yüz ve köşe başına AO komşularının ofsetleri: kenar 1, kenar 2, köşe
+    private static final int[][] AO_OFFSETS = new int[6][12];
+
+    // Örten komşu sayısına göre köşe parlaklığı (3: açık)
+    private static final float[] AO_CURVE = { 0.5f, 0.68f, 0.84f, 1.0f };
+
+    static {
+        for (int face = 0; face < 6; face++) {
+            int[] dir = FACE_DIRS[face];
+            int front = offset(dir[0], dir[1], dir[2]);
+            FACE_OFFSETS[face] = front;
+            for (int v = 0; v < 4; v++) {
+                // Köşenin yüz düzlemindeki iki yönü (normal ekseni hariç)
+                int[] side1 = new int[3];
+                int[] side2 = new int[3];
+                boolean first = true;
+                for (int axis = 0; axis < 3; axis++) {
+                    if (dir[axis] != 0) {
+                        continue;
+                    }
+                    int sign = FACE_VERTICES[face][v * 3 + axis] > 0 ? 1 : -1;
+                    if (first) {
+                        side1[axis] = sign;
+                        first = false;
+                    } else {
+                        side2[axis] = sign;
+                    }
+                }
+                AO_OFFSETS[face][v * 3] = front + offset(side1[0], side1[1], side1[2]);
+                AO_OFFSETS[face][v * 3 + 1] = front + offset(side2[0], side2[1], side2[2]);
+                AO_OFFSETS[face][v * 3 + 2] = front + offset(side1[0] + side2[0], side1[1] + side2[1],
+                        side1[2] + side2[2]);
+            }
+        }
+    }
+
+    private static int offset(int dx, int dy, int dz) {
+        return dy * STRIDE_Y + dz * STRIDE_Z + dx;
+    }
+
+    private static int paddedIndex(int x, int y, int z) {
+        return (y + 1) * STRIDE_Y + (z + 1) * STRIDE_Z + (x + 1);
+    }
+
+    // Blok id'sine göre renkler (id * 3)
+    private final float[] blockColors;
+
+    private boolean ambientOcclusion = true;
+
+    // Bölüm ve kabuğunun id'leri (yapım başına bir kez doldurulur)
+    private final short[] padded = new short[PADDED * PADDED * PADDED];
+    private final short[] sectionIds = new short[ChunkSection.VOLUME];
+    // Kabuk için 3x3 chunk komşuluğu
+    private final Chunk[] neighborhood = new Chunk[9];
+    private final int[] ao = new int[4];
+
+    // Yeniden kullanılan ara bellekler
+    private float[] positions = new float[4096];
+    private float[] colors = new float[4096];
+    private float[] normals = new float[4096];
+    private float[] lights = new float[4096];
+    private int[] indices = new int[4096];
+    private int vertexCount;
+    private int indexCount;
+
+    public ChunkMesher() {
+        this.blockColors = BlockRegistry.copyColors();
+    }
+
+    public boolean isAmbientOcclusion() {
+        return ambientOcclusion;
+    }
+
+    public void setAmbientOcclusion(boolean ambientOcclusion) {
+        this.ambientOcclusion = ambientOcclusion;
+    }
+
+    /**
+     * Bölümün mesh'ini oluşturur. Görünür yüz yoksa null döner.
+     */
+    public Mesh build(World world, int chunkX, int sectionIndex, int chunkZ) {
+        if (generate(world, chunkX, sectionIndex, chunkZ) == 0) {
+            return null;
+        }
+        return new Mesh(
+                Arrays.copyOf(positions, vertexCount * 3),
+                Arrays.copyOf(colors, vertexCount * 3),
+                Arrays.copyOf(normals, vertexCount * 3),
+                Arrays.copyOf(lights, vertexCount * 2),
+                Arrays.copyOf(indices, indexCount));
+    }
+
+    /**
+     * Bölümün köşe verisini ara belleklere yazar (GPU'ya yüklemeden; pencere
+     * gerektirmez).
+     *
+     * @return üretilen köşe sayısı
+     */
+    public int generate(World world, int chunkX, int sectionIndex, int chunkZ) {
+        vertexCount = 0;
+        indexCount = 0;
+
+        Chunk chunk = world.getChunkAt(chunkX, chunkZ);
+        if (chunk == null) {
+            return 0;
+        }
+        ChunkSection section = chunk.getSection(sectionIndex);
+        if (section == null || section.isEmpty()) {
+            return 0;
+        }
+        fillPadded(world, chunk, section, sectionIndex);
+
+        int baseX = chunkX << 4;
+        int baseY = Chunk.MIN_Y + (sectionIndex << 4);
+        int baseZ = chunkZ << 4;
+
+        for (int i = 0; i < ChunkSection.VOLUME; i++) {
+            int id = sectionIds[i];
+            if (id == ChunkSection.AIR) {
+                continue;
+            }
+            int x = i & 15;
+            int y = i >> 8;
+            int z = (i >> 4) & 15;
+            int p = paddedIndex(x, y, z);
+            boolean translucent = BlockRegistry.isTranslucent(id);
+
+            for (int face = 0; face < 6; face++) {
+                int neighbor = padded[p + FACE_OFFSETS[face]];
+                if (neighbor != ChunkSection.AIR && (BlockRegistry.isOpaque(neighbor)
+                        || (translucent && BlockRegistry.isTranslucent(neighbor)))) {
+                    continue; // Gizli yüz
+                }
+                int nx = x + FACE_DIRS[face][0];
+                int ny = y + FACE_DIRS[face][1];
+                int nz = z + FACE_DIRS[face][2];
+                int skyLight;
+                int blockLight;
+                if ((nx | nz) >= 0 && nx < 16 && nz < 16) {
+                    skyLight = chunk.getSkyLight(nx, baseY + ny, nz);
+                    blockLight = chunk.getBlockLight(nx, baseY + ny, nz);
+                } else {
+                    skyLight = world.getSkyLight(baseX + nx, baseY + ny, baseZ + nz);
+                    blockLight = world.getBlockLight(baseX + nx, baseY + ny, baseZ + nz);
+                }
+                computeOcclusion(face, p);
+                addFace(face, x, y, z, id, skyLight, blockLight);
+            }
+        }
+        return vertexCount;
+    }
+
+    /**
+     * Bölümün id'lerini ve çevresindeki bir bloklık kabuğu önbelleğe okur.
+     * Kabuk komşu chunk'ların bölümlerinden okunur; yüklü olmayan komşu
+     * hava sayılır.
+     */
+    private void fillPadded(World world, Chunk chunk, ChunkSection section, int sectionIndex) {
+        section.copyIds(sectionIds);
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                System.arraycopy(sectionIds, (y << 8) | (z << 4), padded, paddedIndex(0, y, z), 16);
+            }
+        }
+
+        int chunkX = chunk.getChunkX();
+        int chunkZ = chunk.getChunkZ();
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                neighborhood[(dz + 1) * 3 + dx + 1] = dx == 0 && dz == 0 ? chunk
+                        : world.getChunkAt(chunkX + dx, chunkZ + dz);
+            }
+        }
+
+        int baseY = Chunk.MIN_Y + (sectionIndex << 4);
+        for (int y = -1; y <= 16; y++) {
+            boolean yEdge = y < 0 || y > 15;
+            for (int z = -1; z <= 16; z++) {
+                boolean zEdge = z < 0 || z > 15;
+                // İç satırlarda yalnızca iki uç hücre kabukta
+                int step = yEdge || zEdge ? 1 : 17;
+                for (int x = -1; x <= 16; x += step) {
+                    Chunk source = neighborhood[((z >> 4) + 1) * 3 + (x >> 4) + 1];
+                    padded[paddedIndex(x, y, z)] = source == null ? ChunkSection.AIR
+                            : (short) source.getBlockId(x & 15, baseY + y, z & 15);
+                }
+            }
+        }
+    }
+
+    /**
+     * Yüzün dört köşesinin AO seviyesini (0: tam örtülü, 3: açık) hesaplar.
+     */
+    private void computeOcclusion(int face, int p) {
+        if (!ambientOcclusion) {
+            Arrays.fill(ao, 3);
+            return;
+        }
+        int[] offsets = AO_OFFSETS[face];
+        for (int v = 0; v < 4; v++) {
+            boolean side1 = BlockRegistry.isOpaque(padded[p + offsets[v * 3]]);
+            boolean side2 = BlockRegistry.isOpaque(padded[p + offsets[v * 3 + 1]]);
+            boolean corner = BlockRegistry.isOpaque(padded[p + offsets[v * 3 + 2]]);
+            // İki kenar doluysa köşe görünmez: tam örtülü
+            ao[v] = side1 && side2 ? 0 : 3 - ((side1 ? 1 : 0) + (side2 ? 1 : 0) + (corner ? 1 : 0));
+        }
+    }
+
+    private void addFace(int face, int x, int y, int z, int id, int skyLight, int blockLight) {
+        ensureCapacity(vertexCount + 4, indexCount + 6);
+
+        float[] corners = FACE_VERTICES[face];
+        int[] dir = FACE_DIRS[face];
+        float r = blockColors[id * 3];
+        float g = blockColors[id * 3 + 1];
+        float b = blockColors[id * 3 + 2];
+        float sky = skyLight / 15.0f;
+        float torch = blockLight / 15.0f;
+
+        int first = vertexCount;
+        for (int v = 0; v < 4; v++) {
+            int p = vertexCount * 3;
+            float shade = AO_CURVE[ao[v]];
+            positions[p] = x + corners[v * 3];
+            positions[p + 1] = y + corners[v * 3 + 1];
+            positions[p + 2] = z + corners[v * 3 + 2];
+            colors[p] = r * shade;
+            colors[p + 1] = g * shade;
+            colors[p + 2] = b * shade;
+            normals[p] = dir[0];
+            normals[p + 1] = dir[1];
+            normals[p + 2] = dir[2];
+            lights[vertexCount * 2] = sky;
+            lights[vertexCount * 2 + 1] = torch;
+            vertexCount++;
+        }
+
+        // Daha aydınlık köşe çiftinin köşegeninden böl: koyuluk tek üçgende kalır
+        if (ao[0] + ao[2] >= ao[1] + ao[3]) {
+            indices[indexCount++] = first;
+            indices[indexCount++] = first + 1;
+            indices[indexCount++] = first + 2;
+            indices[indexCount++] = first + 2;
+            indices[indexCount++] = first + 3;
+            indices[indexCount++] = first;
+        } else {
+            indices[indexCount++] = first + 1;
+            indices[indexCount++] = first + 2;
+            indices[indexCount++] = first + 3;
+            indices[indexCount++] = first + 3;
+            indices[indexCount++] = first;
+            indices[indexCount++] = first + 1;
+        }
+    }
+
+    private void ensureCapacity(int vertices, int indexTotal) {
+        if (vertices * 3 > positions.length) {
+            int newLength = Math.max(positions.length * 2, vertices * 3);
+            positions = Arrays.copyOf(positions, newLength);
+            colors = Arrays.copyOf(colors, newLength);
+            normals = Arrays.copyOf(normals, newLength);
+            lights = Arrays.copyOf(lights, newLength / 3 * 2);
+        }
+        if (indexTotal > indices.length) {
+            indices = Arrays.copyOf(indices, Math.max(indices.length * 2, indexTotal));
+        }
+    }
+}
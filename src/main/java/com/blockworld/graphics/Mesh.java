@@ -16,14 +16,26 @@ public class Mesh {
     private int posVboId;
     private int colorVboId;
     private int normalVboId;
+    private int lightVboId;
     private int eboId;
 
     private int vertexCount;
 
+    /**
+     * Işıksız mesh: tüm köşeler tam gökyüzü ışığında.
+     */
     public Mesh(float[] positions, float[] colors, float[] normals, int[] indices) {
+        this(positions, colors, normals, fullSkyLight(positions.length / 3), indices);
+    }
+
+    /**
+     * @param lights köşe başına (gökyüzü, blok) ışığı, 0-1
+     */
+    public Mesh(float[] positions, float[] colors, float[] normals, float[] lights, int[] indices) {
         FloatBuffer posBuffer = null;
         FloatBuffer colorBuffer = null;
         FloatBuffer normalBuffer = null;
+        FloatBuffer lightBuffer = null;
         IntBuffer indicesBuffer = null;
 
         try {
@@ -60,6 +72,15 @@ public class Mesh {
             glEnableVertexAttribArray(2);
             glVertexAttribPointer(2, 3, GL_FLOAT, false, 0, 0);
 
+            // Işık VBO
+            lightVboId = glGenBuffers();
+            lightBuffer = MemoryUtil.memAllocFloat(lights.length);
+            lightBuffer.put(lights).flip();
+            glBindBuffer(GL_ARRAY_BUFFER, lightVboId);
+            glBufferData(GL_ARRAY_BUFFER, lightBuffer, GL_STATIC_DRAW);
+            glEnableVertexAttribArray(3);
+            glVertexAttribPointer(3, 2, GL_FLOAT, false, 0, 0);
+
             // EBO (Element Buffer Object)
             eboId = glGenBuffers();
             indicesBuffer = MemoryUtil.memAllocInt(indices.length);
@@ -78,6 +99,8 @@ public class Mesh {
                 MemoryUtil.memFree(colorBuffer);
             if (normalBuffer != null)
                 MemoryUtil.memFree(normalBuffer);
+            if (lightBuffer != null)
+                MemoryUtil.memFree(lightBuffer);
             if (indicesBuffer != null)
                 MemoryUtil.memFree(indicesBuffer);
         }
@@ -101,12 +124,14 @@ public class Mesh {
         glDisableVertexAttribArray(0);
         glDisableVertexAttribArray(1);
         glDisableVertexAttribArray(2);
+        glDisableVertexAttribArray(3);
 
         // VBO'ları sil
         glBindBuffer(GL_ARRAY_BUFFER, 0);
         glDeleteBuffers(posVboId);
         glDeleteBuffers(colorVboId);
         glDeleteBuffers(normalVboId);
+        glDeleteBuffers(lightVboId);
         glDeleteBuffers(eboId);
 
         // VAO'yu sil
@@ -114,6 +139,14 @@ public class Mesh {
         glDeleteVertexArrays(vaoId);
     }
 
+    private static float[] fullSkyLight(int vertices) {
+        float[] lights = new float[vertices * 2];
+        for (int i = 0; i < vertices; i++) {
+            lights[i * 2] = 1.0f;
+        }
+        return lights;
+    }
+
     /**
      * Birim küp oluşturur (1x1x1 boyutunda, merkez orijinde).
      */
@@ -1,31 +1,51 @@
 package com.blockworld.graphics;
 
+import com.blockworld.util.LongObjectMap;
 import com.blockworld.world.Block;
+import com.blockworld.world.BlockChangeListener;
+import com.blockworld.world.BlockRegistry;
+import com.blockworld.world.BlockChangeSet;
+import com.blockworld.world.Chunk;
 import com.blockworld.world.Raycaster;
 import com.blockworld.world.World;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
 import org.joml.Vector3i;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.opengl.GL30.glBindVertexArray;
 
 /**
  * 3D dünyayı render eden sınıf.
+ *
+ * Bölüm mesh önbelleği dünyanın değişiklik dinleyicisidir: tick başına gelen
+ * kirli bölümler kuyruğa alınır ve kare başına bütçe kadarı yeniden
+ * oluşturulur.
  */
-public class Renderer {
+public class Renderer implements BlockChangeListener {
 
     private Shader shader;
     private Shader wireframeShader;
-    private Map<Block.Type, Mesh> blockMeshes;
+    // Blok id'sine göre önizleme küpleri
+    private Mesh[] blockMeshes;
     private Mesh wireframeCube;
     private Matrix4f modelMatrix;
 
+    // Bölüm başına dünya mesh'leri (anahtar: Chunk.sectionKey)
+    private LongObjectMap<Mesh> sectionMeshes;
+    // Yeniden oluşturulmayı bekleyen bölümler
+    private LongObjectMap<Boolean> pendingSections;
+    private long[] rebuildBatch;
+    private ChunkMesher chunkMesher;
+
+    // Kare başına yeniden oluşturulacak en fazla bölüm mesh'i
+    private static final int MESH_REBUILD_BUDGET = 8;
+
     private Raycaster raycaster;
     private Raycaster.RaycastResult currentTarget;
+    // Her karede yeniden doldurulan sonuç (currentTarget isabet varken bunu gösterir)
+    private final Raycaster.RaycastResult targetResult = new Raycaster.RaycastResult();
+    private final Vector3f sunDirection = new Vector3f();
 
     // Shader kaynak kodları (embedded)
     private static final String VERTEX_SHADER = """
@@ -34,10 +54,12 @@ public class Renderer {
             layout (location = 0) in vec3 aPos;
             layout (location = 1) in vec3 aColor;
             layout (location = 2) in vec3 aNormal;
+            layout (location = 3) in vec2 aLight;
 
             out vec3 fragColor;
             out vec3 fragNormal;
             out vec3 fragPos;
+            out vec2 fragLight;
 
             uniform mat4 model;
             uniform mat4 view;
@@ -46,6 +68,7 @@ public class Renderer {
             void main() {
                 fragPos = vec3(model * vec4(aPos, 1.0));
                 fragColor = aColor;
+                fragLight = aLight;
                 fragNormal = mat3(transpose(inverse(model))) * aNormal;
 
                 gl_Position = projection * view * model * vec4(aPos, 1.0);
@@ -58,29 +81,36 @@ public class Renderer {
             in vec3 fragColor;
             in vec3 fragNormal;
             in vec3 fragPos;
+            in vec2 fragLight;
 
             out vec4 FragColor;
 
             uniform vec3 lightDir;
             uniform vec3 viewPos;
+            uniform float daylight;
 
             void main() {
+                // Voksel ışığı: gökyüzü (günün saatiyle ölçeklenir) veya blok ışığı
+                float sky = fragLight.x * daylight;
+                float level = max(sky, fragLight.y);
+                float brightness = 0.04 + 0.96 * pow(0.8, 15.0 * (1.0 - level));
+
                 // Ambient
                 float ambientStrength = 0.4;
-                vec3 ambient = ambientStrength * fragColor;
+                vec3 ambient = ambientStrength * brightness * fragColor;
 
-                // Diffuse
+                // Diffuse (yalnızca gökyüzünü gören yüzler güneşten ışık alır)
                 vec3 norm = normalize(fragNormal);
                 vec3 lightDirection = normalize(-lightDir);
                 float diff = max(dot(norm, lightDirection), 0.0);
-                vec3 diffuse = diff * fragColor * 0.8;
+                vec3 diffuse = diff * fragColor * 0.8 * sky;
 
                 // Specular
                 float specularStrength = 0.1;
                 vec3 viewDir = normalize(viewPos - fragPos);
                 vec3 reflectDir = reflect(-lightDirection, norm);
                 float spec = pow(max(dot(viewDir, reflectDir), 0.0), 16);
-                vec3 specular = specularStrength * spec * vec3(1.0);
+                vec3 specular = specularStrength * spec * sky * vec3(1.0);
 
                 vec3 result = ambient + diffuse + specular;
                 FragColor = vec4(result, 1.0);
@@ -115,8 +145,12 @@ public class Renderer {
     public Renderer() {
         this.shader = new Shader();
         this.wireframeShader = new Shader();
-        this.blockMeshes = new HashMap<>();
+        this.blockMeshes = new Mesh[BlockRegistry.size()];
         this.modelMatrix = new Matrix4f();
+        this.sectionMeshes = new LongObjectMap<>();
+        this.pendingSections = new LongObjectMap<>();
+        this.rebuildBatch = new long[MESH_REBUILD_BUDGET];
+        this.chunkMesher = new ChunkMesher();
         this.raycaster = new Raycaster();
     }
 
@@ -129,6 +163,7 @@ public class Renderer {
             shader.createUniform("projection");
             shader.createUniform("lightDir");
             shader.createUniform("viewPos");
+            shader.createUniform("daylight");
 
             // Wireframe shader'ı derle
             wireframeShader.initFromSource(WIREFRAME_VERTEX_SHADER, WIREFRAME_FRAGMENT_SHADER);
@@ -152,13 +187,11 @@ public class Renderer {
     }
 
     private void createBlockMeshes() {
-        // Her blok tipi için farklı renkli mesh
-        blockMeshes.put(Block.Type.GRASS, Mesh.createCube(0.3f, 0.75f, 0.3f)); // Yeşil
-        blockMeshes.put(Block.Type.DIRT, Mesh.createCube(0.55f, 0.35f, 0.2f)); // Kahverengi
-        blockMeshes.put(Block.Type.STONE, Mesh.createCube(0.5f, 0.5f, 0.55f)); // Gri
-        blockMeshes.put(Block.Type.WOOD, Mesh.createCube(0.6f, 0.4f, 0.25f)); // Açık kahve
-        blockMeshes.put(Block.Type.SAND, Mesh.createCube(0.9f, 0.85f, 0.6f)); // Sarı
-        blockMeshes.put(Block.Type.WATER, Mesh.createCube(0.2f, 0.5f, 0.9f)); // Mavi
+        // Her blok id'si için kayıt defterindeki renkte küp (önizlemeler için)
+        for (int id = 1; id < BlockRegistry.size(); id++) {
+            blockMeshes[id] = Mesh.createCube(BlockRegistry.getRed(id), BlockRegistry.getGreen(id),
+                    BlockRegistry.getBlue(id));
+        }
     }
 
     private Mesh createWireframeCube() {
@@ -183,7 +216,7 @@ public class Renderer {
 
     public void updateTarget(Camera camera, World world) {
         // Bakılan bloğu güncelle
-        currentTarget = raycaster.cast(camera, world, 8.0f);
+        currentTarget = raycaster.cast(camera, world, 8.0f, targetResult) ? targetResult : null;
     }
 
     public void render(Camera camera, World world) {
@@ -196,25 +229,34 @@ public class Renderer {
         shader.setUniform("view", camera.getViewMatrix());
         shader.setUniform("projection", camera.getProjectionMatrix());
 
-        // Işık yönü (güneş gibi yukarıdan ve yandan)
-        shader.setUniform("lightDir", new Vector3f(-0.3f, -1.0f, -0.5f));
+        // Işık yönü ve gökyüzü ışığı günün saatine göre (voksel ışığı yeniden
+        // hesaplanmaz, mesh'ler yeniden oluşturulmaz)
+        shader.setUniform("lightDir", sunDirection(world.getTimeOfDay()));
         shader.setUniform("viewPos", camera.getPosition());
+        float daylight = world.getDaylight();
+        shader.setUniform("daylight", daylight);
+        glClearColor(0.529f * daylight, 0.808f * daylight, 0.922f * daylight, 1.0f);
+
+        // Değişen bölümlerin mesh'lerini (bütçe dahilinde) yeniden oluştur
+        rebuildDirtySections(world);
+
+        // Tüm bölüm mesh'lerini render et
+        for (int slot = 0; slot < sectionMeshes.capacity(); slot++) {
+            Mesh mesh = sectionMeshes.valueAt(slot);
+            if (mesh == null) {
+                continue;
+            }
+            long key = sectionMeshes.keyAt(slot);
 
-        // Tüm blokları render et
-        for (Map.Entry<Vector3i, Block> entry : world.getBlocks().entrySet()) {
-            Vector3i pos = entry.getKey();
-            Block block = entry.getValue();
-
-            // Model matrisini hesapla
+            // Model matrisi: bölümün başlangıç noktası
             modelMatrix.identity();
-            modelMatrix.translate(pos.x, pos.y, pos.z);
+            modelMatrix.translate(
+                    Chunk.sectionKeyX(key) << 4,
+                    Chunk.MIN_Y + (Chunk.sectionKeyIndex(key) << 4),
+                    Chunk.sectionKeyZ(key) << 4);
             shader.setUniform("model", modelMatrix);
 
-            // Bloğu render et
-            Mesh mesh = blockMeshes.get(block.getType());
-            if (mesh != null) {
-                mesh.render();
-            }
+            mesh.render();
         }
 
         // Seçim kutusunu (B tuşu ile açılan mod) çiz
@@ -234,6 +276,68 @@ public class Renderer {
         shader.unbind();
     }
 
+    /**
+     * Güneşten gelen ışığın yönü: doğudan doğar, öğlen tepede; gece ay
+     * karşı yönden aydınlatır.
+     */
+    private Vector3f sunDirection(float timeOfDay) {
+        double angle = (timeOfDay - 0.25) * 2 * Math.PI;
+        float height = (float) Math.sin(angle);
+        float across = (float) Math.cos(angle);
+        if (height < 0) {
+            height = -height;
+            across = -across;
+        }
+        return sunDirection.set(-across, -Math.max(height, 0.2f), -0.5f);
+    }
+
+    /**
+     * Tick'te değişen (veya komşusu değişen) bölümleri yeniden oluşturma
+     * kuyruğuna ekler.
+     */
+    @Override
+    public void onBlocksChanged(BlockChangeSet changes) {
+        for (int i = 0; i < changes.size(); i++) {
+            int chunkX = changes.getChunkX(i);
+            int chunkZ = changes.getChunkZ(i);
+            int mask = changes.getDirtySectionMask(i);
+            while (mask != 0) {
+                int sy = Integer.numberOfTrailingZeros(mask);
+                pendingSections.put(Chunk.sectionKey(chunkX, sy, chunkZ), Boolean.TRUE);
+                mask &= mask - 1;
+            }
+        }
+    }
+
+    /**
+     * Kirli bölümleri kare başına en fazla MESH_REBUILD_BUDGET kadar yeniden
+     * oluşturur; kalanlar sonraki karelere kalır.
+     */
+    private void rebuildDirtySections(World world) {
+        if (pendingSections.isEmpty()) {
+            return;
+        }
+
+        int count = 0;
+        for (int slot = 0; slot < pendingSections.capacity() && count < rebuildBatch.length; slot++) {
+            if (pendingSections.valueAt(slot) != null) {
+                rebuildBatch[count++] = pendingSections.keyAt(slot);
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            long key = rebuildBatch[i];
+            pendingSections.remove(key);
+
+            Mesh mesh = chunkMesher.build(world,
+                    Chunk.sectionKeyX(key), Chunk.sectionKeyIndex(key), Chunk.sectionKeyZ(key));
+            Mesh old = mesh != null ? sectionMeshes.put(key, mesh) : sectionMeshes.remove(key);
+            if (old != null) {
+                old.cleanup();
+            }
+        }
+    }
+
     // SelectionBox çizimi (Kırmızı wireframe)
     private void renderSelectionBox(Camera camera, com.blockworld.world.SelectionBox box) {
         glDisable(GL_DEPTH_TEST);
@@ -309,6 +413,10 @@ public class Renderer {
         glEnable(GL_DEPTH_TEST);
     }
 
+    /**
+     * Bakılan blok (yoksa null). Sonuç her karede yeniden doldurulur;
+     * saklanacaksa kopyalanmalıdır.
+     */
     public Raycaster.RaycastResult getCurrentTarget() {
         return currentTarget;
     }
@@ -338,6 +446,7 @@ public class Renderer {
         shader.setUniform("projection", projection);
         shader.setUniform("lightDir", new Vector3f(-0.5f, -1.0f, 0.5f));
         shader.setUniform("viewPos", new Vector3f(2.0f, 2.0f, 2.0f));
+        shader.setUniform("daylight", 1.0f);
 
         modelMatrix.identity();
         // Bloğu merkeze al
@@ -345,7 +454,7 @@ public class Renderer {
 
         shader.setUniform("model", modelMatrix);
 
-        Mesh mesh = blockMeshes.get(type);
+        Mesh mesh = blockMeshes[type.getId()];
         if (mesh != null) {
             mesh.render();
         }
@@ -356,59 +465,17 @@ public class Renderer {
         glViewport(0, 0, screenWidth, screenHeight);
     }
 
-    public void renderStructurePreview(com.blockworld.world.Structure structure, float x, float y, float size,
-            int screenWidth, int screenHeight) {
-        glViewport((int) x, (int) y, (int) size, (int) size);
-        glClear(GL_DEPTH_BUFFER_BIT);
-        glEnable(GL_DEPTH_TEST);
-
-        shader.bind();
-
-        // Yapının boyutlarını al ve kamerayı ona göre geri çek
-        Vector3i dims = structure.getSize();
-        float maxSize = Math.max(dims.x, Math.max(dims.y, dims.z));
-        float dist = maxSize * 1.5f + 2.0f;
-
-        Matrix4f view = new Matrix4f().lookAt(
-                new Vector3f(dist, dist, dist),
-                new Vector3f(0.0f, 0.0f, 0.0f),
-                new Vector3f(0.0f, 1.0f, 0.0f));
-
-        Matrix4f projection = new Matrix4f().perspective((float) Math.toRadians(45.0f), 1.0f, 0.1f, 100.0f);
-
-        shader.setUniform("view", view);
-        shader.setUniform("projection", projection);
-        shader.setUniform("lightDir", new Vector3f(-0.5f, -1.0f, 0.5f));
-        shader.setUniform("viewPos", new Vector3f(dist, dist, dist));
-
-        // Yapıyı merkeze hizala
-        float offsetX = -dims.x / 2.0f;
-        float offsetY = -dims.y / 2.0f;
-        float offsetZ = -dims.z / 2.0f;
-
-        // Yapıdaki her bloğu çiz
-        for (com.blockworld.world.Structure.StructureBlock sb : structure.getBlocks()) {
-            modelMatrix.identity();
-            modelMatrix.translate(offsetX + sb.offsetX, offsetY + sb.offsetY, offsetZ + sb.offsetZ);
-
-            shader.setUniform("model", modelMatrix);
-
-            Mesh mesh = blockMeshes.get(sb.type);
-            if (mesh != null) {
-                mesh.render();
-            }
-        }
-
-        shader.unbind();
-        glViewport(0, 0, screenWidth, screenHeight);
-    }
-
     // cleanup metodu dosya sonunda olmalı, eklemeyi buraya yapıyoruz.
 
     public void cleanup() {
         shader.cleanup();
         wireframeShader.cleanup();
-        for (Mesh mesh : blockMeshes.values()) {
+        for (Mesh mesh : blockMeshes) {
+            if (mesh != null) {
+                mesh.cleanup();
+            }
+        }
+        for (Mesh mesh : sectionMeshes.values()) {
             mesh.cleanup();
         }
         if (wireframeCube != null) {
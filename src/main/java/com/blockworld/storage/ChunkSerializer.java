@@ -0,0 +1,82 @@
+package com.blockworld.storage;
+
+import com.blockworld.world.Chunk;
+import com.blockworld.world.ChunkSection;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Chunk'ları bölge dosyalarında saklanan ikili biçime çevirir.
+ *
+ * Biçim: sürüm (1 bayt), bayraklar (1 bayt), bölüm maskesi (4 bayt) ve
+ * maskedeki her bölüm için {@link ChunkSection#writeTo} çıktısı.
+ */
+public final class ChunkSerializer {
+
+    private static final int VERSION = 1;
+    private static final int FLAG_POPULATED = 1;
+
+    private ChunkSerializer() {
+    }
+
+    /**
+     * Chunk'ın yazılmış boyutu (bayt).
+     */
+    public static int serializedSize(Chunk chunk) {
+        int size = 1 + 1 + 4;
+        for (int sy = 0; sy < Chunk.SECTION_COUNT; sy++) {
+            ChunkSection section = chunk.getSection(sy);
+            if (section != null) {
+                size += section.serializedSize();
+            }
+        }
+        return size;
+    }
+
+    public static void write(Chunk chunk, ByteBuffer buffer) {
+        int mask = 0;
+        for (int sy = 0; sy < Chunk.SECTION_COUNT; sy++) {
+            if (chunk.getSection(sy) != null) {
+                mask |= 1 << sy;
+            }
+        }
+
+        buffer.put((byte) VERSION);
+        buffer.put((byte) (chunk.isPopulated() ? FLAG_POPULATED : 0));
+        buffer.putInt(mask);
+        for (int sy = 0; sy < Chunk.SECTION_COUNT; sy++) {
+            ChunkSection section = chunk.getSection(sy);
+            if (section != null) {
+                section.writeTo(buffer);
+            }
+        }
+    }
+
+    /**
+     * Chunk'ı bağımsız bir bayt dizisine yazar (anlık görüntü olarak saklamak
+     * için).
+     */
+    public static byte[] toBytes(Chunk chunk) {
+        ByteBuffer buffer = ByteBuffer.allocate(serializedSize(chunk));
+        write(chunk, buffer);
+        return buffer.array();
+    }
+
+    public static Chunk read(int chunkX, int chunkZ, ByteBuffer buffer) {
+        int version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalStateException("Bilinmeyen chunk sürümü: " + version);
+        }
+        int flags = buffer.get();
+        int mask = buffer.getInt();
+
+        Chunk chunk = new Chunk(chunkX, chunkZ);
+        for (int sy = 0; sy < Chunk.SECTION_COUNT; sy++) {
+            if ((mask & (1 << sy)) != 0) {
+                chunk.setSection(sy, ChunkSection.readFrom(buffer));
+            }
+        }
+        chunk.setPopulated((flags & FLAG_POPULATED) != 0);
+        return chunk;
+    }
+}
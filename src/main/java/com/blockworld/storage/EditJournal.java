@@ -0,0 +1,379 @@
+package com.blockworld.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Dünya düzenlemelerinin salt eklenen ikili günlüğü.
+ *
+ * Oyun döngüsü kayıtları yalnızca bellekteki bir tampona ekler; ayrı bir iş
+ * parçacığı tamponu belirli aralıklarla dosyaya yazar ve toplu olarak fsync
+ * yapar. Her yazma bloğu [uzunluk][CRC32][kayıtlar] biçimindedir, böylece
+ * çökmede yarım kalan son blok tanınıp atlanır.
+ *
+ * Günlük numaralı parçalara (journal-N.bwj) bölünür. Sıkıştırma sırasında
+ * parça döndürülür; eski parçalar içerikleri bölge dosyalarına yazıldıktan
+ * sonra silinir. Döndürme de oyun döngüsünde disk işlemi yapmaz: parça sınırı
+ * tamponda işaretlenir, dosya işlemleri bir sonraki yazmada yapılır.
+ */
+public class EditJournal implements Closeable {
+
+    public static final byte RECORD_SET = 1;
+    public static final byte RECORD_BATCH_BEGIN = 2;
+    public static final byte RECORD_BATCH_END = 3;
+    public static final byte RECORD_FILL = 4;
+
+    private static final int SET_RECORD_SIZE = 1 + 4 * 3 + 2;
+    private static final int FILL_RECORD_SIZE = 1 + 4 * 6 + 2;
+    private static final int BLOCK_HEADER_SIZE = 8;
+
+    // Yazıcı iş parçacığının tamponu diske aktarma aralığı
+    private static final long FLUSH_INTERVAL_MS = 200;
+
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".bwj";
+
+    /**
+     * Günlük okunurken kayıtları alan geri çağırım.
+     */
+    public interface Visitor {
+        void set(int x, int y, int z, int id);
+
+        /**
+         * Kutu doldurma kaydı (sınırlar dahil). Varsayılan olarak her blok
+         * için {@link #set} çağrılır.
+         */
+        default void fill(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int id) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    for (int x = minX; x <= maxX; x++) {
+                        set(x, y, z, id);
+                    }
+                }
+            }
+        }
+    }
+
+    private final Path directory;
+
+    // Oyun döngüsünün kayıt eklediği tampon (bufferLock ile korunur)
+    private final Object bufferLock = new Object();
+    private ByteBuffer active;
+    private ByteBuffer spare;
+    // Döndürülmüş ama henüz dosyaya yazılmamış parça sonları
+    private final ArrayDeque<ByteBuffer> rotated;
+    // Kayıtların şu anda eklendiği (mantıksal) parça
+    private int recordSegment;
+
+    // Dosya işlemleri (ioLock ile korunur)
+    private final Object ioLock = new Object();
+    private FileChannel channel;
+    private int segment;
+    private long segmentSize;
+
+    private final Thread writer;
+    private final Object signal = new Object();
+    private volatile boolean running;
+
+    public EditJournal(Path directory) throws IOException {
+        this.directory = directory;
+        this.active = ByteBuffer.allocate(64 * 1024);
+        this.spare = ByteBuffer.allocate(64 * 1024);
+        this.rotated = new ArrayDeque<>();
+
+        List<Integer> existing = listSegments(directory);
+        this.segment = existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1;
+        this.recordSegment = segment;
+        this.channel = openSegment(segment);
+
+        this.running = true;
+        this.writer = new Thread(this::writerLoop, "JournalWriter");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    private FileChannel openSegment(int id) throws IOException {
+        segmentSize = 0;
+        return FileChannel.open(segmentPath(directory, id),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    public static Path segmentPath(Path directory, int id) {
+        return directory.resolve(PREFIX + id + SUFFIX);
+    }
+
+    /**
+     * Klasördeki günlük parçalarının numaraları (küçükten büyüğe).
+     */
+    public static List<Integer> listSegments(Path directory) throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return ids;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    ids.add(Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Günlüğe ait olmayan dosya
+                }
+            }
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    public void recordSet(int x, int y, int z, int id) {
+        synchronized (bufferLock) {
+            ensureCapacity(SET_RECORD_SIZE);
+            active.put(RECORD_SET).putInt(x).putInt(y).putInt(z).putShort((short) id);
+        }
+    }
+
+    public void recordFill(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int id) {
+        synchronized (bufferLock) {
+            ensureCapacity(FILL_RECORD_SIZE);
+            active.put(RECORD_FILL).putInt(minX).putInt(minY).putInt(minZ)
+                    .putInt(maxX).putInt(maxY).putInt(maxZ).putShort((short) id);
+        }
+    }
+
+    public void beginBatch() {
+        putMarker(RECORD_BATCH_BEGIN);
+    }
+
+    public void endBatch() {
+        putMarker(RECORD_BATCH_END);
+    }
+
+    private void putMarker(byte type) {
+        synchronized (bufferLock) {
+            ensureCapacity(1);
+            active.put(type);
+        }
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (active.remaining() < bytes) {
+            // Oyun döngüsü asla diski beklemez; tampon büyütülür
+            ByteBuffer bigger = ByteBuffer.allocate(active.capacity() * 2);
+            active.flip();
+            bigger.put(active);
+            active = bigger;
+        }
+    }
+
+    private void writerLoop() {
+        while (running) {
+            try {
+                // Kesme (interrupt) kullanılmaz: FileChannel kesilirse kapanır
+                synchronized (signal) {
+                    signal.wait(FLUSH_INTERVAL_MS);
+                }
+                flush();
+            } catch (InterruptedException e) {
+                break;
+            } catch (IOException e) {
+                System.err.println("Günlük yazılamadı: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Tampondaki kayıtları (ve bekleyen parça döndürmelerini) diske yazar ve
+     * fsync yapar.
+     */
+    public void flush() throws IOException {
+        synchronized (ioLock) {
+            ByteBuffer[] tails;
+            ByteBuffer data;
+            synchronized (bufferLock) {
+                tails = rotated.toArray(new ByteBuffer[0]);
+                rotated.clear();
+                data = swapBuffers();
+            }
+            for (ByteBuffer tail : tails) {
+                tail.flip();
+                writeBlock(tail);
+                channel.close();
+                segment++;
+                channel = openSegment(segment);
+            }
+            writeBlock(data);
+        }
+    }
+
+    // bufferLock tutulurken çağrılır
+    private ByteBuffer swapBuffers() {
+        ByteBuffer data = active;
+        active = spare;
+        active.clear();
+        spare = data;
+        data.flip();
+        return data;
+    }
+
+    private void writeBlock(ByteBuffer data) throws IOException {
+        if (!data.hasRemaining()) {
+            return;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data.duplicate());
+
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+        header.putInt(data.remaining()).putInt((int) crc.getValue()).flip();
+        segmentSize += header.remaining() + data.remaining();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Geçerli parçayı kapatır ve kapanan parçanın numarasını döndürür. Çağrıdan
+     * önce eklenen tüm kayıtlar kapanan parçada, sonrakiler yenisindedir.
+     * Disk işlemi yapmaz; parça, {@link #flush()} ile diske yazılınca kapanır.
+     */
+    public int rotate() {
+        synchronized (bufferLock) {
+            rotated.add(active);
+            active = ByteBuffer.allocate(spare.capacity());
+            return recordSegment++;
+        }
+    }
+
+    /**
+     * Numarası verilen değere eşit veya küçük olan parçaları siler.
+     */
+    public void deleteSegmentsUpTo(int id) throws IOException {
+        for (int existing : listSegments(directory)) {
+            if (existing <= id) {
+                Files.deleteIfExists(segmentPath(directory, existing));
+            }
+        }
+    }
+
+    /**
+     * Geçerli parçanın diske yazılmış boyutu.
+     */
+    public long getSegmentSize() {
+        synchronized (ioLock) {
+            return segmentSize;
+        }
+    }
+
+    /**
+     * Kayıtların şu anda eklendiği parçanın numarası.
+     */
+    public int getSegment() {
+        synchronized (bufferLock) {
+            return recordSegment;
+        }
+    }
+
+    /**
+     * Bir günlük parçasını okur. Bozuk veya yarım kalan bloklarda durur;
+     * tamamlanmamış toplu düzenlemeler (BEGIN var, END yok) atlanır.
+     *
+     * @return uygulanan kayıt sayısı
+     */
+    public static int read(Path path, Visitor visitor) throws IOException {
+        ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(path));
+        int applied = 0;
+
+        // Açık toplu düzenlemenin kayıtları END gelene kadar bekletilir
+        ByteBuffer batch = null;
+
+        while (file.remaining() >= BLOCK_HEADER_SIZE) {
+            int length = file.getInt();
+            int expectedCrc = file.getInt();
+            if (length < 0 || length > file.remaining()) {
+                break; // Yarım kalan blok
+            }
+            ByteBuffer block = file.slice();
+            block.limit(length);
+            file.position(file.position() + length);
+
+            CRC32 crc = new CRC32();
+            crc.update(block.duplicate());
+            if ((int) crc.getValue() != expectedCrc) {
+                break; // Bozuk blok
+            }
+
+            while (block.hasRemaining()) {
+                int start = block.position();
+                byte type = block.get();
+                if (type == RECORD_SET || type == RECORD_FILL) {
+                    int recordSize = type == RECORD_SET ? SET_RECORD_SIZE : FILL_RECORD_SIZE;
+                    if (batch != null) {
+                        // Kayıt END gelene kadar olduğu gibi saklanır
+                        if (batch.remaining() < recordSize) {
+                            ByteBuffer bigger = ByteBuffer.allocate(batch.capacity() * 2 + recordSize);
+                            batch.flip();
+                            bigger.put(batch);
+                            batch = bigger;
+                        }
+                        batch.put(block.slice(start, recordSize));
+                        block.position(start + recordSize);
+                    } else {
+                        applied += applyRecord(type, block, visitor);
+                    }
+                } else if (type == RECORD_BATCH_BEGIN) {
+                    batch = ByteBuffer.allocate(16 * 1024);
+                } else if (type == RECORD_BATCH_END) {
+                    if (batch != null) {
+                        batch.flip();
+                        while (batch.hasRemaining()) {
+                            applied += applyRecord(batch.get(), batch, visitor);
+                        }
+                        batch = null;
+                    }
+                } else {
+                    throw new IOException(path + ": bilinmeyen kayıt tipi " + type);
+                }
+            }
+        }
+        return applied;
+    }
+
+    private static int applyRecord(byte type, ByteBuffer buffer, Visitor visitor) {
+        if (type == RECORD_SET) {
+            visitor.set(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getShort() & 0xFFFF);
+        } else {
+            visitor.fill(buffer.getInt(), buffer.getInt(), buffer.getInt(),
+                    buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getShort() & 0xFFFF);
+        }
+        return 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        try {
+            writer.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        synchronized (ioLock) {
+            channel.close();
+        }
+    }
+}
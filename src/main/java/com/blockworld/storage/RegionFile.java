@@ -0,0 +1,214 @@
+package com.blockworld.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 32x32 chunk'ı tek dosyada tutan bölge dosyası.
+ *
+ * Dosya 4 KB'lık sektörlerden oluşur. İlk sektör, her chunk için
+ * (başlangıç sektörü &lt;&lt; 8 | sektör sayısı) değerini tutan tablodur. Chunk
+ * verisi uzunluk (4 bayt), sıkıştırma tipi (1 bayt) ve sıkıştırılmış yükten
+ * oluşur. Chunk'lar yerinde değil, boş sektörlere yazılır (bkz. write).
+ * Okuma FileChannel.map ile yapılır: bir chunk'ı yüklemek tablo araması ve
+ * sıkıştırma açmaktan ibarettir.
+ */
+public class RegionFile implements Closeable {
+
+    public static final int REGION_SIZE = 32;
+    public static final int SECTOR_SIZE = 4096;
+
+    private static final int CHUNK_COUNT = REGION_SIZE * REGION_SIZE;
+    private static final int CHUNK_HEADER_SIZE = 5;
+    private static final int MAX_SECTORS_PER_CHUNK = 255;
+
+    public static final byte COMPRESSION_DEFLATE = 1;
+
+    private final Path path;
+    private final FileChannel channel;
+
+    // Chunk başına (başlangıç sektörü << 8 | sektör sayısı), 0 = yok
+    private final int[] offsets;
+    private final BitSet usedSectors;
+    // Tablodan çıkmış ama yeni girdisi henüz diske zorlanmamış sektörler
+    private final BitSet pendingSectors;
+    private int sectorCount;
+
+    private MappedByteBuffer mapped;
+    private long mappedSize;
+
+    public RegionFile(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.offsets = new int[CHUNK_COUNT];
+        this.usedSectors = new BitSet();
+        this.pendingSectors = new BitSet();
+
+        if (channel.size() < SECTOR_SIZE) {
+            // Yeni dosya: boş başlık yaz
+            channel.write(ByteBuffer.allocate(SECTOR_SIZE), 0);
+        }
+        sectorCount = (int) ((channel.size() + SECTOR_SIZE - 1) / SECTOR_SIZE);
+        usedSectors.set(0);
+
+        ByteBuffer header = map();
+        for (int i = 0; i < CHUNK_COUNT; i++) {
+            int entry = header.getInt(i * 4);
+            offsets[i] = entry;
+            if (entry != 0) {
+                usedSectors.set(entry >>> 8, (entry >>> 8) + (entry & 0xFF));
+            }
+        }
+    }
+
+    private static int index(int localX, int localZ) {
+        return (localZ & (REGION_SIZE - 1)) * REGION_SIZE + (localX & (REGION_SIZE - 1));
+    }
+
+    /**
+     * Dosyanın eşlenmiş görünümünü döndürür; dosya büyüdüyse yeniden eşler.
+     */
+    private MappedByteBuffer map() throws IOException {
+        long size = channel.size();
+        if (mapped == null || size != mappedSize) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mappedSize = size;
+        }
+        return mapped;
+    }
+
+    public synchronized boolean hasChunk(int localX, int localZ) {
+        return offsets[index(localX, localZ)] != 0;
+    }
+
+    /**
+     * Chunk verisini açıp hedef tampona yazar. Chunk yoksa null döner.
+     * Dönen tampon okunmaya hazırdır (position = 0, limit = veri boyu).
+     */
+    public synchronized ByteBuffer read(int localX, int localZ, Inflater inflater, ByteBuffer target)
+            throws IOException {
+        int entry = offsets[index(localX, localZ)];
+        if (entry == 0) {
+            return null;
+        }
+
+        ByteBuffer view = map().duplicate();
+        int start = (entry >>> 8) * SECTOR_SIZE;
+        int length = view.getInt(start);
+        byte compression = view.get(start + 4);
+        if (compression != COMPRESSION_DEFLATE) {
+            throw new IOException(path + ": bilinmeyen sıkıştırma tipi " + compression);
+        }
+        view.position(start + CHUNK_HEADER_SIZE).limit(start + CHUNK_HEADER_SIZE + length);
+
+        inflater.reset();
+        inflater.setInput(view);
+        target.clear();
+        try {
+            while (!inflater.finished()) {
+                if (!target.hasRemaining()) {
+                    ByteBuffer bigger = ByteBuffer.allocate(target.capacity() * 2);
+                    target.flip();
+                    bigger.put(target);
+                    target = bigger;
+                }
+                if (inflater.inflate(target) == 0 && inflater.needsInput()) {
+                    throw new IOException(path + ": eksik chunk verisi");
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException(path + ": bozuk chunk verisi", e);
+        }
+        target.flip();
+        return target;
+    }
+
+    /**
+     * Sıkıştırılmış chunk verisini yazar. Veri her zaman boş bir sektör
+     * aralığına yazılır ve diske zorlanır; tablo girdisi ancak ondan sonra
+     * güncellenir. Yarıda kalan bir yazmada tablo eski, sağlam kaydı gösterir.
+     * Eski sektörler, yeni girdi diske zorlanana kadar (sonraki yazma veya
+     * flush) yeniden kullanılmaz.
+     */
+    public synchronized void write(int localX, int localZ, ByteBuffer compressed) throws IOException {
+        int length = compressed.remaining();
+        int sectorsNeeded = (length + CHUNK_HEADER_SIZE + SECTOR_SIZE - 1) / SECTOR_SIZE;
+        if (sectorsNeeded > MAX_SECTORS_PER_CHUNK) {
+            throw new IOException(path + ": chunk çok büyük (" + length + " bayt)");
+        }
+
+        int index = index(localX, localZ);
+        int oldEntry = offsets[index];
+        int start = findFreeRun(sectorsNeeded);
+        usedSectors.set(start, start + sectorsNeeded);
+        sectorCount = Math.max(sectorCount, start + sectorsNeeded);
+
+        ByteBuffer header = ByteBuffer.allocate(CHUNK_HEADER_SIZE);
+        header.putInt(length).put(COMPRESSION_DEFLATE).flip();
+        long position = (long) start * SECTOR_SIZE;
+        writeFully(header, position);
+        writeFully(compressed, position + CHUNK_HEADER_SIZE);
+
+        // Dosya sonunu sektör sınırına tamamla
+        long end = (long) sectorCount * SECTOR_SIZE;
+        if (channel.size() < end) {
+            writeFully(ByteBuffer.allocate(1), end - 1);
+        }
+
+        // Veri (ve önceki yazmaların tablo girdileri) diskte; bekleyen
+        // sektörler artık hiçbir kalıcı girdi tarafından gösterilmiyor
+        channel.force(false);
+        releasePendingSectors();
+
+        offsets[index] = (start << 8) | sectorsNeeded;
+        ByteBuffer entryBuffer = ByteBuffer.allocate(4);
+        entryBuffer.putInt(offsets[index]).flip();
+        writeFully(entryBuffer, index * 4L);
+
+        if (oldEntry != 0) {
+            pendingSectors.set(oldEntry >>> 8, (oldEntry >>> 8) + (oldEntry & 0xFF));
+        }
+    }
+
+    private void releasePendingSectors() {
+        usedSectors.andNot(pendingSectors);
+        pendingSectors.clear();
+    }
+
+    private int findFreeRun(int length) {
+        int start = usedSectors.nextClearBit(1);
+        while (true) {
+            int nextUsed = usedSectors.nextSetBit(start);
+            if (nextUsed < 0 || nextUsed - start >= length) {
+                return start;
+            }
+            start = usedSectors.nextClearBit(nextUsed);
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    public synchronized void flush() throws IOException {
+        channel.force(false);
+        releasePendingSectors();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        mapped = null;
+        channel.close();
+    }
+}
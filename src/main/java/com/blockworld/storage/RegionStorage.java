@@ -0,0 +1,237 @@
+package com.blockworld.storage;
+
+import com.blockworld.world.Chunk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Bir dünyanın bölge dosyalarını yöneten depo.
+ *
+ * Birden fazla iş parçacığından aynı anda kullanılabilir; her bölge dosyası
+ * kendi içinde senkronizedir. Yükleme/kaydetme süreleri toplanır ve
+ * {@link #getStatsReport()} ile raporlanır.
+ */
+public class RegionStorage implements Closeable {
+
+    private static final String LEVEL_FILE = "level.properties";
+
+    private final Path directory;
+    private final Map<Long, RegionFile> regions;
+
+    // İş parçacığı başına sıkıştırma nesneleri ve tamponlar
+    private final ThreadLocal<Deflater> deflaters = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+    private final ThreadLocal<ByteBuffer[]> buffers = ThreadLocal.withInitial(
+            () -> new ByteBuffer[] { ByteBuffer.allocate(64 * 1024), ByteBuffer.allocate(64 * 1024) });
+
+    // İstatistikler
+    private final AtomicLong loadedChunks = new AtomicLong();
+    private final AtomicLong loadedBytes = new AtomicLong();
+    private final AtomicLong loadNanos = new AtomicLong();
+    private final AtomicLong savedChunks = new AtomicLong();
+    private final AtomicLong savedBytes = new AtomicLong();
+    private final AtomicLong saveNanos = new AtomicLong();
+
+    public RegionStorage(Path directory) throws IOException {
+        this.directory = directory;
+        this.regions = new HashMap<>();
+        Files.createDirectories(directory);
+    }
+
+    private synchronized RegionFile getRegion(int chunkX, int chunkZ) throws IOException {
+        int regionX = chunkX >> 5;
+        int regionZ = chunkZ >> 5;
+        long key = ((long) regionX << 32) | (regionZ & 0xFFFFFFFFL);
+        RegionFile region = regions.get(key);
+        if (region == null) {
+            region = new RegionFile(directory.resolve("r." + regionX + "." + regionZ + ".bwr"));
+            regions.put(key, region);
+        }
+        return region;
+    }
+
+    /**
+     * Chunk'ı diskten yükler; kayıtlı değilse null döner.
+     */
+    public Chunk loadChunk(int chunkX, int chunkZ) throws IOException {
+        long start = System.nanoTime();
+        RegionFile region = getRegion(chunkX, chunkZ);
+        if (!region.hasChunk(chunkX, chunkZ)) {
+            return null;
+        }
+
+        ByteBuffer[] tls = buffers.get();
+        ByteBuffer data = region.read(chunkX, chunkZ, inflaters.get(), tls[0]);
+        if (data == null) {
+            return null;
+        }
+        tls[0] = data; // Tampon büyüdüyse sakla
+        int size = data.remaining();
+        Chunk chunk = ChunkSerializer.read(chunkX, chunkZ, data);
+
+        loadedChunks.incrementAndGet();
+        loadedBytes.addAndGet(size);
+        loadNanos.addAndGet(System.nanoTime() - start);
+        return chunk;
+    }
+
+    /**
+     * Chunk'ı sıkıştırıp bölge dosyasına yazar. Chunk bu sırada
+     * değiştirilmemelidir.
+     */
+    public void saveChunk(Chunk chunk) throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer[] tls = buffers.get();
+
+        int size = ChunkSerializer.serializedSize(chunk);
+        if (tls[0].capacity() < size) {
+            tls[0] = ByteBuffer.allocate(Integer.highestOneBit(size) << 1);
+        }
+        ByteBuffer raw = tls[0];
+        raw.clear();
+        ChunkSerializer.write(chunk, raw);
+        raw.flip();
+
+        writeRaw(chunk.getChunkX(), chunk.getChunkZ(), raw);
+        saveNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    /**
+     * Daha önce {@link ChunkSerializer#toBytes} ile alınmış chunk verisini
+     * sıkıştırıp yazar. Chunk'ın kendisine dokunmadığı için başka bir iş
+     * parçacığında güvenle çağrılabilir.
+     */
+    public void saveSerialized(int chunkX, int chunkZ, byte[] data) throws IOException {
+        long start = System.nanoTime();
+        writeRaw(chunkX, chunkZ, ByteBuffer.wrap(data));
+        saveNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    private void writeRaw(int chunkX, int chunkZ, ByteBuffer raw) throws IOException {
+        int size = raw.remaining();
+        ByteBuffer[] tls = buffers.get();
+
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteBuffer compressed = tls[1];
+        compressed.clear();
+        while (!deflater.finished()) {
+            if (!compressed.hasRemaining()) {
+                ByteBuffer bigger = ByteBuffer.allocate(compressed.capacity() * 2);
+                compressed.flip();
+                bigger.put(compressed);
+                compressed = bigger;
+                tls[1] = bigger;
+            }
+            deflater.deflate(compressed);
+        }
+        compressed.flip();
+
+        getRegion(chunkX, chunkZ).write(chunkX, chunkZ, compressed);
+
+        savedChunks.incrementAndGet();
+        savedBytes.addAndGet(size);
+    }
+
+    /**
+     * Chunk listesini paralel olarak kaydeder. Çağrı sırasında chunk'lar
+     * değiştirilmemelidir.
+     */
+    public void saveChunks(List<Chunk> chunks) throws IOException {
+        try {
+            chunks.parallelStream().forEach(chunk -> {
+                try {
+                    saveChunk(chunk);
+                } catch (IOException e) {
+                    throw new StorageException(e);
+                }
+            });
+        } catch (StorageException e) {
+            throw (IOException) e.getCause();
+        }
+    }
+
+    /**
+     * Kayıtlı dünya tohumunu okur; yoksa verilen değeri kaydedip döndürür.
+     */
+    public long loadOrCreateSeed(long defaultSeed) throws IOException {
+        Path file = directory.resolve(LEVEL_FILE);
+        Properties properties = new Properties();
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                properties.load(in);
+            }
+            String seed = properties.getProperty("seed");
+            if (seed != null) {
+                return Long.parseLong(seed);
+            }
+        }
+        properties.setProperty("seed", Long.toString(defaultSeed));
+        try (OutputStream out = Files.newOutputStream(file)) {
+            properties.store(out, "BlockWorld");
+        }
+        return defaultSeed;
+    }
+
+    /**
+     * Açık bölge dosyalarını diske zorlar (fsync).
+     */
+    public synchronized void flush() throws IOException {
+        for (RegionFile region : regions.values()) {
+            region.flush();
+        }
+    }
+
+    public String getStatsReport() {
+        return String.format("Depo: %d chunk yüklendi (%s), %d chunk kaydedildi (%s)",
+                loadedChunks.get(), throughput(loadedChunks.get(), loadedBytes.get(), loadNanos.get()),
+                savedChunks.get(), throughput(savedChunks.get(), savedBytes.get(), saveNanos.get()));
+    }
+
+    private static String throughput(long chunks, long bytes, long nanos) {
+        if (chunks == 0 || nanos == 0) {
+            return "-";
+        }
+        double seconds = nanos / 1e9;
+        return String.format("%.0f chunk/s, %.1f MB/s", chunks / seconds, bytes / seconds / (1024 * 1024));
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (RegionFile region : regions.values()) {
+            region.flush();
+            region.close();
+        }
+        regions.clear();
+    }
+
+    /**
+     * Paralel akış içinden IOException taşımak için.
+     */
+    private static class StorageException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        StorageException(IOException cause) {
+            super(cause);
+        }
+    }
+}
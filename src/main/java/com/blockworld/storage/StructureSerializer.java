@@ -0,0 +1,320 @@
+package com.blockworld.storage;
+
+import com.blockworld.world.Block;
+import com.blockworld.world.Structure;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Yapıları ikili .bws biçiminde okur ve yazar.
+ *
+ * Biçim: sihirli sayı "BWS1", sürüm (1 bayt), ad (UTF), boyutlar (3 int), blok
+ * sayısı (int), küçük resim (sürüm 2; çözünürlük baytı ve RGBA baytları),
+ * içerik özeti (sürüm 3; uzunluk baytı ve özet), palet ve voksel dizisinin
+ * RLE kodlaması. Palet blok tipi
+ * adlarını saklar (0. giriş her zaman havadır ve yazılmaz), böylece dosyalar
+ * sayısal id'ler değişse de okunabilir. Ardından x en hızlı değişecek
+ * sırayla (uzunluk, palet indeksi) çiftleri değişken uzunluklu tamsayı
+ * (varint) olarak gelir.
+ *
+ * Okuma ve yazma akış üzerinden yapılır; dosyanın tamamı belleğe alınmaz.
+ */
+public final class StructureSerializer {
+
+    public static final String EXTENSION = ".bws";
+
+    private static final int MAGIC = 0x42575331; // "BWS1"
+    private static final int VERSION = 3;
+    // Eski sürümler hâlâ okunabilir: 1 küçük resimsiz, 2 içerik özetsiz
+    private static final int VERSION_NO_THUMBNAIL = 1;
+    private static final int VERSION_NO_HASH = 2;
+
+    // Küçük resim çözünürlüğü (kenar başına hücre)
+    public static final int THUMBNAIL_SIZE = 8;
+
+    private StructureSerializer() {
+    }
+
+    /**
+     * Dosyanın başındaki, voksel verisi okunmadan erişilebilen bilgiler.
+     */
+    public static class Header {
+        public final String name;
+        public final int sizeX;
+        public final int sizeY;
+        public final int sizeZ;
+        public final int blockCount;
+        // Yukarıdan görünüm, hücre başına RGBA (yoksa null)
+        public final byte[] thumbnail;
+        // Structure.getContentHash() (eski dosyalarda null)
+        public final byte[] contentHash;
+
+        public Header(String name, int sizeX, int sizeY, int sizeZ, int blockCount, byte[] thumbnail,
+                byte[] contentHash) {
+            this.name = name;
+            this.sizeX = sizeX;
+            this.sizeY = sizeY;
+            this.sizeZ = sizeZ;
+            this.blockCount = blockCount;
+            this.thumbnail = thumbnail;
+            this.contentHash = contentHash;
+        }
+
+        /**
+         * Aynı içerikli, farklı adlı başlık.
+         */
+        public Header withName(String newName) {
+            return new Header(newName, sizeX, sizeY, sizeZ, blockCount, thumbnail, contentHash);
+        }
+    }
+
+    public static void write(Structure structure, Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            write(structure, out);
+        }
+    }
+
+    public static void write(Structure structure, OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 64 * 1024));
+        int sizeX = structure.getSizeX();
+        int sizeY = structure.getSizeY();
+        int sizeZ = structure.getSizeZ();
+        short[] row = new short[sizeX];
+
+        // Paleti oluştur: id -> palet indeksi (0 = hava)
+        int[] paletteIndex = new int[Block.Type.values().length + 1];
+        Arrays.fill(paletteIndex, -1);
+        paletteIndex[Block.AIR_ID] = 0;
+        int[] palette = new int[paletteIndex.length];
+        int paletteSize = 1;
+        for (int y = 0; y < sizeY; y++) {
+            for (int z = 0; z < sizeZ; z++) {
+                structure.readRow(0, y, z, row, 0, sizeX);
+                for (short id : row) {
+                    int value = id & 0xFFFF;
+                    if (value >= paletteIndex.length) {
+                        int oldLength = paletteIndex.length;
+                        paletteIndex = Arrays.copyOf(paletteIndex, value + 1);
+                        Arrays.fill(paletteIndex, oldLength, value + 1, -1);
+                        palette = Arrays.copyOf(palette, value + 1);
+                    }
+                    if (paletteIndex[value] < 0) {
+                        paletteIndex[value] = paletteSize;
+                        palette[paletteSize++] = value;
+                    }
+                }
+            }
+        }
+
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeUTF(structure.getName());
+        out.writeInt(sizeX);
+        out.writeInt(sizeY);
+        out.writeInt(sizeZ);
+        out.writeInt(structure.getBlockCount());
+        out.writeByte(THUMBNAIL_SIZE);
+        out.write(structure.createThumbnail(THUMBNAIL_SIZE));
+        byte[] hash = structure.getContentHash();
+        out.writeByte(hash.length);
+        out.write(hash);
+
+        writeVarInt(out, paletteSize - 1);
+        for (int i = 1; i < paletteSize; i++) {
+            Block.Type type = Block.Type.fromId(palette[i]);
+            out.writeUTF(type != null ? type.name() : "");
+        }
+
+        // Uzunluk/değer çiftleri (koşular satır sınırlarını aşabilir)
+        int runValue = -1;
+        int runLength = 0;
+        for (int y = 0; y < sizeY; y++) {
+            for (int z = 0; z < sizeZ; z++) {
+                structure.readRow(0, y, z, row, 0, sizeX);
+                for (short id : row) {
+                    int value = id & 0xFFFF;
+                    if (value == runValue) {
+                        runLength++;
+                        continue;
+                    }
+                    if (runLength > 0) {
+                        writeVarInt(out, runLength);
+                        writeVarInt(out, paletteIndex[runValue]);
+                    }
+                    runValue = value;
+                    runLength = 1;
+                }
+            }
+        }
+        if (runLength > 0) {
+            writeVarInt(out, runLength);
+            writeVarInt(out, paletteIndex[runValue]);
+        }
+        out.flush();
+    }
+
+    public static Structure read(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return read(in);
+        }
+    }
+
+    public static Structure read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 64 * 1024));
+        Header header = readHeader(in);
+
+        int paletteSize = readVarInt(in) + 1;
+        short[] palette = new short[paletteSize];
+        palette[0] = Block.AIR_ID;
+        for (int i = 1; i < paletteSize; i++) {
+            String typeName = in.readUTF();
+            palette[i] = (short) idForName(typeName);
+        }
+
+        Structure structure = new Structure(header.name, header.sizeX, header.sizeY, header.sizeZ);
+        long volume = (long) header.sizeX * header.sizeY * header.sizeZ;
+        short[] row = new short[header.sizeX];
+        VarIntReader runs = new VarIntReader(in);
+        long i = 0;
+        int x = 0;
+        int y = 0;
+        int z = 0;
+        while (i < volume) {
+            int length = runs.read();
+            int index = runs.read();
+            if (length <= 0 || length > volume - i || index >= paletteSize) {
+                throw new IOException("Bozuk yapı verisi (konum " + i + ")");
+            }
+            short value = palette[index];
+            i += length;
+            // Koşuyu satırlara böl
+            while (length > 0) {
+                int run = Math.min(length, header.sizeX - x);
+                Arrays.fill(row, x, x + run, value);
+                x += run;
+                length -= run;
+                if (x == header.sizeX) {
+                    structure.writeRow(0, y, z, row, 0, header.sizeX);
+                    x = 0;
+                    if (++z == header.sizeZ) {
+                        z = 0;
+                        y++;
+                    }
+                }
+            }
+        }
+        structure.recountBlocks();
+        return structure;
+    }
+
+    /**
+     * Yalnızca başlık bilgilerini okur.
+     */
+    public static Header readHeader(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 512))) {
+            return readHeader(in);
+        }
+    }
+
+    private static Header readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Yapı dosyası değil");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION && version != VERSION_NO_HASH && version != VERSION_NO_THUMBNAIL) {
+            throw new IOException("Bilinmeyen yapı sürümü: " + version);
+        }
+        String name = in.readUTF();
+        int sizeX = in.readInt();
+        int sizeY = in.readInt();
+        int sizeZ = in.readInt();
+        int blockCount = in.readInt();
+        if (sizeX < 0 || sizeY < 0 || sizeZ < 0) {
+            throw new IOException("Geçersiz yapı boyutu");
+        }
+        byte[] thumbnail = null;
+        if (version >= VERSION_NO_HASH) {
+            int resolution = in.readUnsignedByte();
+            thumbnail = new byte[resolution * resolution * 4];
+            in.readFully(thumbnail);
+        }
+        byte[] contentHash = null;
+        if (version >= VERSION) {
+            contentHash = new byte[in.readUnsignedByte()];
+            in.readFully(contentHash);
+        }
+        return new Header(name, sizeX, sizeY, sizeZ, blockCount, thumbnail, contentHash);
+    }
+
+    private static int idForName(String typeName) {
+        try {
+            return Block.Type.valueOf(typeName).getId();
+        } catch (IllegalArgumentException e) {
+            System.err.println("Bilinmeyen blok tipi, hava olarak okunuyor: " + typeName);
+            return Block.AIR_ID;
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Çok sayıda kısa varint'i okurken akışın bayt bayt okunmasını önleyen
+     * tamponlu okuyucu.
+     */
+    private static class VarIntReader {
+        private final InputStream in;
+        private final byte[] buffer = new byte[64 * 1024];
+        private int position;
+        private int limit;
+
+        VarIntReader(InputStream in) {
+            this.in = in;
+        }
+
+        int read() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                if (position == limit) {
+                    limit = in.read(buffer, 0, buffer.length);
+                    position = 0;
+                    if (limit <= 0) {
+                        throw new IOException("Yapı verisi eksik");
+                    }
+                }
+                int b = buffer[position++];
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Bozuk varint");
+        }
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Bozuk varint");
+    }
+}
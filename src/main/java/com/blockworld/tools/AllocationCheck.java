@@ -0,0 +1,87 @@
+package com.blockworld.tools;
+
+import com.blockworld.world.Block;
+import com.blockworld.world.World;
+import com.blockworld.world.gen.NoiseTerrainGenerator;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Blok sorgularının yığında nesne ayırmadığını doğrular (pencere açmaz).
+ *
+ * Gürültülü arazide ısınmadan sonra getBlockId, hasBlock, getBlockType ve
+ * getBlock ile birer milyon sorgu yapılır; iş parçacığının ayırdığı bayt
+ * sayısı önce ve sonra okunur. Sorgular yüklü ve yüklü olmayan chunk'lara,
+ * dünyanın üstüne ve altına dağılır. Bayt ayrıldıysa çıkış kodu 1'dir.
+ *
+ * Çalıştırma: gradle checkAllocations
+ */
+public class AllocationCheck {
+
+    private static final int RADIUS = 2;
+    private static final int LOOKUPS = 1_000_000;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final long SEED = 20240917L;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        World world = new World(new NoiseTerrainGenerator(SEED), null);
+        world.getStreamer().preload(0, 0, RADIUS);
+        world.flushChanges();
+
+        // Isınma (JIT); ölçüm çağrısı da ısınsın
+        long checksum = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            checksum += lookups(world);
+            allocatedBytes();
+        }
+
+        long before = allocatedBytes();
+        checksum += lookups(world);
+        long allocated = allocatedBytes() - before;
+        world.getStreamer().shutdown();
+
+        System.out.printf("%,d sorgu x 4 metot, ayrılan: %,d bayt (sağlama %d)%n", LOOKUPS, allocated, checksum);
+        if (allocated != 0) {
+            System.out.println("HATA: blok sorguları nesne ayırıyor");
+            System.exit(1);
+        }
+        System.out.println("Tamam: sorgu başına ayırma yok");
+    }
+
+    private static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Her metotla LOOKUPS sorgu; sonuçlar JIT elemesin diye toplanır.
+     */
+    private static long lookups(World world) {
+        long sum = 0;
+        // Doğrusal eşlik üreteci: koordinatlar nesne ayırmadan üretilir
+        int state = 12345;
+        int span = (RADIUS + 2) * 2 * 16;
+        for (int i = 0; i < LOOKUPS; i++) {
+            state = state * 1103515245 + 12345;
+            int x = ((state >>> 8) % span) - span / 2;
+            int z = ((state >>> 4) % span) - span / 2;
+            int y = ((state >>> 12) % 480) - 96;
+
+            sum += world.getBlockId(x, y, z);
+            if (world.hasBlock(x, y, z)) {
+                sum++;
+            }
+            Block.Type type = world.getBlockType(x, y, z);
+            if (type != null) {
+                sum += type.ordinal();
+            }
+            Block block = world.getBlock(x, y, z);
+            if (block != null) {
+                sum += block.getId();
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,123 @@
+package com.blockworld.tools;
+
+import com.blockworld.world.Block;
+import com.blockworld.world.BlockTickScheduler;
+import com.blockworld.world.EditBatch;
+import com.blockworld.world.World;
+import com.blockworld.world.gen.FlatChunkGenerator;
+
+import java.util.Arrays;
+
+/**
+ * Su akışı kıyaslaması (pencere açmaz): düz zeminin üstüne ızgara halinde
+ * kaynaklar konur, su düşüp yayılırken tick başına maliyet ölçülür; sonra
+ * kaynaklar kaldırılıp suyun çekilmesi ölçülür. Her tick, oyun döngüsündeki
+ * gibi blok tick'leri + değişiklik teslimidir.
+ *
+ * Çalıştırma: gradle benchmarkFluids
+ */
+public class FluidBenchmark {
+
+    private static final int RADIUS = 6;
+    private static final int SOURCE_Y = 8;
+    private static final int MAX_TICKS = 60 * 60;
+    private static final int WARMUP_ROUNDS = 10;
+    // 60 UPS'te bir tick'in süresi
+    private static final double TICK_MILLIS = 1000.0 / 60.0;
+
+    public static void main(String[] args) {
+        // Isınma turları (JIT), sonuçları yazılmaz
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            runScenario(3, false);
+        }
+        for (int spacing : new int[] { 8, 4, 3 }) {
+            runScenario(spacing, true);
+        }
+    }
+
+    private static void runScenario(int spacing, boolean print) {
+        World world = new World(new FlatChunkGenerator(), null);
+        world.getStreamer().preload(0, 0, RADIUS);
+
+        EditBatch sources = new EditBatch();
+        int extent = RADIUS * 16 - 8;
+        for (int x = -extent; x <= extent; x += spacing) {
+            for (int z = -extent; z <= extent; z += spacing) {
+                sources.set(x, SOURCE_Y, z, Block.Type.WATER);
+            }
+        }
+        world.applyBatch(sources);
+        world.flushChanges();
+        if (print) {
+            System.out.printf("%,d kaynak (aralık %d)%n", sources.size(), spacing);
+        }
+        run(world, "  yayılma", print);
+
+        EditBatch removal = new EditBatch(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            removal.remove(sources.getX(i), sources.getY(i), sources.getZ(i));
+        }
+        world.applyBatch(removal);
+        world.flushChanges();
+        run(world, "  çekilme", print);
+        world.getStreamer().shutdown();
+    }
+
+    /**
+     * Kuyruk boşalana kadar (en fazla MAX_TICKS) tick'leri çalıştırır ve
+     * süre dağılımını yazar.
+     */
+    private static void run(World world, String label, boolean print) {
+        BlockTickScheduler scheduler = world.getTickScheduler();
+        // Dünya kurulumunun çöpü ölçüme karışmasın
+        System.gc();
+        long[] times = new long[MAX_TICKS];
+        long processed = 0;
+        int peakQueue = 0;
+        int busyTicks = 0;
+        int ticks = 0;
+        while (ticks < MAX_TICKS && scheduler.size() > 0) {
+            long start = System.nanoTime();
+            int count = world.tickBlocks();
+            world.flushChanges();
+            times[ticks++] = System.nanoTime() - start;
+            processed += count;
+            if (count > 0) {
+                busyTicks++;
+            }
+            peakQueue = Math.max(peakQueue, scheduler.size());
+        }
+
+        if (!print) {
+            return;
+        }
+        long[] sorted = Arrays.copyOf(times, ticks);
+        Arrays.sort(sorted);
+        double total = 0;
+        for (long time : sorted) {
+            total += time;
+        }
+        double average = ticks > 0 ? total / busyTicks / 1e6 : 0;
+        double p99 = ticks > 0 ? sorted[(int) (ticks * 0.99)] / 1e6 : 0;
+        double max = ticks > 0 ? sorted[ticks - 1] / 1e6 : 0;
+        System.out.printf("%s: %d tick (%.1f s oyun süresi), %,d blok tick'i, en çok %,d kuyrukta, su bloğu %,d%n",
+                label, ticks, ticks / 60.0, processed, peakQueue, countWater(world));
+        System.out.printf("    tick başına: ort. %.3f ms (dolu tick'ler), p99 %.3f ms, en fazla %.3f ms "
+                + "(bütçe %.1f ms'nin %%%.0f'i)%n", average, p99, max, TICK_MILLIS, 100 * max / TICK_MILLIS);
+        if (scheduler.size() > 0) {
+            System.out.println("    UYARI: su " + MAX_TICKS + " tick içinde durulmadı");
+        }
+    }
+
+    private static long countWater(World world) {
+        long[] histogram = world.getBlockHistogram(-RADIUS * 16, 0, -RADIUS * 16,
+                RADIUS * 16 + 15, SOURCE_Y, RADIUS * 16 + 15);
+        long count = 0;
+        for (Block.Type type : Block.Type.values()) {
+            if (type.isFluid()) {
+                count += histogram[type.getId()];
+            }
+        }
+        return count;
+    }
+}
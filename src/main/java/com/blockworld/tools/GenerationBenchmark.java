@@ -0,0 +1,122 @@
+package com.blockworld.tools;
+
+import com.blockworld.world.Chunk;
+import com.blockworld.world.ChunkSection;
+import com.blockworld.world.gen.NoiseTerrainGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Arazi üretimi kıyaslaması (pencere açmaz): sabit bir chunk kümesi
+ * {@link NoiseTerrainGenerator} ile 1, 2, 4 ... iş parçacıklı
+ * ForkJoinPool'larda (oyundaki gibi chunk başına bir görev) üretilir ve
+ * saniyedeki chunk sayısı yazılır. Her iş parçacığı sayısında içerik
+ * özetinin aynı olduğu doğrulanır; farklıysa çıkış kodu 1'dir.
+ *
+ * İş parçacığı sayıları çekirdek sayısına kadar ikinin kuvvetleridir
+ * (belirlenimcilik için en az 4'e kadar denenir).
+ *
+ * Çalıştırma: gradle benchmarkGeneration
+ */
+public class GenerationBenchmark {
+
+    private static final int RADIUS = 12;
+    private static final int ROUNDS = 3;
+    private static final long SEED = 20240917L;
+
+    public static void main(String[] args) {
+        NoiseTerrainGenerator generator = new NoiseTerrainGenerator(SEED);
+        int cores = Runtime.getRuntime().availableProcessors();
+        int side = 2 * RADIUS + 1;
+        int count = side * side;
+        System.out.println(count + " chunk, " + cores + " çekirdek");
+
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads <= Math.max(cores, 4); threads *= 2) {
+            threadCounts.add(threads);
+        }
+        if (!threadCounts.contains(cores)) {
+            threadCounts.add(cores);
+        }
+
+        // Isınma (JIT)
+        generateAll(generator, 1);
+
+        long expectedHash = 0;
+        boolean identical = true;
+        for (int threads : threadCounts) {
+            double best = Double.MAX_VALUE;
+            Chunk[] chunks = null;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                chunks = generateAll(generator, threads);
+                best = Math.min(best, (System.nanoTime() - start) / 1e9);
+            }
+            long hash = contentHash(chunks);
+            if (threads == threadCounts.get(0)) {
+                expectedHash = hash;
+            }
+            boolean same = hash == expectedHash;
+            identical &= same;
+            System.out.printf("%2d iş parçacığı: %,8.0f chunk/s, özet %016x%s%n",
+                    threads, count / best, hash, same ? "" : " (FARKLI)");
+        }
+
+        if (!identical) {
+            System.out.println("HATA: üretim iş parçacığı sayısına bağlı");
+            System.exit(1);
+        }
+        System.out.println("Tamam: tüm iş parçacığı sayılarında aynı içerik");
+    }
+
+    /**
+     * Kümeyi verilen sayıda iş parçacığıyla üretir; sonuç sırası sabittir.
+     */
+    private static Chunk[] generateAll(NoiseTerrainGenerator generator, int threads) {
+        int side = 2 * RADIUS + 1;
+        Chunk[] chunks = new Chunk[side * side];
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks.length);
+            for (int i = 0; i < chunks.length; i++) {
+                int index = i;
+                tasks.add(pool.submit(() -> {
+                    Chunk chunk = new Chunk(index % side - RADIUS, index / side - RADIUS);
+                    generator.generate(chunk);
+                    chunks[index] = chunk;
+                }));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return chunks;
+    }
+
+    /**
+     * Tüm chunk'ların blok id'lerinin sırayla katlanmış özeti.
+     */
+    private static long contentHash(Chunk[] chunks) {
+        short[] ids = new short[ChunkSection.VOLUME];
+        long hash = 1125899906842597L;
+        for (Chunk chunk : chunks) {
+            for (int sy = 0; sy < Chunk.SECTION_COUNT; sy++) {
+                ChunkSection section = chunk.getSection(sy);
+                if (section == null) {
+                    hash = 31 * hash - 1;
+                    continue;
+                }
+                section.copyIds(ids);
+                for (short id : ids) {
+                    hash = 31 * hash + id;
+                }
+            }
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,81 @@
+package com.blockworld.tools;
+
+import com.blockworld.graphics.ChunkMesher;
+import com.blockworld.world.Chunk;
+import com.blockworld.world.World;
+import com.blockworld.world.gen.NoiseTerrainGenerator;
+
+import java.util.List;
+
+/**
+ * Bölüm mesh'i oluşturma kıyaslaması (pencere açmaz, GPU'ya yükleme
+ * yapılmaz): gürültülü arazideki tüm dolu bölümlerin köşe verisi ortam
+ * örtmesi (AO) kapalı ve açıkken üretilir.
+ *
+ * Çalıştırma: gradle benchmarkMeshing
+ */
+public class MeshingBenchmark {
+
+    private static final int RADIUS = 4;
+    private static final int ROUNDS = 15;
+    private static final long SEED = 20240917L;
+
+    public static void main(String[] args) {
+        World world = new World(new NoiseTerrainGenerator(SEED), null);
+        world.getStreamer().preload(0, 0, RADIUS);
+        world.flushChanges();
+        List<Chunk> chunks = world.getLoadedChunks();
+
+        int sections = 0;
+        for (Chunk chunk : chunks) {
+            for (int sy = 0; sy < Chunk.SECTION_COUNT; sy++) {
+                if (chunk.getSection(sy) != null) {
+                    sections++;
+                }
+            }
+        }
+        System.out.println(chunks.size() + " chunk, " + sections + " dolu bölüm");
+
+        ChunkMesher mesher = new ChunkMesher();
+        // Isınma (JIT), iki kip de
+        for (int round = 0; round < ROUNDS; round++) {
+            mesher.setAmbientOcclusion(round % 2 == 0);
+            meshAll(mesher, world, chunks);
+        }
+
+        double off = run(mesher, world, chunks, false);
+        double on = run(mesher, world, chunks, true);
+        long vertices = meshAll(mesher, world, chunks);
+        System.out.printf("AO kapalı: %7.2f ms (bölüm başına %.1f µs)%n", off, off * 1000 / sections);
+        System.out.printf("AO açık:   %7.2f ms (bölüm başına %.1f µs), %+.0f%%%n",
+                on, on * 1000 / sections, 100 * (on - off) / off);
+        System.out.printf("%,d köşe, %,d yüz%n", vertices, vertices / 4);
+        world.getStreamer().shutdown();
+    }
+
+    /**
+     * Tüm bölümleri ROUNDS kez üretir; en iyi turun süresini döndürür.
+     */
+    private static double run(ChunkMesher mesher, World world, List<Chunk> chunks, boolean ambientOcclusion) {
+        mesher.setAmbientOcclusion(ambientOcclusion);
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            meshAll(mesher, world, chunks);
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        return best;
+    }
+
+    private static long meshAll(ChunkMesher mesher, World world, List<Chunk> chunks) {
+        long vertices = 0;
+        for (Chunk chunk : chunks) {
+            for (int sy = 0; sy < Chunk.SECTION_COUNT; sy++) {
+                if (chunk.getSection(sy) != null) {
+                    vertices += mesher.generate(world, chunk.getChunkX(), sy, chunk.getChunkZ());
+                }
+            }
+        }
+        return vertices;
+    }
+}
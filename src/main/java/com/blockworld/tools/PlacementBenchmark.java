@@ -0,0 +1,120 @@
+package com.blockworld.tools;
+
+import com.blockworld.world.Block;
+import com.blockworld.world.EditBatch;
+import com.blockworld.world.Orientation;
+import com.blockworld.world.Structure;
+import com.blockworld.world.World;
+import com.blockworld.world.gen.FlatChunkGenerator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Yapı yerleştirme kıyaslaması (pencere açmaz): blok blok yerleştirme,
+ * toplu düzenleme ve bölüm bazlı hızlı yol.
+ *
+ * Çalıştırma: gradle benchmarkPlacement
+ */
+public class PlacementBenchmark {
+
+    private static final int ROUNDS = 15;
+
+    private interface Placement {
+        void place(World world, Structure structure, int x, int y, int z);
+    }
+
+    public static void main(String[] args) {
+        Structure structure = createStructure(64, 32, 64);
+        System.out.println("Yapı: " + structure.getSizeX() + "x" + structure.getSizeY() + "x"
+                + structure.getSizeZ() + ", " + structure.getBlockCount() + " blok");
+
+        Placement perBlock = (world, s, x, y, z) -> s.forEachBlock(
+                (bx, by, bz, type) -> world.setBlockId(x + bx, y + by, z + bz, type.getId()));
+        Placement batch = (world, s, x, y, z) -> {
+            EditBatch edits = new EditBatch(s.getBlockCount());
+            s.forEachBlock((bx, by, bz, type) -> edits.set(x + bx, y + by, z + bz, type.getId()));
+            world.applyBatch(edits);
+        };
+        Placement sections = World::placeStructure;
+
+        for (Orientation orientation : new Orientation[] { Orientation.NONE, Orientation.MIRROR_ROTATE_90 }) {
+            Structure oriented = structure.oriented(orientation);
+            for (int offset : new int[] { 0, 5 }) {
+                String label = orientation + (offset == 0 ? ", bölüme hizalı" : ", hizasız");
+                double tPerBlock = run(perBlock, oriented, offset);
+                double tBatch = run(batch, oriented, offset);
+                double tSections = run(sections, oriented, offset);
+                System.out.printf("%-32s blok blok %7.2f ms | toplu %7.2f ms | bölüm %7.2f ms (%.1fx)%n",
+                        label, tPerBlock, tBatch, tSections, tPerBlock / tSections);
+            }
+        }
+        verify(structure);
+    }
+
+    /**
+     * Her turda yeni bir dünyada yerleştirir; en iyi süreyi döndürür.
+     */
+    private static double run(Placement placement, Structure structure, int offset) {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            World world = createWorld();
+            long start = System.nanoTime();
+            placement.place(world, structure, offset, offset, offset);
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+            world.getStreamer().shutdown();
+        }
+        return best;
+    }
+
+    /**
+     * Hızlı yolun ve dönüşümlerin blok blok yerleştirmeyle aynı sonucu
+     * verdiğini denetler.
+     */
+    private static void verify(Structure structure) {
+        boolean ok = true;
+        for (Orientation orientation : Orientation.values()) {
+            Structure oriented = structure.oriented(orientation);
+            World expected = createWorld();
+            World actual = createWorld();
+            oriented.forEachBlock((x, y, z, type) -> expected.setBlockId(x + 3, y + 1, z - 7, type.getId()));
+            structure.placeInWorld(actual, 3, 1, -7, orientation);
+            for (int y = -2; y < oriented.getSizeY() + 2; y++) {
+                for (int z = -10; z < oriented.getSizeZ() - 5; z++) {
+                    for (int x = 0; x < oriented.getSizeX() + 5; x++) {
+                        if (expected.getBlockId(x, y, z) != actual.getBlockId(x, y, z)) {
+                            ok = false;
+                        }
+                    }
+                }
+            }
+            expected.getStreamer().shutdown();
+            actual.getStreamer().shutdown();
+        }
+        System.out.println("Doğrulama: " + (ok ? "tüm yönler aynı" : "FARK VAR"));
+    }
+
+    private static World createWorld() {
+        return new World(new FlatChunkGenerator(), null);
+    }
+
+    // Rastgele dolu, içi kısmen boş bir yapı
+    private static Structure createStructure(int sizeX, int sizeY, int sizeZ) {
+        Structure structure = new Structure("Kıyas", sizeX, sizeY, sizeZ);
+        Random random = new Random(42);
+        // Akan su seviyeleri hariç (palet boyutu önceki ölçümlerle aynı kalsın)
+        Block.Type[] types = Arrays.stream(Block.Type.values())
+                .filter(type -> !type.isFluid() || type == Block.Type.WATER)
+                .toArray(Block.Type[]::new);
+        for (int y = 0; y < sizeY; y++) {
+            for (int z = 0; z < sizeZ; z++) {
+                for (int x = 0; x < sizeX; x++) {
+                    if (random.nextInt(4) != 0) {
+                        structure.addBlock(x, y, z, types[random.nextInt(types.length)]);
+                    }
+                }
+            }
+        }
+        return structure;
+    }
+}
@@ -0,0 +1,134 @@
+package com.blockworld.tools;
+
+import com.blockworld.world.Chunk;
+import com.blockworld.world.Raycaster;
+import com.blockworld.world.World;
+import com.blockworld.world.gen.ChunkGenerator;
+import com.blockworld.world.gen.FlatChunkGenerator;
+import com.blockworld.world.gen.NoiseTerrainGenerator;
+
+import java.util.Random;
+
+/**
+ * Işın izleme kıyaslaması (pencere açmaz): seyrek (düz zemin) ve yoğun
+ * (gürültülü arazi) dünyalarda 10-1000 blok menzilli ışınlar voksel voksel
+ * ve boş alan atlamalı olarak gönderilir; saniyedeki ışın sayısı yazılır.
+ * İki kipin sonuçları ışın ışın karşılaştırılır (blok, yüz, uzaklık).
+ *
+ * Işınlar merkezin yakınından, zeminin biraz üstünden ve yataya yakın
+ * yönlerde çıkar (uzak blok seçme, görüş hattı). Yüklü alan en uzun
+ * menzili kapsar.
+ *
+ * Çalıştırma: gradle benchmarkRaycast
+ */
+public class RaycastBenchmark {
+
+    private static final int RADIUS = 66;
+    private static final int ORIGIN_SPREAD = 32;
+    private static final int RAYS = 10000;
+    private static final int ROUNDS = 5;
+    private static final float[] RANGES = { 10, 100, 1000 };
+    private static final long SEED = 20240917L;
+
+    public static void main(String[] args) {
+        run("Seyrek (düz zemin)", new FlatChunkGenerator());
+        run("Yoğun (gürültülü arazi)", new NoiseTerrainGenerator(SEED));
+    }
+
+    private static void run(String name, ChunkGenerator generator) {
+        long start = System.nanoTime();
+        World world = new World(generator, null);
+        // Işık gerekmediği için değişiklikler teslim edilmez
+        world.getStreamer().preload(0, 0, RADIUS);
+        System.out.printf("%s: %d chunk, %.1f s%n", name, (2 * RADIUS + 1) * (2 * RADIUS + 1),
+                (System.nanoTime() - start) / 1e9);
+
+        float[] rays = createRays(world);
+        Raycaster exact = new Raycaster();
+        exact.setEmptySpaceSkipping(false);
+        Raycaster skipping = new Raycaster();
+        Raycaster.RaycastResult result = new Raycaster.RaycastResult();
+
+        for (float range : RANGES) {
+            // Isınma (JIT)
+            castAll(exact, world, rays, range, result);
+            castAll(skipping, world, rays, range, result);
+            double exactRate = best(exact, world, rays, range, result);
+            double skippingRate = best(skipping, world, rays, range, result);
+            int hits = castAll(skipping, world, rays, range, result);
+            System.out.printf("  menzil %4.0f: voksel %,12.0f ışın/s, atlamalı %,12.0f ışın/s (x%.1f), isabet %%%.0f, fark %d%n",
+                    range, exactRate, skippingRate, skippingRate / exactRate, 100.0 * hits / RAYS,
+                    compare(exact, skipping, world, rays, range));
+        }
+        world.getStreamer().shutdown();
+    }
+
+    /**
+     * Başlangıç noktaları ve yönleri (ışın başına 6 değer).
+     */
+    private static float[] createRays(World world) {
+        Random random = new Random(SEED);
+        float[] rays = new float[RAYS * 6];
+        for (int i = 0; i < RAYS; i++) {
+            float x = (random.nextFloat() * 2 - 1) * ORIGIN_SPREAD;
+            float z = (random.nextFloat() * 2 - 1) * ORIGIN_SPREAD;
+            int ground = Chunk.MAX_Y;
+            while (ground > Chunk.MIN_Y && !world.hasBlock((int) Math.floor(x), ground, (int) Math.floor(z))) {
+                ground--;
+            }
+            rays[i * 6] = x;
+            rays[i * 6 + 1] = ground + 2 + random.nextFloat() * 20;
+            rays[i * 6 + 2] = z;
+            rays[i * 6 + 3] = (float) random.nextGaussian();
+            rays[i * 6 + 4] = (float) random.nextGaussian() * 0.1f;
+            rays[i * 6 + 5] = (float) random.nextGaussian();
+        }
+        return rays;
+    }
+
+    /**
+     * Tüm ışınları ROUNDS kez gönderir; en iyi turun saniyedeki ışın sayısı.
+     */
+    private static double best(Raycaster raycaster, World world, float[] rays, float range,
+            Raycaster.RaycastResult result) {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            castAll(raycaster, world, rays, range, result);
+            best = Math.min(best, (System.nanoTime() - start) / 1e9);
+        }
+        return RAYS / best;
+    }
+
+    private static int castAll(Raycaster raycaster, World world, float[] rays, float range,
+            Raycaster.RaycastResult result) {
+        int hits = 0;
+        for (int i = 0; i < rays.length; i += 6) {
+            if (raycaster.cast(world, rays[i], rays[i + 1], rays[i + 2],
+                    rays[i + 3], rays[i + 4], rays[i + 5], range, result)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * İki kipte sonucu farklı olan ışın sayısı (0 olmalı).
+     */
+    private static int compare(Raycaster a, Raycaster b, World world, float[] rays, float range) {
+        Raycaster.RaycastResult first = new Raycaster.RaycastResult();
+        Raycaster.RaycastResult second = new Raycaster.RaycastResult();
+        int differences = 0;
+        for (int i = 0; i < rays.length; i += 6) {
+            boolean hitA = a.cast(world, rays[i], rays[i + 1], rays[i + 2],
+                    rays[i + 3], rays[i + 4], rays[i + 5], range, first);
+            boolean hitB = b.cast(world, rays[i], rays[i + 1], rays[i + 2],
+                    rays[i + 3], rays[i + 4], rays[i + 5], range, second);
+            if (hitA != hitB || hitA && (!first.blockPos.equals(second.blockPos)
+                    || !first.faceNormal.equals(second.faceNormal) || first.distance != second.distance)) {
+                differences++;
+            }
+        }
+        return differences;
+    }
+}
@@ -0,0 +1,218 @@
+package com.blockworld.tools;
+
+import com.blockworld.world.Block;
+import com.blockworld.world.Chunk;
+import com.blockworld.world.ChunkSection;
+import com.blockworld.world.EditBatch;
+import com.blockworld.world.World;
+import com.blockworld.world.gen.FlatChunkGenerator;
+import org.joml.Vector3f;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Eşzamanlı okuma/yazma dayanıklılık testi (pencere açmaz).
+ *
+ * Çağıran iş parçacığı tek yazar olarak desen bölümlerini hava / taş /
+ * dama deseni arasında toplu düzenlemelerle döndürür ve kamerayı gezdirerek
+ * chunk yükletip boşalttırır. Okuyucu iş parçacıkları aynı anda blok, chunk
+ * ve bölüm kopyası okur; her okunan değer yazarın üretebileceği bir durum
+ * olmalıdır. Sonunda okuma/yazma hızları ve tutarsızlık sayısı yazılır.
+ *
+ * Çalıştırma: gradle stressWorld
+ */
+public class WorldStressTest {
+
+    private static final int RADIUS = 3;
+    // Desen bölümleri: zeminin üstünde, başlangıçta hava
+    private static final int PATTERN_SECTION = Chunk.sectionIndex(32);
+    private static final int PATTERN_Y = Chunk.MIN_Y + (PATTERN_SECTION << 4);
+    private static final long PHASE_MILLIS = 3000;
+
+    private static final int STONE = Block.Type.STONE.getId();
+    private static final int DIRT = Block.Type.DIRT.getId();
+    private static final int SAND = Block.Type.SAND.getId();
+    private static final int GROUND = Block.Type.GRASS.getId();
+
+    private static final AtomicLong errors = new AtomicLong();
+
+    public static void main(String[] args) throws InterruptedException {
+        int readers = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
+        World world = new World(new FlatChunkGenerator(), null);
+        world.getStreamer().preload(0, 0, RADIUS);
+
+        System.out.println("Okuyucu iş parçacığı: " + readers);
+        double writeOnly = runWriter(world, 0, PHASE_MILLIS)[0];
+        double[] readOnly = runReaders(world, readers, null);
+        System.out.printf("Yalnızca yazar:   %,.0f blok/s%n", writeOnly);
+        System.out.printf("Yalnızca okuyucu: %,.0f okuma/s%n", readOnly[0]);
+
+        double[] mixed = runReaders(world, readers, w -> runWriter(w, 1, PHASE_MILLIS));
+        System.out.printf("Birlikte:         %,.0f okuma/s, %,.0f blok/s yazma, %d bölüm kopyası%n",
+                mixed[0], mixed[1], (long) mixed[2]);
+        System.out.println("Tutarsızlık: " + errors.get() + (errors.get() == 0 ? " (tamam)" : " (HATA)"));
+        world.getStreamer().shutdown();
+    }
+
+    private interface Writer {
+        double[] run(World world);
+    }
+
+    /**
+     * Okuyucuları başlatır; yazar verildiyse bu iş parçacığında çalıştırılır,
+     * yoksa belirli süre beklenir.
+     *
+     * @return okuma/s, yazma blok/s, bölüm kopyası sayısı
+     */
+    private static double[] runReaders(World world, int count, Writer writer) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong reads = new AtomicLong();
+        AtomicLong copies = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Thread thread = new Thread(() -> read(world, running, reads, copies), "Reader-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+
+        long start = System.nanoTime();
+        double writes = 0;
+        if (writer != null) {
+            writes = writer.run(world)[0];
+        } else {
+            Thread.sleep(PHASE_MILLIS);
+        }
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new double[] { reads.get() / seconds, writes, copies.get() };
+    }
+
+    /**
+     * Tek yazar: desen bölümlerini sırayla bir sonraki duruma geçirir, arada
+     * kamerayı gezdirip chunk akışını çalıştırır.
+     *
+     * @return yazılan blok/s
+     */
+    private static double[] runWriter(World world, int moveCamera, long millis) {
+        long end = System.currentTimeMillis() + millis;
+        long start = System.nanoTime();
+        long written = 0;
+        int step = 0;
+        Vector3f camera = new Vector3f();
+        EditBatch batch = new EditBatch(ChunkSection.VOLUME);
+        while (System.currentTimeMillis() < end) {
+            for (int cx = -RADIUS; cx <= RADIUS; cx++) {
+                for (int cz = -RADIUS; cz <= RADIUS; cz++) {
+                    int state = (step + cx + cz) & 3;
+                    batch.clear();
+                    for (int i = 0; i < ChunkSection.VOLUME; i++) {
+                        int x = (cx << 4) + (i & 15);
+                        int y = PATTERN_Y + (i >> 8);
+                        int z = (cz << 4) + ((i >> 4) & 15);
+                        batch.set(x, y, z, patternId(state, x, y, z));
+                    }
+                    written += world.applyBatch(batch);
+                }
+            }
+            if (moveCamera != 0) {
+                // Merkez etrafında daire: kenar chunk'ları yüklenir ve boşaltılır
+                double angle = step * 0.05;
+                camera.set((float) (Math.cos(angle) * 48), 0, (float) (Math.sin(angle) * 48));
+                world.getStreamer().update(camera);
+            }
+            step++;
+        }
+        world.getHistory().clear();
+        return new double[] { written / ((System.nanoTime() - start) / 1e9) };
+    }
+
+    // 0: hava, 1: taş, 2: dama, 3: taş
+    private static int patternId(int state, int x, int y, int z) {
+        switch (state) {
+            case 0:
+                return Block.AIR_ID;
+            case 2:
+                return checker(x, y, z);
+            default:
+                return STONE;
+        }
+    }
+
+    private static int checker(int x, int y, int z) {
+        return ((x + y + z) & 1) == 0 ? DIRT : SAND;
+    }
+
+    private static void read(World world, AtomicBoolean running, AtomicLong reads, AtomicLong copies) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        short[] ids = new short[ChunkSection.VOLUME];
+        long count = 0;
+        long copyCount = 0;
+        while (running.get()) {
+            int kind = random.nextInt(100);
+            if (kind < 70) {
+                // Desen vokseli: hava, taş veya o konumun dama rengi olmalı
+                int x = random.nextInt(-RADIUS * 16, (RADIUS + 1) * 16);
+                int y = PATTERN_Y + random.nextInt(16);
+                int z = random.nextInt(-RADIUS * 16, (RADIUS + 1) * 16);
+                int id = world.getBlockId(x, y, z);
+                if (id != Block.AIR_ID && id != STONE && id != checker(x, y, z)) {
+                    fail("voksel (" + x + ", " + y + ", " + z + ") = " + id);
+                }
+            } else if (kind < 99) {
+                // Akış alanındaki chunk: koordinatı doğru, zemini tam olmalı
+                int chunkX = random.nextInt(-10, 11);
+                int chunkZ = random.nextInt(-10, 11);
+                Chunk chunk = world.getChunkAt(chunkX, chunkZ);
+                if (chunk != null) {
+                    if (chunk.getChunkX() != chunkX || chunk.getChunkZ() != chunkZ) {
+                        fail("chunk tablosu yanlış chunk döndürdü");
+                    } else if (chunk.isPopulated() && chunk.getBlockId(random.nextInt(16), 0, random.nextInt(16)) != GROUND) {
+                        fail("zemin eksik: chunk " + chunkX + ", " + chunkZ);
+                    }
+                }
+            } else {
+                // Bölüm kopyası: bir toplu düzenlemenin tamamını görmeli
+                Chunk chunk = world.getChunkAt(random.nextInt(-RADIUS, RADIUS + 1), random.nextInt(-RADIUS, RADIUS + 1));
+                if (chunk != null) {
+                    checkSection(chunk, ids);
+                    copyCount++;
+                }
+            }
+            count++;
+        }
+        reads.addAndGet(count);
+        copies.addAndGet(copyCount);
+    }
+
+    private static void checkSection(Chunk chunk, short[] ids) {
+        ChunkSection section = chunk.copySection(PATTERN_SECTION);
+        if (section == null || section.isEmpty()) {
+            return; // Hava durumu (boşalan bölüm bir an boş olarak kalabilir)
+        }
+        section.copyIds(ids);
+        int baseX = chunk.getChunkX() << 4;
+        int baseZ = chunk.getChunkZ() << 4;
+        boolean stone = ids[0] == STONE;
+        for (int i = 0; i < ChunkSection.VOLUME; i++) {
+            int expected = stone ? STONE : checker(baseX + (i & 15), PATTERN_Y + (i >> 8), baseZ + ((i >> 4) & 15));
+            if (ids[i] != expected) {
+                fail("yarım bölüm görüldü: chunk " + chunk.getChunkX() + ", " + chunk.getChunkZ());
+                return;
+            }
+        }
+    }
+
+    private static void fail(String message) {
+        if (errors.incrementAndGet() <= 10) {
+            System.err.println("Tutarsızlık: " + message);
+        }
+    }
+}
@@ -26,6 +26,7 @@ public class Hotbar {
         slots[3] = new HotbarItem(Block.Type.WOOD);
         slots[4] = new HotbarItem(Block.Type.SAND);
         slots[5] = new HotbarItem(Block.Type.WATER);
+        slots[6] = new HotbarItem(Block.Type.LAMP);
         // Geri kalanlar null (boş)
     }
 
@@ -58,6 +59,13 @@ public class Hotbar {
             // Slot çerçevesi
             uiRenderer.drawRect(slotX, slotY, SLOT_SIZE, SLOT_SIZE, 0.3f, 0.3f, 0.3f, 0.8f);
 
+            // Yapılar küçük resimleriyle çizilir (voksel verisi gerekmez)
+            if (slots[i] != null && slots[i].isStructure() && slots[i].getStructure().getThumbnail() != null) {
+                float inner = 5;
+                uiRenderer.drawThumbnail(slots[i].getStructure().getThumbnail(), slotX + inner, slotY + inner,
+                        SLOT_SIZE - inner * 2);
+            }
+
             // Eski 2D renkli çizim kaldırıldı, artık 3D çizilecek
         }
 
@@ -81,7 +89,7 @@ public class Hotbar {
         float startY = screenHeight - SLOT_SIZE - HOTBAR_PADDING;
 
         for (int i = 0; i < SLOT_COUNT; i++) {
-            if (slots[i] != null) {
+            if (slots[i] != null && !slots[i].isStructure()) {
                 float slotX = startX + i * (SLOT_SIZE + SLOT_PADDING);
                 float slotY = startY;
 
@@ -92,11 +100,7 @@ public class Hotbar {
                 // UIRenderer Y (üstten) -> Viewport Y (alttan) dönüşümü
                 float glY = screenHeight - (slotY + innerPadding + size);
 
-                if (slots[i].isStructure()) {
-                    renderer.renderStructurePreview(slots[i].getStructure(), x, glY, size, screenWidth, screenHeight);
-                } else {
-                    renderer.renderBlockPreview(slots[i].getBlockType(), x, glY, size, screenWidth, screenHeight);
-                }
+                renderer.renderBlockPreview(slots[i].getBlockType(), x, glY, size, screenWidth, screenHeight);
             }
         }
     }
@@ -1,16 +1,17 @@
 package com.blockworld.ui;
 
 import com.blockworld.world.Block;
-import com.blockworld.world.Structure;
+import com.blockworld.world.StructureLibrary;
 
 /**
  * Hotbar slotunda tutulabilecek öğe.
- * Blok tipi veya bir yapı olabilir.
+ * Blok tipi veya bir yapı olabilir. Yapılar kütüphane kaydı olarak tutulur;
+ * voksel verisi seçildiğinde {@link StructureLibrary} üzerinden yüklenir.
  */
 public class HotbarItem {
 
     private Block.Type blockType;
-    private Structure structure;
+    private StructureLibrary.Entry structure;
     private boolean isStructure;
 
     public HotbarItem(Block.Type type) {
@@ -18,7 +19,7 @@ public class HotbarItem {
         this.isStructure = false;
     }
 
-    public HotbarItem(Structure structure) {
+    public HotbarItem(StructureLibrary.Entry structure) {
         this.structure = structure;
         this.isStructure = true;
     }
@@ -31,7 +32,7 @@ public class HotbarItem {
         return blockType;
     }
 
-    public Structure getStructure() {
+    public StructureLibrary.Entry getStructure() {
         return structure;
     }
 }
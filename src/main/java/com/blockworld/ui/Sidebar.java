@@ -1,7 +1,7 @@
 package com.blockworld.ui;
 
 import com.blockworld.engine.Input;
-import com.blockworld.world.Structure;
+import com.blockworld.world.StructureLibrary;
 
 import java.util.List;
 
@@ -19,10 +19,21 @@ public class Sidebar {
     private static final float ITEM_GAP = 10;
     private static final int COLS = 3;
 
-    public void update(Input input, List<Structure> structures, Hotbar hotbar) {
+    public void update(Input input, StructureLibrary library, Hotbar hotbar) {
         if (!visible)
             return;
 
+        List<StructureLibrary.Entry> structures = library.getEntries();
+
+        // Fare tekerleği ile kaydırma
+        double scroll = input.getScrollDeltaY();
+        if (scroll != 0) {
+            int rows = (structures.size() + COLS - 1) / COLS;
+            float contentHeight = rows * (ITEM_SIZE + ITEM_GAP) + PADDING;
+            float minScroll = Math.min(0, input.getWindowHeight() - contentHeight);
+            scrollY = Math.max(minScroll, Math.min(0, scrollY + (float) scroll * (ITEM_SIZE + ITEM_GAP)));
+        }
+
         // Mouse tıklamarı
         if (input.isMouseButtonPressed(GLFW_MOUSE_BUTTON_LEFT)) {
             double mx = input.getMouseX();
@@ -34,32 +45,29 @@ public class Sidebar {
                 float startX = input.getWindowWidth() - width + PADDING;
                 float startY = PADDING + scrollY;
 
-                int index = 0;
-                for (Structure structure : structures) {
-                    int col = index % COLS;
-                    int row = index / COLS;
-
-                    float x = startX + col * (ITEM_SIZE + ITEM_GAP);
-                    float y = startY + row * (ITEM_SIZE + ITEM_GAP);
-
-                    // Tıklama kontrolü
-                    if (mx >= x && mx <= x + ITEM_SIZE &&
-                            my >= y && my <= y + ITEM_SIZE) {
-
-                        // Yapıyı hotbar'a ekle (seçili slota veya boş slota)
-                        hotbar.setSlot(hotbar.getSelectedSlot(), new HotbarItem(structure));
-                        System.out.println("Sidebar'dan seçildi: " + structure.getName());
-                    }
-
-                    index++;
+                // Tıklanan hücreyi doğrudan hesapla
+                int col = (int) ((mx - startX) / (ITEM_SIZE + ITEM_GAP));
+                int row = (int) Math.floor((my - startY) / (ITEM_SIZE + ITEM_GAP));
+                float x = startX + col * (ITEM_SIZE + ITEM_GAP);
+                float y = startY + row * (ITEM_SIZE + ITEM_GAP);
+                int index = row * COLS + col;
+
+                // Tıklama kontrolü
+                if (mx >= startX && col < COLS && row >= 0 && index < structures.size()
+                        && mx <= x + ITEM_SIZE && my <= y + ITEM_SIZE) {
+                    StructureLibrary.Entry structure = structures.get(index);
+
+                    // Yapıyı hotbar'a ekle (seçili slota veya boş slota)
+                    hotbar.setSlot(hotbar.getSelectedSlot(), new HotbarItem(structure));
+                    // Voksel verisini arka planda yüklemeye başla
+                    library.get(structure);
+                    System.out.println("Sidebar'dan seçildi: " + structure.getName());
                 }
             }
         }
-
-        // Scroll logic eklenebilir.
     }
 
-    public void render(UIRenderer uiRenderer, List<Structure> structures, int screenWidth, int screenHeight) {
+    public void render(UIRenderer uiRenderer, StructureLibrary library, int screenWidth, int screenHeight) {
         if (!visible)
             return;
 
@@ -69,8 +77,13 @@ public class Sidebar {
         float startX = screenWidth - width + PADDING;
         float startY = PADDING + scrollY;
 
-        int index = 0;
-        for (Structure structure : structures) {
+        // Yalnızca ekranda görünen satırlar çizilir
+        List<StructureLibrary.Entry> structures = library.getEntries();
+        int firstRow = Math.max(0, (int) (-startY / (ITEM_SIZE + ITEM_GAP)));
+        int lastRow = (int) ((screenHeight - startY) / (ITEM_SIZE + ITEM_GAP));
+        int end = Math.min(structures.size(), (lastRow + 1) * COLS);
+
+        for (int index = firstRow * COLS; index < end; index++) {
             int col = index % COLS;
             int row = index / COLS;
 
@@ -80,36 +93,12 @@ public class Sidebar {
             // Kutucuk arkaplanı
             uiRenderer.drawRect(x, y, ITEM_SIZE, ITEM_SIZE, 0.3f, 0.3f, 0.3f, 1.0f);
 
-            index++;
-        }
-    }
-
-    public void render3DContents(com.blockworld.graphics.Renderer renderer, List<Structure> structures, int screenWidth,
-            int screenHeight) {
-        if (!visible)
-            return;
-
-        float startX = screenWidth - width + PADDING;
-        float startY = PADDING + scrollY;
-
-        int index = 0;
-        for (Structure structure : structures) {
-            int col = index % COLS;
-            int row = index / COLS;
-
-            float x = startX + col * (ITEM_SIZE + ITEM_GAP);
-            float y = startY + row * (ITEM_SIZE + ITEM_GAP);
-
-            float innerPadding = 5;
-            float size = ITEM_SIZE - innerPadding * 2;
-
-            // Y ekseni (Üstten) -> Viewport Y (Alttan)
-            float glX = x + innerPadding;
-            float glY = screenHeight - (y + innerPadding + size);
-
-            renderer.renderStructurePreview(structure, glX, glY, size, screenWidth, screenHeight);
-
-            index++;
+            // Küçük resim
+            byte[] thumbnail = structures.get(index).getThumbnail();
+            if (thumbnail != null) {
+                float innerPadding = 5;
+                uiRenderer.drawThumbnail(thumbnail, x + innerPadding, y + innerPadding, ITEM_SIZE - innerPadding * 2);
+            }
         }
     }
 
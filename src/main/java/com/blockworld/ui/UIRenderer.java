@@ -175,6 +175,25 @@ public class UIRenderer {
         glBindVertexArray(0);
     }
 
+    /**
+     * Kare bir RGBA küçük resmi hücre başına bir dikdörtgenle çizer. Alfa
+     * değeri 0 olan hücreler atlanır.
+     */
+    public void drawThumbnail(byte[] rgba, float x, float y, float size) {
+        int resolution = (int) Math.sqrt(rgba.length / 4);
+        float cell = size / resolution;
+        for (int row = 0; row < resolution; row++) {
+            for (int col = 0; col < resolution; col++) {
+                int p = (row * resolution + col) * 4;
+                if (rgba[p + 3] == 0) {
+                    continue;
+                }
+                drawRect(x + col * cell, y + row * cell, cell, cell,
+                        (rgba[p] & 0xFF) / 255f, (rgba[p + 1] & 0xFF) / 255f, (rgba[p + 2] & 0xFF) / 255f, 1.0f);
+            }
+        }
+    }
+
     public int getScreenWidth() {
         return screenWidth;
     }
@@ -0,0 +1,182 @@
+package com.blockworld.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * long anahtarlı, açık adreslemeli (doğrusal yoklamalı) hash tablosu.
+ * Anahtarlar kutulanmadığı için arama sırasında hiç nesne ayrılmaz.
+ *
+ * Gezinme yuva indeksleri üzerinden yapılır: 0..capacity() arasında
+ * valueAt(i) null değilse o yuva doludur. Gezinirken silme yapılmamalıdır.
+ */
+public class LongObjectMap<V> {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+    private int resizeThreshold;
+
+    public LongObjectMap() {
+        this(64);
+    }
+
+    public LongObjectMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Değeri ekler veya değiştirir; önceki değeri döndürür.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null değer saklanamaz");
+        }
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V old = (V) values[slot];
+                values[slot] = value;
+                return old;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V old = (V) values[slot];
+                shiftKeysBack(slot);
+                size--;
+                return old;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Silinen yuvadan sonraki zinciri geri kaydırır (mezar taşı kullanılmaz).
+     */
+    private void shiftKeysBack(int slot) {
+        int last = slot;
+        int next = (slot + 1) & mask;
+        while (values[next] != null) {
+            int ideal = hash(keys[next]) & mask;
+            // next elemanı, ideal yuvası (last, next] aralığında değilse geri taşınabilir
+            boolean movable = last <= next
+                    ? (ideal <= last || ideal > next)
+                    : (ideal <= last && ideal > next);
+            if (movable) {
+                keys[last] = keys[next];
+                values[last] = values[next];
+                last = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[last] = null;
+        keys[last] = 0;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    public long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    /**
+     * Değerlerin bir kopyasını döndürür (gezinirken değişiklik gerekiyorsa).
+     */
+    public List<V> values() {
+        List<V> list = new ArrayList<>(size);
+        for (int i = 0; i < values.length; i++) {
+            V value = valueAt(i);
+            if (value != null) {
+                list.add(value);
+            }
+        }
+        return list;
+    }
+}
@@ -1,59 +1,146 @@
 package com.blockworld.world;
 
 /**
- * Tek bir blok temsil eder.
+ * Bir blok durumunu temsil eden paylaşılan, değişmez nesne (flyweight).
+ *
+ * Dünya her voksel için yalnızca sayısal id saklar; aynı id'ye sahip tüm
+ * bloklar için tek bir Block örneği vardır. Örneklere {@link #of(Type)} veya
+ * {@link #byId(int)} ile erişilir.
  */
 public class Block {
 
     /**
-     * Blok tipleri
+     * Blok tipleri. Sıra kayıtlı id'leri belirler (yeni tipler sona eklenir);
+     * özellikler {@link BlockRegistry} dosyasından okunur.
      */
     public enum Type {
-        GRASS("Çimen", 0.2f, 0.8f, 0.2f),
-        DIRT("Toprak", 0.55f, 0.35f, 0.15f),
-        STONE("Taş", 0.5f, 0.5f, 0.5f),
-        WOOD("Ahşap", 0.6f, 0.4f, 0.2f),
-        SAND("Kum", 0.9f, 0.85f, 0.6f),
-        WATER("Su", 0.2f, 0.4f, 0.9f);
-
-        private final String displayName;
-        private final float r, g, b;
-
-        Type(String displayName, float r, float g, float b) {
-            this.displayName = displayName;
-            this.r = r;
-            this.g = g;
-            this.b = b;
-        }
+        GRASS,
+        DIRT,
+        STONE,
+        WOOD,
+        SAND,
+        WATER,
+        // Akan su: seviye kaynaktan uzaklaştıkça azalır (7 -> 1)
+        FLOWING_WATER_7,
+        FLOWING_WATER_6,
+        FLOWING_WATER_5,
+        FLOWING_WATER_4,
+        FLOWING_WATER_3,
+        FLOWING_WATER_2,
+        FLOWING_WATER_1,
+        LAMP;
 
         public String getDisplayName() {
-            return displayName;
+            return BlockRegistry.getLabel(getId());
         }
 
         public float getR() {
-            return r;
+            return BlockRegistry.getRed(getId());
         }
 
         public float getG() {
-            return g;
+            return BlockRegistry.getGreen(getId());
         }
 
         public float getB() {
-            return b;
+            return BlockRegistry.getBlue(getId());
+        }
+
+        public int getFluidLevel() {
+            return BlockRegistry.getFluidLevel(getId());
+        }
+
+        public boolean isFluid() {
+            return BlockRegistry.isFluid(getId());
+        }
+
+        public int getLightEmission() {
+            return BlockRegistry.getLightEmission(getId());
+        }
+
+        /**
+         * Işık geçirmez mi.
+         */
+        public boolean isOpaque() {
+            return BlockRegistry.isOpaque(getId());
+        }
+
+        /**
+         * Altı boşalınca düşer mi (kum).
+         */
+        public boolean hasGravity() {
+            return BlockRegistry.hasGravity(getId());
+        }
+
+        /**
+         * Dünyada saklanan sayısal id (0 hava için ayrılmıştır).
+         */
+        public int getId() {
+            return ordinal() + 1;
+        }
+
+        /**
+         * Sayısal id'den blok tipini döndürür, hava için null.
+         */
+        public static Type fromId(int id) {
+            if (id <= 0 || id > VALUES.length) {
+                return null;
+            }
+            return VALUES[id - 1];
         }
+
+        private static final Type[] VALUES = values();
     }
 
-    private Type type;
+    // Hava için ayrılmış id
+    public static final int AIR_ID = 0;
+
+    // Kaynak bloğun sıvı seviyesi
+    public static final int MAX_FLUID_LEVEL = 8;
+
+    // id -> paylaşılan blok (0 = hava, null)
+    private static final Block[] BY_ID = createStates();
 
-    public Block(Type type) {
+    private final Type type;
+    private final int id;
+
+    private Block(Type type) {
         this.type = type;
+        this.id = type.getId();
+    }
+
+    private static Block[] createStates() {
+        Type[] types = Type.values();
+        Block[] states = new Block[types.length + 1];
+        for (Type type : types) {
+            states[type.getId()] = new Block(type);
+        }
+        return states;
+    }
+
+    /**
+     * Blok tipinin paylaşılan örneğini döndürür.
+     */
+    public static Block of(Type type) {
+        return BY_ID[type.getId()];
+    }
+
+    /**
+     * Sayısal id'nin paylaşılan örneğini döndürür, hava veya bilinmeyen id için
+     * null.
+     */
+    public static Block byId(int id) {
+        if (id <= AIR_ID || id >= BY_ID.length) {
+            return null;
+        }
+        return BY_ID[id];
     }
 
     public Type getType() {
         return type;
     }
 
-    public void setType(Type type) {
-        this.type = type;
+    public int getId() {
+        return id;
     }
 }
@@ -0,0 +1,17 @@
+package com.blockworld.world;
+
+/**
+ * Dünya değişikliklerinden türetilen önbellekler (mesh, ışık, harita,
+ * istatistik) için geri çağırım. Tick başına en fazla bir kez, o tick'in
+ * birleştirilmiş değişiklikleriyle çağrılır.
+ */
+@FunctionalInterface
+public interface BlockChangeListener {
+
+    /**
+     * Değişiklik kümesi yalnızca bu çağrı süresince geçerlidir; saklanmamalı,
+     * gerekiyorsa içeriği kopyalanmalıdır. Çağrı sırasında yapılan dünya
+     * düzenlemeleri bir sonraki tick'te bildirilir.
+     */
+    void onBlocksChanged(BlockChangeSet changes);
+}
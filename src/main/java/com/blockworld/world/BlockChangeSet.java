@@ -0,0 +1,254 @@
+package com.blockworld.world;
+
+import com.blockworld.util.LongObjectMap;
+
+import java.util.Arrays;
+
+/**
+ * Bir tick boyunca biriken blok değişiklikleri, chunk başına bit kümeleri
+ * olarak.
+ *
+ * Her chunk girdisi değişen voksellerin bit kümesini (bölüm başına 4096 bit),
+ * içinde voksel değişen bölümlerin maskesini ve içeriği ya da komşusu
+ * değiştiği için yenilenmesi gereken bölümlerin maskesini tutar. Kenardaki bir
+ * değişiklik komşu chunk'ı da (yalnızca bölüm maskesiyle) listeye ekler.
+ * Girdiler ve bit dizileri tick'ler arasında yeniden kullanılır; kararlı
+ * durumda toplama ve teslim nesne ayırmaz.
+ *
+ * Girdiler indeksle gezilir: 0..size() arası.
+ */
+public class BlockChangeSet {
+
+    // Bir bölümün bit kümesindeki long sayısı (4096 / 64)
+    private static final int WORDS_PER_SECTION = ChunkSection.VOLUME / 64;
+    private static final int ALL_SECTIONS = (1 << Chunk.SECTION_COUNT) - 1;
+
+    /**
+     * Değişen bir vokseli ziyaret eder (dünya koordinatları).
+     */
+    @FunctionalInterface
+    public interface PositionVisitor {
+        void visit(int x, int y, int z);
+    }
+
+    private static final class ChunkChanges {
+        int chunkX;
+        int chunkZ;
+        // Yenilenmesi gereken bölümler (değişen + komşusu değişen)
+        int dirtyMask;
+        // İçinde voksel değişen bölümler (bit kümesinde dolu bölümler)
+        int changedMask;
+        // Chunk yüklendi/boşaltıldı: tek tek konumlar tutulmaz
+        boolean whole;
+        final long[] bits = new long[Chunk.SECTION_COUNT * WORDS_PER_SECTION];
+    }
+
+    private final LongObjectMap<ChunkChanges> byChunk = new LongObjectMap<>();
+    private ChunkChanges[] entries = new ChunkChanges[16];
+    private int size;
+
+    // Art arda aynı chunk'a yapılan işaretlemeler için
+    private ChunkChanges last;
+
+    private ChunkChanges entry(int chunkX, int chunkZ) {
+        ChunkChanges entry = last;
+        if (entry != null && entry.chunkX == chunkX && entry.chunkZ == chunkZ) {
+            return entry;
+        }
+        long key = World.chunkKey(chunkX, chunkZ);
+        entry = byChunk.get(key);
+        if (entry == null) {
+            if (size == entries.length) {
+                ChunkChanges[] grown = new ChunkChanges[size * 2];
+                System.arraycopy(entries, 0, grown, 0, size);
+                entries = grown;
+            }
+            entry = entries[size];
+            if (entry == null) {
+                entry = new ChunkChanges();
+                entries[size] = entry;
+            }
+            size++;
+            entry.chunkX = chunkX;
+            entry.chunkZ = chunkZ;
+            byChunk.put(key, entry);
+        }
+        last = entry;
+        return entry;
+    }
+
+    /**
+     * Vokseli değişmiş işaretler (yalnızca kendi bölümü; komşu bölümler
+     * {@link #markSections} ile ayrıca işaretlenir).
+     */
+    void markPosition(int x, int y, int z) {
+        ChunkChanges entry = entry(x >> 4, z >> 4);
+        int sy = Chunk.sectionIndex(y);
+        int bit = (sy << 12) | ChunkSection.index(x & 15, y & 15, z & 15);
+        entry.bits[bit >>> 6] |= 1L << bit;
+        entry.changedMask |= 1 << sy;
+        entry.dirtyMask |= 1 << sy;
+    }
+
+    /**
+     * Bölümün tüm voksellerini değişmiş işaretler (tamamen doldurma).
+     */
+    void markSectionFill(int chunkX, int sectionIndex, int chunkZ) {
+        ChunkChanges entry = entry(chunkX, chunkZ);
+        int from = sectionIndex * WORDS_PER_SECTION;
+        Arrays.fill(entry.bits, from, from + WORDS_PER_SECTION, -1L);
+        entry.changedMask |= 1 << sectionIndex;
+        entry.dirtyMask |= 1 << sectionIndex;
+    }
+
+    /**
+     * Bölümleri yenilenecek olarak işaretler (voksel konumu olmadan).
+     */
+    void markSections(int chunkX, int chunkZ, int mask) {
+        if (mask != 0) {
+            entry(chunkX, chunkZ).dirtyMask |= mask;
+        }
+    }
+
+    /**
+     * Chunk'ın tamamını (yükleme/boşaltma) yenilenecek işaretler.
+     */
+    void markWholeChunk(int chunkX, int chunkZ) {
+        ChunkChanges entry = entry(chunkX, chunkZ);
+        entry.whole = true;
+        entry.dirtyMask = ALL_SECTIONS;
+    }
+
+    /**
+     * Girdileri sıfırlar; bit dizileri yalnızca dolu bölümlerde temizlenir.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            ChunkChanges entry = entries[i];
+            int mask = entry.changedMask;
+            while (mask != 0) {
+                int sy = Integer.numberOfTrailingZeros(mask);
+                int from = sy * WORDS_PER_SECTION;
+                Arrays.fill(entry.bits, from, from + WORDS_PER_SECTION, 0L);
+                mask &= mask - 1;
+            }
+            entry.changedMask = 0;
+            entry.dirtyMask = 0;
+            entry.whole = false;
+        }
+        if (size > 0) {
+            byChunk.clear();
+        }
+        size = 0;
+        last = null;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Değişiklik içeren chunk sayısı.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getChunkX(int entry) {
+        return entries[entry].chunkX;
+    }
+
+    public int getChunkZ(int entry) {
+        return entries[entry].chunkZ;
+    }
+
+    /**
+     * Yenilenmesi gereken bölümlerin maskesi (bit = bölüm indeksi): içinde
+     * voksel değişenler ve kenar/dikey komşusu değişenler.
+     */
+    public int getDirtySectionMask(int entry) {
+        return entries[entry].dirtyMask;
+    }
+
+    /**
+     * İçinde voksel değişen bölümlerin maskesi.
+     */
+    public int getChangedSectionMask(int entry) {
+        return entries[entry].changedMask;
+    }
+
+    /**
+     * Chunk bu tick yüklendi veya boşaltıldı mı. Öyleyse tek tek konumlar
+     * bilinmez; tüm bölümler yenilenmelidir.
+     */
+    public boolean isWholeChunk(int entry) {
+        return entries[entry].whole;
+    }
+
+    /**
+     * Yerel x/z (0-15) ve dünya y koordinatındaki voksel bu tick değişti mi.
+     */
+    public boolean isChanged(int entry, int x, int y, int z) {
+        if (!Chunk.isInHeight(y)) {
+            return false;
+        }
+        int bit = (Chunk.sectionIndex(y) << 12) | ChunkSection.index(x, y & 15, z);
+        return (entries[entry].bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Girdideki değişen vokselleri gezer. Yalnızca dolu bölümlerin bitleri
+     * taranır.
+     *
+     * @return gezilen voksel sayısı
+     */
+    public int forEachChanged(int entry, PositionVisitor visitor) {
+        return forEachChanged(entry, ALL_SECTIONS, visitor);
+    }
+
+    /**
+     * Girdideki değişen vokselleri yalnızca maskedeki bölümlerde gezer.
+     *
+     * @return gezilen voksel sayısı
+     */
+    public int forEachChanged(int entry, int sectionMask, PositionVisitor visitor) {
+        ChunkChanges changes = entries[entry];
+        int baseX = changes.chunkX << 4;
+        int baseZ = changes.chunkZ << 4;
+        int count = 0;
+        int mask = changes.changedMask & sectionMask;
+        while (mask != 0) {
+            int sy = Integer.numberOfTrailingZeros(mask);
+            int baseY = Chunk.MIN_Y + (sy << 4);
+            int from = sy * WORDS_PER_SECTION;
+            for (int w = 0; w < WORDS_PER_SECTION; w++) {
+                long word = changes.bits[from + w];
+                while (word != 0) {
+                    int index = (w << 6) | Long.numberOfTrailingZeros(word);
+                    visitor.visit(baseX + (index & 15), baseY + (index >> 8), baseZ + ((index >> 4) & 15));
+                    count++;
+                    word &= word - 1;
+                }
+            }
+            mask &= mask - 1;
+        }
+        return count;
+    }
+
+    /**
+     * Girdideki değişen voksel sayısı.
+     */
+    public int getChangedCount(int entry) {
+        ChunkChanges changes = entries[entry];
+        int count = 0;
+        int mask = changes.changedMask;
+        while (mask != 0) {
+            int from = Integer.numberOfTrailingZeros(mask) * WORDS_PER_SECTION;
+            for (int w = from; w < from + WORDS_PER_SECTION; w++) {
+                count += Long.bitCount(changes.bits[w]);
+            }
+            mask &= mask - 1;
+        }
+        return count;
+    }
+}
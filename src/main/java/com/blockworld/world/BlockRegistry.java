@@ -0,0 +1,235 @@
+package com.blockworld.world;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Blok özelliklerinin kayıt defteri: {@link #RESOURCE} kaynak dosyasından bir
+ * kez okunur.
+ *
+ * Özellikler id ile indekslenen düz dizilerde tutulur (0: hava); mesh,
+ * ışık ve fizik kodu sıcak döngülerde nesne veya harita sorgusu yapmadan
+ * okur. {@link Block.Type} sabitleri yalnızca kayıtlı id'leri adlandırır;
+ * dosyadaki her satır bir sabitle ve onun id'siyle eşleşmelidir.
+ */
+public final class BlockRegistry {
+
+    public static final String RESOURCE = "/blocks.txt";
+
+    // id ile indekslenen özellikler (uzunluk: blok sayısı + 1)
+    private static final String[] LABELS;
+    // id * 3: r, g, b
+    private static final float[] COLORS;
+    private static final boolean[] OPAQUE;
+    private static final boolean[] TRANSLUCENT;
+    private static final byte[] LIGHT_EMISSION;
+    private static final boolean[] GRAVITY;
+    private static final byte[] FLUID_LEVEL;
+    // Palet sorguları için (ChunkSection.containsAny)
+    private static final boolean[] FLUID_IDS;
+    private static final boolean[] EMITTER_IDS;
+
+    static {
+        int count = Block.Type.values().length + 1;
+        LABELS = new String[count];
+        COLORS = new float[count * 3];
+        OPAQUE = new boolean[count];
+        TRANSLUCENT = new boolean[count];
+        LIGHT_EMISSION = new byte[count];
+        GRAVITY = new boolean[count];
+        FLUID_LEVEL = new byte[count];
+        FLUID_IDS = new boolean[count];
+        EMITTER_IDS = new boolean[count];
+        LABELS[Block.AIR_ID] = "Hava";
+        TRANSLUCENT[Block.AIR_ID] = true;
+        load();
+    }
+
+    private BlockRegistry() {
+    }
+
+    private static void load() {
+        try (InputStream in = BlockRegistry.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Blok kayıt dosyası bulunamadı: " + RESOURCE);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                int comment = line.indexOf('#');
+                if (comment >= 0) {
+                    line = line.substring(0, comment);
+                }
+                if (!line.isBlank()) {
+                    parseLine(line, lineNumber);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Blok kayıt dosyası okunamadı: " + e.getMessage(), e);
+        }
+        for (Block.Type type : Block.Type.values()) {
+            if (LABELS[type.getId()] == null) {
+                throw new IllegalStateException(RESOURCE + ": " + type + " tanımlı değil");
+            }
+        }
+    }
+
+    private static void parseLine(String line, int lineNumber) {
+        int id = -1;
+        String name = null;
+        String label = null;
+        float r = 1, g = 1, b = 1;
+        boolean opaque = true;
+        boolean translucent = false;
+        int light = 0;
+        boolean gravity = false;
+        int fluid = 0;
+        try {
+            for (String field : line.split(";")) {
+                int eq = field.indexOf('=');
+                if (eq < 0) {
+                    throw new IllegalArgumentException("'anahtar=değer' bekleniyordu: " + field.trim());
+                }
+                String key = field.substring(0, eq).trim();
+                String value = field.substring(eq + 1).trim();
+                switch (key) {
+                    case "id" -> id = Integer.parseInt(value);
+                    case "name" -> name = value;
+                    case "label" -> label = value;
+                    case "color" -> {
+                        String[] rgb = value.split("\\s+");
+                        if (rgb.length != 3) {
+                            throw new IllegalArgumentException("renk 'r g b' olmalı: " + value);
+                        }
+                        r = Float.parseFloat(rgb[0]);
+                        g = Float.parseFloat(rgb[1]);
+                        b = Float.parseFloat(rgb[2]);
+                    }
+                    case "opaque" -> opaque = Boolean.parseBoolean(value);
+                    case "translucent" -> translucent = Boolean.parseBoolean(value);
+                    case "light" -> light = Integer.parseInt(value);
+                    case "gravity" -> gravity = Boolean.parseBoolean(value);
+                    case "fluid" -> fluid = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("bilinmeyen özellik: " + key);
+                }
+            }
+            if (name == null) {
+                throw new IllegalArgumentException("name eksik");
+            }
+            Block.Type type = Block.Type.valueOf(name);
+            if (id != type.getId()) {
+                throw new IllegalArgumentException(name + " için id " + type.getId() + " olmalı, " + id + " verilmiş");
+            }
+            if (LABELS[id] != null) {
+                throw new IllegalArgumentException("id " + id + " iki kez tanımlı");
+            }
+            if (light < 0 || light > LightEngine.MAX_LIGHT || fluid < 0 || fluid > Block.MAX_FLUID_LEVEL) {
+                throw new IllegalArgumentException("ışık 0-15, sıvı seviyesi 0-" + Block.MAX_FLUID_LEVEL + " olmalı");
+            }
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException ve valueOf hataları da buraya düşer
+            throw new IllegalStateException(RESOURCE + ":" + lineNumber + ": " + e.getMessage(), e);
+        }
+
+        LABELS[id] = label != null ? label : name;
+        COLORS[id * 3] = r;
+        COLORS[id * 3 + 1] = g;
+        COLORS[id * 3 + 2] = b;
+        OPAQUE[id] = opaque;
+        TRANSLUCENT[id] = translucent;
+        LIGHT_EMISSION[id] = (byte) light;
+        GRAVITY[id] = gravity;
+        FLUID_LEVEL[id] = (byte) fluid;
+        FLUID_IDS[id] = fluid > 0;
+        EMITTER_IDS[id] = light > 0;
+    }
+
+    /**
+     * Kayıtlı en büyük id + 1 (özellik dizilerinin uzunluğu).
+     */
+    public static int size() {
+        return OPAQUE.length;
+    }
+
+    public static String getLabel(int id) {
+        return LABELS[id];
+    }
+
+    public static float getRed(int id) {
+        return COLORS[id * 3];
+    }
+
+    public static float getGreen(int id) {
+        return COLORS[id * 3 + 1];
+    }
+
+    public static float getBlue(int id) {
+        return COLORS[id * 3 + 2];
+    }
+
+    /**
+     * Işık geçirmez ve komşu yüzleri gizler mi (hava için false).
+     */
+    public static boolean isOpaque(int id) {
+        return OPAQUE[id];
+    }
+
+    /**
+     * İçinden görülür mü (hava ve sıvılar).
+     */
+    public static boolean isTranslucent(int id) {
+        return TRANSLUCENT[id];
+    }
+
+    public static int getLightEmission(int id) {
+        return LIGHT_EMISSION[id];
+    }
+
+    public static boolean hasGravity(int id) {
+        return GRAVITY[id];
+    }
+
+    /**
+     * Sıvı seviyesi (0: sıvı değil, {@link Block#MAX_FLUID_LEVEL}: kaynak).
+     */
+    public static int getFluidLevel(int id) {
+        return FLUID_LEVEL[id];
+    }
+
+    public static boolean isFluid(int id) {
+        return FLUID_LEVEL[id] > 0;
+    }
+
+    /**
+     * Tüm renklerin kopyası (id * 3: r, g, b).
+     */
+    public static float[] copyColors() {
+        return COLORS.clone();
+    }
+
+    /**
+     * Sıvı id'leri (palet sorgusu için; değiştirilmemeli).
+     */
+    static boolean[] fluidIds() {
+        return FLUID_IDS;
+    }
+
+    /**
+     * Yer çekimi olan id'ler (palet sorgusu için; değiştirilmemeli).
+     */
+    static boolean[] gravityIds() {
+        return GRAVITY;
+    }
+
+    /**
+     * Işık veren id'ler (palet sorgusu için; değiştirilmemeli).
+     */
+    static boolean[] emitterIds() {
+        return EMITTER_IDS;
+    }
+}
@@ -0,0 +1,258 @@
+package com.blockworld.world;
+
+import com.blockworld.util.LongObjectMap;
+
+import java.util.Arrays;
+
+/**
+ * Zamanlanmış blok tick'leri: öncelik kuyruğu + chunk başına etkin küme.
+ *
+ * Kuyruk, zamanı gelen tick'e göre sıralı bir ikili yığındır (eşit zamanlılar
+ * eklenme sırasıyla çıkar); girdiler ilkel dizilerde tutulur. Etkin küme her
+ * konumun en fazla bir kez kuyrukta olmasını sağlar: chunk başına, bölüm
+ * başına tembel ayrılan 4096 bitlik kümeler. Simülasyon yalnızca kuyruğa
+ * girmiş konumlara bakar, dünyayı hiç taramaz.
+ *
+ * İş parçacığı güvenli değildir (oyun döngüsü).
+ */
+public class BlockTickScheduler {
+
+    private static final int WORDS_PER_SECTION = ChunkSection.VOLUME / 64;
+
+    /**
+     * Zamanı gelen bir konumu işler.
+     */
+    @FunctionalInterface
+    interface TickHandler {
+        void tick(int x, int y, int z);
+    }
+
+    // Bir chunk'ın kuyruktaki konumları
+    private static final class ActiveChunk {
+        final long[][] sections = new long[Chunk.SECTION_COUNT][];
+        int count;
+    }
+
+    // İkili yığın: zaman, sıra numarası ve paketlenmiş konum
+    private long[] dueTicks = new long[256];
+    private long[] sequences = new long[256];
+    private long[] positions = new long[256];
+    private int size;
+    private long nextSequence;
+
+    private final LongObjectMap<ActiveChunk> active = new LongObjectMap<>();
+    private ActiveChunk lastActive;
+    private long lastActiveKey;
+
+    // Son runDue çağrısında işlenen konum sayısı
+    private int lastProcessed;
+
+    /**
+     * Konumu verilen tick'te işlenmek üzere kuyruğa ekler.
+     *
+     * @return eklendi mi (konum zaten kuyruktaysa false)
+     */
+    boolean schedule(int x, int y, int z, long dueTick) {
+        if (!Chunk.isInHeight(y)) {
+            return false;
+        }
+        ActiveChunk chunk = activeChunk(x >> 4, z >> 4, true);
+        int sy = Chunk.sectionIndex(y);
+        long[] bits = chunk.sections[sy];
+        if (bits == null) {
+            bits = new long[WORDS_PER_SECTION];
+            chunk.sections[sy] = bits;
+        }
+        int index = ChunkSection.index(x & 15, y & 15, z & 15);
+        long bit = 1L << index;
+        if ((bits[index >>> 6] & bit) != 0) {
+            return false;
+        }
+        bits[index >>> 6] |= bit;
+        chunk.count++;
+        push(dueTick, pack(x, y, z));
+        return true;
+    }
+
+    public boolean isScheduled(int x, int y, int z) {
+        if (!Chunk.isInHeight(y)) {
+            return false;
+        }
+        ActiveChunk chunk = activeChunk(x >> 4, z >> 4, false);
+        if (chunk == null) {
+            return false;
+        }
+        long[] bits = chunk.sections[Chunk.sectionIndex(y)];
+        int index = ChunkSection.index(x & 15, y & 15, z & 15);
+        return bits != null && (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Zamanı gelmiş konumları sırayla işler; en fazla budget kadar. Bütçeyi
+     * aşan konumlar kuyrukta kalır ve sonraki çağrıda önce onlar işlenir.
+     * İşleyici çalışırken yeni konum eklenebilir.
+     *
+     * @return işlenen konum sayısı
+     */
+    int runDue(long tick, int budget, TickHandler handler) {
+        int processed = 0;
+        while (size > 0 && dueTicks[0] <= tick && processed < budget) {
+            long position = positions[0];
+            pop();
+            int x = unpackX(position);
+            int y = unpackY(position);
+            int z = unpackZ(position);
+            deactivate(x, y, z);
+            handler.tick(x, y, z);
+            processed++;
+        }
+        lastProcessed = processed;
+        return processed;
+    }
+
+    /**
+     * Kuyruktaki konum sayısı.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Zamanı gelmiş (bütçe yüzünden bekleyenler dahil) konum sayısı.
+     */
+    public int countDue(long tick) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (dueTicks[i] <= tick) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getLastProcessed() {
+        return lastProcessed;
+    }
+
+    /**
+     * Kuyruğunda konum bulunan chunk sayısı.
+     */
+    public int getActiveChunkCount() {
+        return active.size();
+    }
+
+    void clear() {
+        size = 0;
+        active.clear();
+        lastActive = null;
+    }
+
+    private ActiveChunk activeChunk(int chunkX, int chunkZ, boolean create) {
+        long key = World.chunkKey(chunkX, chunkZ);
+        if (lastActive != null && lastActiveKey == key) {
+            return lastActive;
+        }
+        ActiveChunk chunk = active.get(key);
+        if (chunk == null) {
+            if (!create) {
+                return null;
+            }
+            chunk = new ActiveChunk();
+            active.put(key, chunk);
+        }
+        lastActive = chunk;
+        lastActiveKey = key;
+        return chunk;
+    }
+
+    private void deactivate(int x, int y, int z) {
+        ActiveChunk chunk = activeChunk(x >> 4, z >> 4, false);
+        int index = ChunkSection.index(x & 15, y & 15, z & 15);
+        chunk.sections[Chunk.sectionIndex(y)][index >>> 6] &= ~(1L << index);
+        if (--chunk.count == 0) {
+            // Etkin konumu kalmayan chunk kümeden çıkar
+            active.remove(lastActiveKey);
+            lastActive = null;
+        }
+    }
+
+    // --- Konum paketleme: x ve z 26 bit, y 12 bit ---
+
+    static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y - Chunk.MIN_Y);
+    }
+
+    static int unpackX(long position) {
+        return (int) (position >> 38);
+    }
+
+    static int unpackZ(long position) {
+        return (int) (position << 26 >> 38);
+    }
+
+    static int unpackY(long position) {
+        return (int) (position & 0xFFF) + Chunk.MIN_Y;
+    }
+
+    // --- İkili yığın ---
+
+    private boolean before(int a, int b) {
+        return dueTicks[a] < dueTicks[b] || (dueTicks[a] == dueTicks[b] && sequences[a] < sequences[b]);
+    }
+
+    private void push(long dueTick, long position) {
+        if (size == dueTicks.length) {
+            int capacity = size * 2;
+            dueTicks = Arrays.copyOf(dueTicks, capacity);
+            sequences = Arrays.copyOf(sequences, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+        }
+        int i = size++;
+        dueTicks[i] = dueTick;
+        sequences[i] = nextSequence++;
+        positions[i] = position;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(i, parent)) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void pop() {
+        size--;
+        if (size == 0) {
+            return;
+        }
+        dueTicks[0] = dueTicks[size];
+        sequences[0] = sequences[size];
+        positions[0] = positions[size];
+        int i = 0;
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                break;
+            }
+            int child = left + 1 < size && before(left + 1, left) ? left + 1 : left;
+            if (!before(child, i)) {
+                break;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long tick = dueTicks[a];
+        dueTicks[a] = dueTicks[b];
+        dueTicks[b] = tick;
+        long sequence = sequences[a];
+        sequences[a] = sequences[b];
+        sequences[b] = sequence;
+        long position = positions[a];
+        positions[a] = positions[b];
+        positions[b] = position;
+    }
+}
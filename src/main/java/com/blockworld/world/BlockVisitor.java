@@ -0,0 +1,10 @@
+package com.blockworld.world;
+
+/**
+ * Dünyadaki blokları gezmek için geri çağırım.
+ */
+@FunctionalInterface
+public interface BlockVisitor {
+
+    void visit(int x, int y, int z, Block.Type type);
+}
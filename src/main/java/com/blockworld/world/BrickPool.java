@@ -0,0 +1,91 @@
+package com.blockworld.world;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Yapı parçalarının (16x16x16 id dizisi) içerik adresli havuzu.
+ *
+ * Aynı içerikli parçalar tek bir dizi olarak tutulur ve referans sayılır;
+ * sayaç sıfıra inince parça havuzdan çıkar. Böylece kısmen aynı yapılar
+ * ortak parçaları paylaşır ve bellek benzersiz içerikle orantılı kalır.
+ * Metotlar senkronizedir: kütüphane parçaları kendi kilidi altında alıp
+ * bırakırken yapılar paylaşılan parçayı kopyalarken kendi kilitleri altında
+ * bırakır.
+ */
+class BrickPool {
+
+    private static final class Key {
+        final short[] data;
+        final int hash;
+
+        Key(short[] data) {
+            this.data = data;
+            this.hash = Arrays.hashCode(data);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && hash == ((Key) other).hash && Arrays.equals(data, ((Key) other).data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Ref {
+        final short[] data;
+        int count;
+
+        Ref(short[] data) {
+            this.data = data;
+        }
+    }
+
+    private final Map<Key, Ref> bricks = new HashMap<>();
+    private long references;
+
+    /**
+     * Aynı içerikli havuz parçasını döndürür (yoksa verilen parçayı ekler) ve
+     * referans sayısını artırır.
+     */
+    synchronized short[] acquire(short[] data) {
+        Ref ref = bricks.computeIfAbsent(new Key(data), key -> new Ref(key.data));
+        ref.count++;
+        references++;
+        return ref.data;
+    }
+
+    synchronized void release(short[] data) {
+        Key key = new Key(data);
+        Ref ref = bricks.get(key);
+        if (ref == null || ref.data != data) {
+            return; // Havuzdan gelmemiş
+        }
+        references--;
+        if (--ref.count == 0) {
+            bricks.remove(key);
+        }
+    }
+
+    /**
+     * Havuzdaki benzersiz parça sayısı.
+     */
+    synchronized int size() {
+        return bricks.size();
+    }
+
+    /**
+     * Toplam referans sayısı (paylaşım olmasaydı tutulacak parça sayısı).
+     */
+    synchronized long getReferenceCount() {
+        return references;
+    }
+
+    synchronized long estimateMemoryBytes() {
+        return bricks.size() * (16 + 2L * Structure.BRICK_VOLUME + 64L);
+    }
+}
@@ -0,0 +1,401 @@
+package com.blockworld.world;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 16 blok genişliğinde, dikey olarak {@link ChunkSection}'lara bölünmüş dünya
+ * sütunu. Tamamen hava olan bölümler için bellek ayrılmaz.
+ *
+ * Tek yazar, çok okuyucu: blokları yalnızca oyun döngüsü değiştirir ve her
+ * değişiklik chunk'ın {@link StampedLock} yazma kilidini alır. Diğer iş
+ * parçacıkları {@link #getBlockId} ile iyimser (kilitsiz) okur, tutarlı bir
+ * bölüm için {@link #copySection} kullanır. {@link #getSection} ham bölümü
+ * döndürür; yalnızca yazar iş parçacığında güvenlidir.
+ *
+ * {@link #snapshot()} bölüm dizisinin sığ bir kopyasıyla salt okunur bir
+ * görüntü oluşturur (bölüm başına veri kopyalanmaz). Görüntüyle paylaşılan
+ * bölümler yazmadan önce kopyalanır (copy-on-write); görüntü bu yüzden hiç
+ * değişmez ve kilitsiz okunabilir.
+ */
+public class Chunk {
+
+    public static final int SIZE = ChunkSection.SIZE;
+
+    // Dikey sınırlar (bölüm boyutunun katı olmalı)
+    public static final int MIN_Y = -64;
+    public static final int HEIGHT = 384;
+    public static final int MAX_Y = MIN_Y + HEIGHT - 1;
+    public static final int SECTION_COUNT = HEIGHT / ChunkSection.SIZE;
+
+    private final int chunkX;
+    private final int chunkZ;
+    private final ChunkSection[] sections;
+
+    private final StampedLock lock = new StampedLock();
+
+    // Bir görüntüyle paylaşılan bölümler (bit = bölüm indeksi; yalnızca yazar).
+    // Bu bölümler yerinde değiştirilmez, önce kopyalanır.
+    private int sharedSections;
+    // Görüntü chunk'ı mı (salt okunur)
+    private final boolean frozen;
+
+    // Arazisi üretildi mi (false ise yalnızca oyuncu düzenlemelerini içerir)
+    private volatile boolean populated;
+    // Üretimden/yüklemeden sonra oyuncu tarafından değiştirildi mi
+    private volatile boolean modified;
+    // Dünyanın chunk tablosunda mı (boşaltılınca false; önbellekler bununla anlar)
+    private volatile boolean inWorld;
+
+    // Bölüm başına gökyüzü ve blok ışığı (yalnızca oyun döngüsü). Chunk
+    // aydınlatılana kadar ve görüntülerde null; kaydedilmez, yüklemede
+    // yeniden hesaplanır.
+    private NibbleArray[] skyLight;
+    private NibbleArray[] blockLight;
+
+    public Chunk(int chunkX, int chunkZ) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.sections = new ChunkSection[SECTION_COUNT];
+        this.frozen = false;
+    }
+
+    // Görüntü: bölümler kaynakla paylaşılır
+    private Chunk(Chunk source) {
+        this.chunkX = source.chunkX;
+        this.chunkZ = source.chunkZ;
+        this.sections = source.sections.clone();
+        this.populated = source.populated;
+        this.modified = source.modified;
+        this.frozen = true;
+    }
+
+    /**
+     * Chunk'ın şu anki halinin salt okunur görüntüsü; bölüm sayısından
+     * bağımsız olarak sabit maliyetlidir. Yazar iş parçacığında çağrılmalıdır.
+     */
+    Chunk snapshot() {
+        if (frozen) {
+            return this;
+        }
+        // Bölümler yalnızca bu iş parçacığında değiştiği için kilit gerekmez
+        sharedSections = (1 << SECTION_COUNT) - 1;
+        return new Chunk(this);
+    }
+
+    public boolean isSnapshot() {
+        return frozen;
+    }
+
+    /**
+     * Görüntü alındıktan sonra blok yazılmadı mı? Yazılan her paylaşılan
+     * bölüm kopyalandığından bölüm kimlikleri karşılaştırılır. Yazar iş
+     * parçacığında çağrılmalıdır.
+     */
+    boolean isUnchangedSince(Chunk snapshot) {
+        for (int sy = 0; sy < SECTION_COUNT; sy++) {
+            if (sections[sy] != snapshot.sections[sy]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkWritable() {
+        if (frozen) {
+            throw new IllegalStateException("Chunk görüntüsü salt okunurdur");
+        }
+    }
+
+    /**
+     * Yerinde değiştirilecek bölüm: görüntüyle paylaşılıyorsa özel bir kopyası
+     * (null ise null). Değişiklikten sonra bölüm {@link #setSection} ile
+     * yerine konmalıdır; kopya o ana kadar okuyuculara görünmez.
+     */
+    ChunkSection sectionForWrite(int sectionIndex) {
+        checkWritable();
+        ChunkSection section = sections[sectionIndex];
+        if (section != null && (sharedSections & (1 << sectionIndex)) != 0) {
+            return section.copy();
+        }
+        return section;
+    }
+
+    /**
+     * Bölüm anahtarı: chunk x/z için 26'şar bit, bölüm indeksi için 12 bit.
+     */
+    public static long sectionKey(int chunkX, int sectionIndex, int chunkZ) {
+        return ((long) chunkX << 38) | ((chunkZ & 0x3FFFFFFL) << 12) | (sectionIndex & 0xFFFL);
+    }
+
+    public static int sectionKeyX(long key) {
+        return (int) (key >> 38);
+    }
+
+    public static int sectionKeyZ(long key) {
+        return (int) ((key << 26) >> 38);
+    }
+
+    public static int sectionKeyIndex(long key) {
+        return (int) (key & 0xFFFL);
+    }
+
+    public static boolean isInHeight(int y) {
+        return y >= MIN_Y && y <= MAX_Y;
+    }
+
+    public static int sectionIndex(int y) {
+        return (y - MIN_Y) >> 4;
+    }
+
+    /**
+     * Yerel x/z (0-15) ve dünya y koordinatındaki blok id'sini döndürür. Her
+     * iş parçacığından çağrılabilir: önce kilitsiz okunur, araya yazma
+     * girdiyse okuma kilidiyle tekrarlanır.
+     */
+    public int getBlockId(int x, int y, int z) {
+        if (!isInHeight(y)) {
+            return ChunkSection.AIR;
+        }
+        int sy = sectionIndex(y);
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            int id = readBlockId(sy, x, y & 15, z);
+            if (lock.validate(stamp)) {
+                return id;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return readBlockId(sy, x, y & 15, z);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int readBlockId(int sy, int x, int ly, int z) {
+        ChunkSection section = sections[sy];
+        if (section == null) {
+            return ChunkSection.AIR;
+        }
+        try {
+            return section.get(x, ly, z);
+        } catch (RuntimeException e) {
+            // İyimser okuma yarım kalmış bir yazmayı gördü; doğrulama reddeder
+            return -1;
+        }
+    }
+
+    /**
+     * Bölümün tutarlı bir kopyasını döndürür (boşsa null). Her iş
+     * parçacığından çağrılabilir.
+     */
+    public ChunkSection copySection(int sectionIndex) {
+        long stamp = lock.readLock();
+        try {
+            ChunkSection section = sections[sectionIndex];
+            return section != null ? section.copy() : null;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Bloğu değiştirir ve eski id'yi döndürür. Boşalan bölümler serbest bırakılır.
+     */
+    public int setBlockId(int x, int y, int z, int id) {
+        if (!isInHeight(y)) {
+            return ChunkSection.AIR;
+        }
+        int sy = sectionIndex(y);
+        ChunkSection section = sections[sy];
+        if (section == null) {
+            checkWritable();
+            if (id == ChunkSection.AIR) {
+                return ChunkSection.AIR;
+            }
+            section = new ChunkSection();
+        } else {
+            int old = section.get(x, y & 15, z);
+            if (old == id) {
+                return old;
+            }
+            section = sectionForWrite(sy);
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            int old = section.set(x, y & 15, z, id);
+            sections[sy] = section.isEmpty() ? null : section;
+            sharedSections &= ~(1 << sy);
+            return old;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Bölümlere doğrudan yazılacak toplu değişiklik için yazma kilidini alır
+     * (yeniden girilemez: bu sırada kilitli chunk metotları çağrılmamalı).
+     */
+    long beginWrite() {
+        checkWritable();
+        return lock.writeLock();
+    }
+
+    void endWrite(long stamp) {
+        lock.unlockWrite(stamp);
+    }
+
+    /**
+     * Bölümün tamamını tek bir blokla doldurur. Bölüm zaten aynı bloktan
+     * oluşuyorsa false döner.
+     */
+    public boolean fillSection(int sectionIndex, int id) {
+        ChunkSection section = sections[sectionIndex];
+        if (section == null ? id == ChunkSection.AIR : section.isUniform() && section.get(0) == id) {
+            return false;
+        }
+        setSection(sectionIndex, id == ChunkSection.AIR ? null : new ChunkSection(id));
+        return true;
+    }
+
+    /**
+     * Diğer chunk'taki hava olmayan blokları bu chunk'ın üzerine yazar.
+     */
+    public void copyBlocksFrom(Chunk other) {
+        for (int sy = 0; sy < SECTION_COUNT; sy++) {
+            ChunkSection section = other.sections[sy];
+            if (section == null) {
+                continue;
+            }
+            int baseY = MIN_Y + (sy << 4);
+            for (int i = 0; i < ChunkSection.VOLUME; i++) {
+                int id = section.get(i);
+                if (id != ChunkSection.AIR) {
+                    setBlockId(i & 15, baseY + (i >> 8), (i >> 4) & 15, id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ham bölüm (kopyalanmaz). Yalnızca yazar iş parçacığında veya dünyaya
+     * eklenmemiş chunk'larda kullanılmalıdır; diğerleri {@link #copySection}
+     * kullanır.
+     */
+    public ChunkSection getSection(int sectionIndex) {
+        return sections[sectionIndex];
+    }
+
+    /**
+     * Bölümü doğrudan yerleştirir (boş bölümler null olarak saklanır).
+     */
+    public void setSection(int sectionIndex, ChunkSection section) {
+        checkWritable();
+        long stamp = lock.writeLock();
+        try {
+            sections[sectionIndex] = section != null && !section.isEmpty() ? section : null;
+            sharedSections &= ~(1 << sectionIndex);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    public int getChunkZ() {
+        return chunkZ;
+    }
+
+    public boolean isPopulated() {
+        return populated;
+    }
+
+    public void setPopulated(boolean populated) {
+        this.populated = populated;
+    }
+
+    boolean isInWorld() {
+        return inWorld;
+    }
+
+    void setInWorld(boolean inWorld) {
+        this.inWorld = inWorld;
+    }
+
+    public boolean isModified() {
+        return modified;
+    }
+
+    public void setModified(boolean modified) {
+        this.modified = modified;
+    }
+
+    public boolean isLit() {
+        return skyLight != null;
+    }
+
+    void setLight(NibbleArray[] skyLight, NibbleArray[] blockLight) {
+        this.skyLight = skyLight;
+        this.blockLight = blockLight;
+    }
+
+    /**
+     * Yerel x/z (0-15) ve dünya y koordinatındaki gökyüzü ışığı (0-15).
+     * Aydınlatılmamış chunk'ta ve dünyanın üstünde 15.
+     */
+    public int getSkyLight(int x, int y, int z) {
+        if (skyLight == null || y > MAX_Y) {
+            return 15;
+        }
+        if (y < MIN_Y) {
+            return 0;
+        }
+        return skyLight[sectionIndex(y)].get(x, y & 15, z);
+    }
+
+    /**
+     * Yerel x/z (0-15) ve dünya y koordinatındaki blok ışığı (0-15).
+     */
+    public int getBlockLight(int x, int y, int z) {
+        if (blockLight == null || !isInHeight(y)) {
+            return 0;
+        }
+        return blockLight[sectionIndex(y)].get(x, y & 15, z);
+    }
+
+    NibbleArray getSkyLightSection(int sectionIndex) {
+        return skyLight[sectionIndex];
+    }
+
+    NibbleArray getBlockLightSection(int sectionIndex) {
+        return blockLight[sectionIndex];
+    }
+
+    public int getBlockCount() {
+        int count = 0;
+        for (ChunkSection section : sections) {
+            if (section != null) {
+                count += section.getNonAirCount();
+            }
+        }
+        return count;
+    }
+
+    public long estimateMemoryBytes() {
+        long bytes = 16 + 3 * 4 + 16 + 4L * SECTION_COUNT;
+        for (ChunkSection section : sections) {
+            if (section != null) {
+                bytes += section.estimateMemoryBytes();
+            }
+        }
+        if (skyLight != null) {
+            for (int sy = 0; sy < SECTION_COUNT; sy++) {
+                bytes += skyLight[sy].estimateMemoryBytes() + blockLight[sy].estimateMemoryBytes();
+            }
+        }
+        return bytes;
+    }
+}
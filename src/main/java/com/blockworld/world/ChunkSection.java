@@ -0,0 +1,559 @@
+package com.blockworld.world;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 16x16x16 blokluk dünya bölümü.
+ *
+ * Bloklar küçük bir palet ve bit-paketli indekslerle tutulur. Bölümde tek bir
+ * blok tipi varsa (tamamen hava, tamamen taş vb.) indeks dizisi hiç ayrılmaz.
+ *
+ * Bölüm 4x4x4 bloklu 64 tuğlaya ayrılır; {@link #getBrickMask()} hava
+ * olmayan tuğlaların bit maskesidir (ışın izleme boş tuğlaları atlar).
+ * Maske her değişiklikte tuğla sayaçlarıyla güncel tutulur.
+ */
+public class ChunkSection {
+
+    public static final int SIZE = 16;
+    public static final int VOLUME = SIZE * SIZE * SIZE;
+
+    // Tuğla: bölüm içinde 4x4x4 bloklu hizalı küp (bölüm başına 64 tane)
+    public static final int BRICK_SIZE = 4;
+    public static final int BRICK_VOLUME = BRICK_SIZE * BRICK_SIZE * BRICK_SIZE;
+    private static final int BRICK_COUNT = VOLUME / BRICK_VOLUME;
+
+    // Hava her zaman 0 id'sine sahiptir
+    public static final int AIR = Block.AIR_ID;
+
+    // Palet: palet girdisi -> blok id
+    private int[] palette;
+    // Her palet girdisinin kaç vokselde kullanıldığı (0 ise girdi boştadır)
+    private int[] paletteCounts;
+    private int paletteSize;
+
+    // İndeks başına bit sayısı (0 = tek tip bölüm, 1/2/4/8/16 aksi halde)
+    private int bits;
+    // Bir long içindeki girdi sayısının log2 değeri
+    private int entriesShift;
+    private long[] data;
+
+    private int nonAirCount;
+
+    // Bit i: i. tuğlada hava olmayan blok var
+    private long brickMask;
+    // Tuğla başına hava olmayan blok sayısı (yalnızca tek tip değilken)
+    private byte[] brickCounts;
+
+    /**
+     * Tamamen hava olan bir bölüm oluşturur.
+     */
+    public ChunkSection() {
+        this(AIR);
+    }
+
+    /**
+     * Tamamen verilen bloktan oluşan bir bölüm oluşturur.
+     */
+    public ChunkSection(int id) {
+        fill(id);
+    }
+
+    /**
+     * Yerel koordinatları (0-15) bölüm içi indekse çevirir.
+     */
+    public static int index(int x, int y, int z) {
+        return (y << 8) | (z << 4) | x;
+    }
+
+    /**
+     * Yerel koordinatları (0-15) tuğla indeksine (0-63, {@link #getBrickMask}
+     * biti) çevirir.
+     */
+    public static int brickIndex(int x, int y, int z) {
+        return ((y >> 2) << 4) | ((z >> 2) << 2) | (x >> 2);
+    }
+
+    // Bölüm içi indeksten tuğla indeksi
+    private static int brickOf(int index) {
+        return ((index >> 10) << 4) | (((index >> 6) & 3) << 2) | ((index >> 2) & 3);
+    }
+
+    public int get(int x, int y, int z) {
+        return get(index(x, y, z));
+    }
+
+    public int get(int index) {
+        if (data == null) {
+            return palette[0];
+        }
+        return palette[readSlot(index)];
+    }
+
+    public int set(int x, int y, int z, int id) {
+        return set(index(x, y, z), id);
+    }
+
+    /**
+     * Bir vokseli değiştirir ve eski blok id'sini döndürür.
+     */
+    public int set(int index, int id) {
+        int oldSlot = data == null ? 0 : readSlot(index);
+        int oldId = palette[oldSlot];
+        if (oldId == id) {
+            return oldId;
+        }
+
+        int newSlot = slotFor(id);
+        // Palet büyüdüyse eski slot yeniden paketlemeden sonra da aynıdır
+        writeSlot(index, newSlot);
+
+        paletteCounts[oldSlot]--;
+        paletteCounts[newSlot]++;
+
+        if (oldId == AIR) {
+            nonAirCount++;
+            countBrick(index, 1);
+        } else if (id == AIR) {
+            nonAirCount--;
+            countBrick(index, -1);
+        }
+
+        // Bölüm tek tipe düştüyse indeks dizisini bırak
+        if (paletteCounts[newSlot] == VOLUME) {
+            fill(id);
+        }
+        return oldId;
+    }
+
+    /**
+     * Bölümün tamamını tek bir blok ile doldurur (tek tip hızlı yol).
+     */
+    public void fill(int id) {
+        palette = new int[] { id };
+        paletteCounts = new int[] { VOLUME };
+        paletteSize = 1;
+        bits = 0;
+        entriesShift = 0;
+        data = null;
+        nonAirCount = id == AIR ? 0 : VOLUME;
+        brickMask = id == AIR ? 0 : -1L;
+        brickCounts = null;
+    }
+
+    private void countBrick(int index, int delta) {
+        if (brickCounts == null) {
+            // Tek tip bölümden çıkılıyor: tüm tuğlalar ya dolu ya boş
+            brickCounts = new byte[BRICK_COUNT];
+            if (brickMask != 0) {
+                Arrays.fill(brickCounts, (byte) BRICK_VOLUME);
+            }
+        }
+        int brick = brickOf(index);
+        int count = brickCounts[brick] += delta;
+        if (count == 0) {
+            brickMask &= ~(1L << brick);
+        } else {
+            brickMask |= 1L << brick;
+        }
+    }
+
+    private void setBrickCounts(byte[] counts) {
+        brickCounts = counts;
+        brickMask = 0;
+        for (int i = 0; i < BRICK_COUNT; i++) {
+            if (counts[i] != 0) {
+                brickMask |= 1L << i;
+            }
+        }
+    }
+
+    private int readSlot(int index) {
+        long word = data[index >>> entriesShift];
+        int shift = (index & ((1 << entriesShift) - 1)) * bits;
+        return (int) ((word >>> shift) & ((1L << bits) - 1));
+    }
+
+    private void writeSlot(int index, int slot) {
+        int wordIndex = index >>> entriesShift;
+        int shift = (index & ((1 << entriesShift) - 1)) * bits;
+        long mask = ((1L << bits) - 1) << shift;
+        data[wordIndex] = (data[wordIndex] & ~mask) | (((long) slot << shift) & mask);
+    }
+
+    /**
+     * Blok id'si için palet girdisini bulur, yoksa ekler (gerekirse indeksleri
+     * genişletir).
+     */
+    private int slotFor(int id) {
+        int free = -1;
+        for (int i = 0; i < paletteSize; i++) {
+            if (palette[i] == id && paletteCounts[i] > 0) {
+                return i;
+            }
+            if (free < 0 && paletteCounts[i] == 0) {
+                free = i;
+            }
+        }
+
+        if (free >= 0) {
+            palette[free] = id;
+            return free;
+        }
+
+        if (paletteSize >= (1 << bits)) {
+            grow();
+        }
+        if (paletteSize == palette.length) {
+            int newLength = palette.length * 2;
+            palette = Arrays.copyOf(palette, newLength);
+            paletteCounts = Arrays.copyOf(paletteCounts, newLength);
+        }
+        palette[paletteSize] = id;
+        paletteCounts[paletteSize] = 0;
+        return paletteSize++;
+    }
+
+    /**
+     * İndeks başına bit sayısını ikiye katlar ve veriyi yeniden paketler.
+     */
+    private void grow() {
+        int newBits = bits == 0 ? 1 : bits * 2;
+        int newShift = 6 - Integer.numberOfTrailingZeros(newBits);
+        long[] newData = new long[VOLUME >>> newShift];
+
+        if (data != null) {
+            for (int i = 0; i < VOLUME; i++) {
+                long slot = readSlot(i);
+                int shift = (i & ((1 << newShift) - 1)) * newBits;
+                newData[i >>> newShift] |= slot << shift;
+            }
+        }
+        // Tek tip bölümde tüm indeksler 0'dır, yeni dizi zaten sıfır
+
+        bits = newBits;
+        entriesShift = newShift;
+        data = newData;
+    }
+
+    /**
+     * Bölüm içi indeks sırasıyla verilmiş blok id'lerinden (copyIds ile aynı
+     * düzen) tek geçişte yeni bir bölüm oluşturur.
+     */
+    public static ChunkSection fromIds(short[] ids) {
+        ChunkSection section = new ChunkSection();
+        int[] palette = new int[16];
+        int[] counts = new int[16];
+        int paletteSize = 0;
+        short[] slots = new short[VOLUME];
+        byte[] bricks = new byte[BRICK_COUNT];
+        int lastId = -1;
+        int lastSlot = 0;
+        for (int i = 0; i < VOLUME; i++) {
+            int id = ids[i] & 0xFFFF;
+            if (id != lastId) {
+                lastSlot = -1;
+                for (int p = 0; p < paletteSize; p++) {
+                    if (palette[p] == id) {
+                        lastSlot = p;
+                        break;
+                    }
+                }
+                if (lastSlot < 0) {
+                    if (paletteSize == palette.length) {
+                        palette = Arrays.copyOf(palette, paletteSize * 2);
+                        counts = Arrays.copyOf(counts, paletteSize * 2);
+                    }
+                    palette[paletteSize] = id;
+                    lastSlot = paletteSize++;
+                }
+                lastId = id;
+            }
+            slots[i] = (short) lastSlot;
+            counts[lastSlot]++;
+            if (id != AIR) {
+                bricks[brickOf(i)]++;
+            }
+        }
+
+        if (paletteSize == 1) {
+            section.fill(palette[0]);
+            return section;
+        }
+
+        int bits = 1;
+        while ((1 << bits) < paletteSize) {
+            bits *= 2;
+        }
+        int shift = 6 - Integer.numberOfTrailingZeros(bits);
+        int perWord = 1 << shift;
+        long[] data = new long[VOLUME >>> shift];
+        for (int w = 0, i = 0; w < data.length; w++) {
+            long word = 0;
+            for (int k = 0; k < perWord; k++) {
+                word |= (slots[i++] & 0xFFFFL) << (k * bits);
+            }
+            data[w] = word;
+        }
+
+        section.palette = palette;
+        section.paletteCounts = counts;
+        section.paletteSize = paletteSize;
+        section.bits = bits;
+        section.entriesShift = shift;
+        section.data = data;
+        section.setBrickCounts(bricks);
+        section.nonAirCount = 0;
+        for (int p = 0; p < paletteSize; p++) {
+            if (palette[p] != AIR) {
+                section.nonAirCount += counts[p];
+            }
+        }
+        return section;
+    }
+
+    /**
+     * Bölümün bağımsız bir kopyasını döndürür.
+     */
+    public ChunkSection copy() {
+        ChunkSection copy = new ChunkSection();
+        copy.palette = palette.clone();
+        copy.paletteCounts = paletteCounts.clone();
+        copy.paletteSize = paletteSize;
+        copy.bits = bits;
+        copy.entriesShift = entriesShift;
+        copy.data = data != null ? data.clone() : null;
+        copy.nonAirCount = nonAirCount;
+        copy.brickMask = brickMask;
+        copy.brickCounts = brickCounts != null ? brickCounts.clone() : null;
+        return copy;
+    }
+
+    /**
+     * Tüm vokselleri bölüm içi indeks sırasıyla (x en hızlı) blok id'lerine
+     * açar. Paketli veri kelime kelime okunur.
+     */
+    public void copyIds(short[] out) {
+        if (data == null) {
+            Arrays.fill(out, 0, VOLUME, (short) palette[0]);
+            return;
+        }
+        int perWord = 1 << entriesShift;
+        long mask = (1L << bits) - 1;
+        int index = 0;
+        for (long word : data) {
+            for (int i = 0; i < perWord; i++) {
+                out[index++] = (short) palette[(int) (word & mask)];
+                word >>>= bits;
+            }
+        }
+    }
+
+    /**
+     * Bölümdeki blok tiplerinin voksel sayılarını histograma ekler
+     * (histogram[id]). Palet sayaçlarından okunur, vokseller gezilmez.
+     *
+     * @throws IllegalStateException histogramın dışında kalan bir id varsa
+     */
+    public void addTypeCounts(long[] histogram) {
+        for (int i = 0; i < paletteSize; i++) {
+            if (paletteCounts[i] > 0) {
+                addCount(histogram, palette[i], paletteCounts[i]);
+            }
+        }
+    }
+
+    /**
+     * Yerel kutudaki (uçlar dahil) blok tiplerinin voksel sayılarını
+     * histograma ekler.
+     *
+     * @throws IllegalStateException histogramın dışında kalan bir id varsa
+     */
+    public void addTypeCounts(long[] histogram, int x0, int y0, int z0, int x1, int y1, int z1) {
+        if (data == null) {
+            addCount(histogram, palette[0], (long) (x1 - x0 + 1) * (y1 - y0 + 1) * (z1 - z0 + 1));
+            return;
+        }
+        int[] slotCounts = countSlots(x0, y0, z0, x1, y1, z1);
+        for (int i = 0; i < paletteSize; i++) {
+            if (slotCounts[i] > 0) {
+                addCount(histogram, palette[i], slotCounts[i]);
+            }
+        }
+    }
+
+    private static void addCount(long[] histogram, int id, long count) {
+        if (id >= histogram.length) {
+            throw new IllegalStateException("Histogram dışında blok id'si: " + id + " (en fazla "
+                    + (histogram.length - 1) + ")");
+        }
+        histogram[id] += count;
+    }
+
+    /**
+     * Yerel kutudaki (uçlar dahil) hava olmayan voksel sayısı.
+     */
+    public int countNonAir(int x0, int y0, int z0, int x1, int y1, int z1) {
+        if (data == null) {
+            return palette[0] == AIR ? 0 : (x1 - x0 + 1) * (y1 - y0 + 1) * (z1 - z0 + 1);
+        }
+        int[] slotCounts = countSlots(x0, y0, z0, x1, y1, z1);
+        int count = 0;
+        for (int i = 0; i < paletteSize; i++) {
+            if (palette[i] != AIR) {
+                count += slotCounts[i];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Yerel kutudaki vokselleri palet girdisine göre sayar. Her satır paketli
+     * veride ardışık olduğundan kelime ve kaydırma satır başına bir kez
+     * hesaplanır.
+     */
+    private int[] countSlots(int x0, int y0, int z0, int x1, int y1, int z1) {
+        int[] slotCounts = new int[paletteSize];
+        long mask = (1L << bits) - 1;
+        int length = x1 - x0 + 1;
+        for (int y = y0; y <= y1; y++) {
+            for (int z = z0; z <= z1; z++) {
+                int index = index(x0, y, z);
+                int wordIndex = index >>> entriesShift;
+                int shift = (index & ((1 << entriesShift) - 1)) * bits;
+                long word = data[wordIndex] >>> shift;
+                for (int i = 0; i < length; i++) {
+                    if (shift == 64) {
+                        word = data[++wordIndex];
+                        shift = 0;
+                    }
+                    slotCounts[(int) (word & mask)]++;
+                    word >>>= bits;
+                    shift += bits;
+                }
+            }
+        }
+        return slotCounts;
+    }
+
+    /**
+     * Bölümü ham haliyle (palet + paketli indeksler) yazar.
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putShort((short) paletteSize);
+        for (int i = 0; i < paletteSize; i++) {
+            buffer.putShort((short) palette[i]);
+        }
+        buffer.put((byte) bits);
+        if (data != null) {
+            for (long word : data) {
+                buffer.putLong(word);
+            }
+        }
+    }
+
+    /**
+     * writeTo ile yazılmış bir bölümü okur; palet sayaçları yeniden hesaplanır.
+     */
+    public static ChunkSection readFrom(ByteBuffer buffer) {
+        ChunkSection section = new ChunkSection();
+        int size = buffer.getShort() & 0xFFFF;
+        int[] palette = new int[Math.max(1, size)];
+        for (int i = 0; i < size; i++) {
+            palette[i] = buffer.getShort() & 0xFFFF;
+        }
+        int bits = buffer.get();
+        if (bits == 0) {
+            section.fill(palette[0]);
+            return section;
+        }
+
+        section.palette = palette;
+        section.paletteCounts = new int[palette.length];
+        section.paletteSize = size;
+        section.bits = bits;
+        section.entriesShift = 6 - Integer.numberOfTrailingZeros(bits);
+        section.data = new long[VOLUME >>> section.entriesShift];
+        buffer.asLongBuffer().get(section.data);
+        buffer.position(buffer.position() + section.data.length * 8);
+
+        section.nonAirCount = 0;
+        byte[] bricks = new byte[BRICK_COUNT];
+        for (int i = 0; i < VOLUME; i++) {
+            int slot = section.readSlot(i);
+            section.paletteCounts[slot]++;
+            if (palette[slot] != AIR) {
+                section.nonAirCount++;
+                bricks[brickOf(i)]++;
+            }
+        }
+        section.setBrickCounts(bricks);
+        return section;
+    }
+
+    /**
+     * writeTo'nun yazacağı bayt sayısı.
+     */
+    public int serializedSize() {
+        return 2 + 2 * paletteSize + 1 + (data != null ? 8 * data.length : 0);
+    }
+
+    public boolean isEmpty() {
+        return nonAirCount == 0;
+    }
+
+    /**
+     * Bölümde işaretli id'lerden (ids[id] true) en az biri var mı? Yalnızca
+     * palete bakar.
+     */
+    public boolean containsAny(boolean[] ids) {
+        for (int i = 0; i < paletteSize; i++) {
+            int id = palette[i];
+            if (paletteCounts[i] > 0 && id < ids.length && ids[id]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isUniform() {
+        return data == null;
+    }
+
+    /**
+     * Hava olmayan tuğlaların maskesi (bit {@link #brickIndex}; 0 ise bölüm
+     * boş, -1 ise her tuğlada en az bir blok var).
+     */
+    public long getBrickMask() {
+        return brickMask;
+    }
+
+    public int getNonAirCount() {
+        return nonAirCount;
+    }
+
+    public int getBitsPerEntry() {
+        return bits;
+    }
+
+    public int getPaletteSize() {
+        return paletteSize;
+    }
+
+    /**
+     * Bu bölümün yığında kapladığı yaklaşık bayt miktarı (64-bit, sıkıştırılmış
+     * referanslar).
+     */
+    public long estimateMemoryBytes() {
+        long bytes = 16 + 4 * 4 + 8 + 4 * 4; // Nesne başlığı + alanlar
+        bytes += 16 + 4L * palette.length;
+        bytes += 16 + 4L * paletteCounts.length;
+        if (data != null) {
+            bytes += 16 + 8L * data.length;
+        }
+        if (brickCounts != null) {
+            bytes += 16 + BRICK_COUNT;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,362 @@
+package com.blockworld.world;
+
+import com.blockworld.storage.RegionStorage;
+import com.blockworld.util.LongObjectMap;
+import com.blockworld.world.gen.ChunkGenerator;
+import org.joml.Vector3f;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kameranın etrafındaki chunk'ları yükler ve uzaktakileri boşaltır.
+ *
+ * Üretim bir ForkJoinPool üzerinde chunk başına paralel yapılır; tamamlanan
+ * chunk'lar oyun döngüsünde, tick başına sınırlı sayıda dünyaya eklenir.
+ * Böylece kamera hareket ederken hiçbir kare üretimi beklemez.
+ *
+ * Depo varsa chunk'lar önce diskten okunur, kayıtlı değilse üretilir.
+ * Boşaltılan değiştirilmiş chunk'lar arka planda diske yazılır.
+ */
+public class ChunkStreamer {
+
+    // Varsayılan yarıçaplar (chunk cinsinden)
+    private static final int DEFAULT_VIEW_RADIUS = 6;
+    private static final int DEFAULT_UNLOAD_RADIUS = 8;
+
+    // Tick başına dünyaya eklenecek en fazla chunk
+    private static final int DEFAULT_INTEGRATE_BUDGET = 4;
+    // Tick başına kuyruğa atılacak en fazla üretim işi
+    private static final int SUBMIT_BUDGET = 16;
+
+    private final World world;
+    private final ChunkGenerator generator;
+    private final RegionStorage storage;
+    private final ForkJoinPool pool;
+
+    // Düzenleme günlüğü (varsa disk erişimleri onun işleri bitene kadar bekler)
+    private WorldJournal journal;
+
+    // Arka planda üretilip dünyaya eklenmeyi bekleyen chunk'lar
+    private final ConcurrentLinkedQueue<Chunk> completed;
+    // Üretimi süren chunk'lar (yalnızca oyun döngüsü iş parçacığı erişir)
+    private final LongObjectMap<Boolean> pending;
+    // Boşaltılmış, değiştirilmiş ve diske yazılmayı bekleyen chunk'lar (kayıt
+    // yoksa kalıcı olarak burada tutulur)
+    private final Map<Long, Chunk> parked;
+    // Şu anda diske yazılan chunk'lar (yazma bitene kadar yeniden yüklenmez)
+    private final Map<Long, Chunk> saving;
+
+    private int viewRadius;
+    private int unloadRadius;
+    private int integrateBudget;
+
+    private int centerX = Integer.MIN_VALUE;
+    private int centerZ = Integer.MIN_VALUE;
+    // Görüş alanındaki tüm chunk'lar yüklendi mi (gereksiz taramayı önler)
+    private boolean fullyLoaded;
+
+    public ChunkStreamer(World world, ChunkGenerator generator, RegionStorage storage) {
+        this(world, generator, storage, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    public ChunkStreamer(World world, ChunkGenerator generator, RegionStorage storage, int threadCount) {
+        this.world = world;
+        this.generator = generator;
+        this.storage = storage;
+        this.pool = new ForkJoinPool(threadCount, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("ChunkWorker-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, true);
+        this.completed = new ConcurrentLinkedQueue<>();
+        this.pending = new LongObjectMap<>();
+        this.parked = new ConcurrentHashMap<>();
+        this.saving = new ConcurrentHashMap<>();
+        this.viewRadius = DEFAULT_VIEW_RADIUS;
+        this.unloadRadius = DEFAULT_UNLOAD_RADIUS;
+        this.integrateBudget = DEFAULT_INTEGRATE_BUDGET;
+    }
+
+    /**
+     * Başlangıç alanını bekleyerek (senkron) yükler.
+     */
+    public void preload(int chunkX, int chunkZ, int radius) {
+        List<ForkJoinTask<Chunk>> tasks = new ArrayList<>();
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dz = -radius; dz <= radius; dz++) {
+                Chunk existing = world.getChunkAt(chunkX + dx, chunkZ + dz);
+                if (existing == null || !existing.isPopulated()) {
+                    int x = chunkX + dx;
+                    int z = chunkZ + dz;
+                    tasks.add(pool.submit(() -> loadOrGenerate(x, z)));
+                }
+            }
+        }
+        for (ForkJoinTask<Chunk> task : tasks) {
+            integrate(task.join());
+        }
+    }
+
+    /**
+     * Her tick çağrılır: biten chunk'ları ekler, uzaktakileri boşaltır ve
+     * eksikleri ister.
+     */
+    public void update(Vector3f cameraPos) {
+        int camChunkX = (int) Math.floor(cameraPos.x) >> 4;
+        int camChunkZ = (int) Math.floor(cameraPos.z) >> 4;
+
+        integrateCompleted();
+
+        if (camChunkX != centerX || camChunkZ != centerZ) {
+            centerX = camChunkX;
+            centerZ = camChunkZ;
+            fullyLoaded = false;
+            unloadFarChunks();
+        }
+
+        if (!fullyLoaded) {
+            requestMissingChunks();
+        }
+    }
+
+    private void integrateCompleted() {
+        for (int i = 0; i < integrateBudget; i++) {
+            Chunk chunk = completed.poll();
+            if (chunk == null) {
+                return;
+            }
+            pending.remove(World.chunkKey(chunk.getChunkX(), chunk.getChunkZ()));
+
+            // Üretim sürerken kamera uzaklaştıysa at
+            if (distance(chunk.getChunkX(), chunk.getChunkZ()) > unloadRadius) {
+                continue;
+            }
+            integrate(chunk);
+        }
+    }
+
+    private void integrate(Chunk chunk) {
+        // Üretim sürerken bu chunk'a blok koyulduysa düzenlemeleri koru
+        Chunk existing = world.getChunkAt(chunk.getChunkX(), chunk.getChunkZ());
+        if (existing != null) {
+            if (existing.isPopulated()) {
+                return;
+            }
+            chunk.copyBlocksFrom(existing);
+            chunk.setModified(true);
+        }
+        world.putChunk(chunk);
+    }
+
+    /**
+     * Görüş yarıçapındaki eksik chunk'ları yakından uzağa doğru ister.
+     */
+    private void requestMissingChunks() {
+        int submitted = 0;
+        boolean waiting = false;
+        for (int ring = 0; ring <= viewRadius; ring++) {
+            for (int dx = -ring; dx <= ring; dx++) {
+                for (int dz = -ring; dz <= ring; dz++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dz)) != ring) {
+                        continue; // Yalnızca halkanın kenarı
+                    }
+                    int chunkX = centerX + dx;
+                    int chunkZ = centerZ + dz;
+                    Chunk existing = world.getChunkAt(chunkX, chunkZ);
+                    if (existing != null && existing.isPopulated()) {
+                        continue;
+                    }
+                    long key = World.chunkKey(chunkX, chunkZ);
+                    if (pending.containsKey(key)) {
+                        continue;
+                    }
+
+                    if (submitted >= SUBMIT_BUDGET) {
+                        return; // Bütçe doldu, sonraki tick devam et
+                    }
+
+                    // Önce park listesine bak, sonra yazma durumuna (sıra önemli:
+                    // kaydedici chunk'ı park listesinden almadan önce yazılıyor
+                    // olarak işaretler)
+                    Chunk parkedChunk = parked.remove(key);
+                    if (parkedChunk != null) {
+                        integrate(parkedChunk);
+                    } else if (saving.containsKey(key)) {
+                        waiting = true; // Yazma bitince diskten yüklenecek
+                        continue;
+                    } else {
+                        pending.put(key, Boolean.TRUE);
+                        pool.execute(() -> completed.add(loadOrGenerate(chunkX, chunkZ)));
+                    }
+                    submitted++;
+                }
+            }
+        }
+
+        if (pending.isEmpty() && !waiting) {
+            fullyLoaded = true;
+        }
+    }
+
+    private void unloadFarChunks() {
+        List<Chunk> loaded = world.getLoadedChunks();
+        for (Chunk chunk : loaded) {
+            if (distance(chunk.getChunkX(), chunk.getChunkZ()) > unloadRadius) {
+                world.removeChunk(chunk.getChunkX(), chunk.getChunkZ());
+                if (chunk.isModified()) {
+                    // Kayıt yoksa chunk bellekte kalır, geri dönülünce yeniden eklenir
+                    long key = World.chunkKey(chunk.getChunkX(), chunk.getChunkZ());
+                    parked.put(key, chunk);
+                    if (storage != null) {
+                        pool.execute(() -> saveParked(key, chunk));
+                    }
+                }
+            }
+        }
+    }
+
+    private int distance(int chunkX, int chunkZ) {
+        return Math.max(Math.abs(chunkX - centerX), Math.abs(chunkZ - centerZ));
+    }
+
+    /**
+     * Chunk'ı diskten yükler, kayıtlı değilse üretir. Herhangi bir iş
+     * parçacığında çağrılabilir; yalnızca yeni chunk'a yazar.
+     */
+    private Chunk loadOrGenerate(int chunkX, int chunkZ) {
+        Chunk loaded = null;
+        if (storage != null) {
+            awaitJournal();
+            try {
+                loaded = storage.loadChunk(chunkX, chunkZ);
+                if (loaded != null && loaded.isPopulated()) {
+                    return loaded;
+                }
+            } catch (IOException e) {
+                System.err.println("Chunk yüklenemedi (" + chunkX + ", " + chunkZ + "): " + e.getMessage());
+            }
+        }
+
+        Chunk chunk = new Chunk(chunkX, chunkZ);
+        generator.generate(chunk);
+        chunk.setPopulated(true);
+        if (loaded != null) {
+            // Arazisi üretilmeden kaydedilmiş düzenlemeler
+            chunk.copyBlocksFrom(loaded);
+            chunk.setModified(true);
+        }
+        return chunk;
+    }
+
+    private void awaitJournal() {
+        if (journal != null) {
+            journal.awaitDiskIdle();
+        }
+    }
+
+    /**
+     * Boşaltılan chunk'ı diske yazar. Chunk yazma için park listesinden
+     * alınır; bu sırada dünyada olmadığı için kimse onu değiştirmez ve yazma
+     * bitene kadar yeniden yüklenmez.
+     */
+    private void saveParked(long key, Chunk chunk) {
+        saving.put(key, chunk);
+        if (!parked.remove(key, chunk)) {
+            // Yazılmadan önce dünyaya geri alındı
+            saving.remove(key);
+            return;
+        }
+        try {
+            // Günlük sıkıştırmasının eski görüntüsü bu yazmayı ezmemeli
+            awaitJournal();
+            storage.saveChunk(chunk);
+        } catch (IOException e) {
+            // Bellekte kalır, kapanışta yeniden denenir
+            parked.put(key, chunk);
+            System.err.println("Chunk kaydedilemedi (" + chunk.getChunkX() + ", " + chunk.getChunkZ() + "): "
+                    + e.getMessage());
+        } finally {
+            saving.remove(key);
+        }
+    }
+
+    /**
+     * Henüz diske yazılamamış boşaltılmış chunk'lar.
+     */
+    public List<Chunk> getParkedChunks() {
+        return new ArrayList<>(parked.values());
+    }
+
+    /**
+     * Boşaltılmış ve diske yazılması henüz bitmemiş (bekleyen veya yazılan)
+     * chunk'lar.
+     */
+    public List<Chunk> getUnsavedChunks() {
+        List<Chunk> unsaved = new ArrayList<>(parked.values());
+        for (Chunk chunk : saving.values()) {
+            if (!unsaved.contains(chunk)) {
+                unsaved.add(chunk);
+            }
+        }
+        return unsaved;
+    }
+
+    void setJournal(WorldJournal journal) {
+        this.journal = journal;
+    }
+
+    public int getViewRadius() {
+        return viewRadius;
+    }
+
+    public void setViewRadius(int viewRadius) {
+        this.viewRadius = viewRadius;
+        this.unloadRadius = Math.max(unloadRadius, viewRadius + 1);
+        this.fullyLoaded = false;
+    }
+
+    public int getUnloadRadius() {
+        return unloadRadius;
+    }
+
+    public void setUnloadRadius(int unloadRadius) {
+        this.unloadRadius = Math.max(unloadRadius, viewRadius + 1);
+    }
+
+    public void setIntegrateBudget(int integrateBudget) {
+        this.integrateBudget = Math.max(1, integrateBudget);
+    }
+
+    public ChunkGenerator getGenerator() {
+        return generator;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Yeni iş kabul etmeyi bırakır ve süren kayıtların bitmesini bekler.
+     */
+    public void shutdown() {
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.blockworld.world;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Chunk koordinatına göre kilitsiz chunk tablosu: tek yazar, çok okuyucu.
+ *
+ * Açık adreslemeli (doğrusal yoklamalı) tablo; anahtar chunk'ın kendi
+ * koordinatlarıdır, bu yüzden yuva tek bir referanstır ve atomik yazılır.
+ * Silinen yuvalara mezar taşı konur (zincir geri kaydırılmaz, okuyucu
+ * zinciri kaçırmaz). Büyütme yeni bir dizi kurup volatile alanla yayınlar;
+ * eski diziyi okuyan iş parçacıkları tutarlı eski görüntüyü görür.
+ *
+ * put/remove/clear yalnızca yazar (oyun döngüsü) iş parçacığından
+ * çağrılmalıdır; get ve gezinme her iş parçacığından güvenlidir.
+ */
+class ChunkTable {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    // Silinmiş yuva işareti (hiçbir koordinatla eşleşmez, kimlikle ayırt edilir)
+    private static final Chunk TOMBSTONE = new Chunk(Integer.MIN_VALUE, Integer.MIN_VALUE);
+
+    private volatile AtomicReferenceArray<Chunk> table;
+    private volatile int size;
+    // Dolu + mezar taşı yuvaları (yalnızca yazar)
+    private int used;
+
+    ChunkTable() {
+        this.table = new AtomicReferenceArray<>(64);
+    }
+
+    private static int hash(int chunkX, int chunkZ) {
+        long key = World.chunkKey(chunkX, chunkZ);
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    Chunk get(int chunkX, int chunkZ) {
+        AtomicReferenceArray<Chunk> t = table;
+        int mask = t.length() - 1;
+        int slot = hash(chunkX, chunkZ) & mask;
+        Chunk chunk;
+        while ((chunk = t.get(slot)) != null) {
+            if (chunk != TOMBSTONE && chunk.getChunkX() == chunkX && chunk.getChunkZ() == chunkZ) {
+                return chunk;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Chunk'ı ekler veya aynı koordinattakinin yerine koyar; öncekini döndürür.
+     */
+    Chunk put(Chunk chunk) {
+        AtomicReferenceArray<Chunk> t = table;
+        int mask = t.length() - 1;
+        int slot = hash(chunk.getChunkX(), chunk.getChunkZ()) & mask;
+        int free = -1;
+        Chunk current;
+        while ((current = t.get(slot)) != null) {
+            if (current == TOMBSTONE) {
+                if (free < 0) {
+                    free = slot;
+                }
+            } else if (current.getChunkX() == chunk.getChunkX() && current.getChunkZ() == chunk.getChunkZ()) {
+                t.set(slot, chunk);
+                return current;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (free >= 0) {
+            t.set(free, chunk); // Mezar taşını yeniden kullan
+        } else {
+            t.set(slot, chunk);
+            used++;
+        }
+        size++;
+        if (used > t.length() * LOAD_FACTOR) {
+            rebuild(size * 2 > t.length() * LOAD_FACTOR ? t.length() << 1 : t.length());
+        }
+        return null;
+    }
+
+    Chunk remove(int chunkX, int chunkZ) {
+        AtomicReferenceArray<Chunk> t = table;
+        int mask = t.length() - 1;
+        int slot = hash(chunkX, chunkZ) & mask;
+        Chunk current;
+        while ((current = t.get(slot)) != null) {
+            if (current != TOMBSTONE && current.getChunkX() == chunkX && current.getChunkZ() == chunkZ) {
+                t.set(slot, TOMBSTONE);
+                size--;
+                return current;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Canlı chunk'ları yeni bir diziye yerleştirip yayınlar (mezar taşları
+     * temizlenir).
+     */
+    private void rebuild(int capacity) {
+        AtomicReferenceArray<Chunk> old = table;
+        AtomicReferenceArray<Chunk> fresh = new AtomicReferenceArray<>(capacity);
+        int mask = capacity - 1;
+        int count = 0;
+        for (int i = 0; i < old.length(); i++) {
+            Chunk chunk = old.get(i);
+            if (chunk != null && chunk != TOMBSTONE) {
+                int slot = hash(chunk.getChunkX(), chunk.getChunkZ()) & mask;
+                while (fresh.get(slot) != null) {
+                    slot = (slot + 1) & mask;
+                }
+                fresh.set(slot, chunk);
+                count++;
+            }
+        }
+        used = count;
+        table = fresh;
+    }
+
+    void clear() {
+        table = new AtomicReferenceArray<>(64);
+        size = 0;
+        used = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gezinme için tablonun o anki görüntüsü: valueAt(view, i) null değilse
+     * yuva doludur. Görüntü sonraki büyütmelerden etkilenmez.
+     */
+    AtomicReferenceArray<Chunk> view() {
+        return table;
+    }
+
+    static Chunk valueAt(AtomicReferenceArray<Chunk> view, int slot) {
+        Chunk chunk = view.get(slot);
+        return chunk != TOMBSTONE ? chunk : null;
+    }
+
+    /**
+     * Chunk'ların bir kopyasını döndürür.
+     */
+    List<Chunk> values() {
+        AtomicReferenceArray<Chunk> t = table;
+        List<Chunk> list = new ArrayList<>(size);
+        for (int i = 0; i < t.length(); i++) {
+            Chunk chunk = valueAt(t, i);
+            if (chunk != null) {
+                list.add(chunk);
+            }
+        }
+        return list;
+    }
+}
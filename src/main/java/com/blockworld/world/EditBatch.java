@@ -0,0 +1,84 @@
+package com.blockworld.world;
+
+import java.util.Arrays;
+
+/**
+ * {@link World#applyBatch(EditBatch)} ile tek seferde uygulanacak blok
+ * değişiklikleri.
+ *
+ * Değişiklikler ilkel dizilerde eklenme sırasıyla tutulur; aynı konuma birden
+ * fazla değişiklik eklenirse sonuncusu geçerli olur. Toplu uygulama sırasında
+ * chunk'lara göre gruplanır. Uygulandıktan sonra {@link #clear()} ile yeniden
+ * kullanılabilir.
+ */
+public class EditBatch {
+
+    private int[] xs;
+    private int[] ys;
+    private int[] zs;
+    private short[] ids;
+    private int size;
+
+    public EditBatch() {
+        this(256);
+    }
+
+    public EditBatch(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        this.xs = new int[capacity];
+        this.ys = new int[capacity];
+        this.zs = new int[capacity];
+        this.ids = new short[capacity];
+    }
+
+    public void set(int x, int y, int z, int id) {
+        if (size == xs.length) {
+            int capacity = xs.length * 2;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            zs = Arrays.copyOf(zs, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        zs[size] = z;
+        ids[size] = (short) id;
+        size++;
+    }
+
+    public void set(int x, int y, int z, Block.Type type) {
+        set(x, y, z, type != null ? type.getId() : Block.AIR_ID);
+    }
+
+    public void remove(int x, int y, int z) {
+        set(x, y, z, Block.AIR_ID);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int getX(int i) {
+        return xs[i];
+    }
+
+    public int getY(int i) {
+        return ys[i];
+    }
+
+    public int getZ(int i) {
+        return zs[i];
+    }
+
+    public int getId(int i) {
+        return ids[i] & 0xFFFF;
+    }
+}
@@ -0,0 +1,236 @@
+package com.blockworld.world;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Geri al / yinele geçmişi.
+ *
+ * Her blok değişikliği paketlenmiş bir fark olarak (konum, eski id, yeni id;
+ * 12 bayt) yığın dışı (direct) bir halka tampona yazılır. Tek bir düzenleme
+ * veya bir toplu düzenleme (yapı yerleştirme, doldurma) bir adım oluşturur.
+ * Tampon dolunca en eski adımlar silinir; böylece uzun oturumlarda yığın
+ * büyümez. Geri alma ve yineleme adımın tüm farklarını tek bir
+ * {@link EditBatch} olarak uygular.
+ */
+public class EditHistory {
+
+    // Varsayılan tampon boyutu (~1.4 milyon fark)
+    public static final int DEFAULT_CAPACITY_BYTES = 16 * 1024 * 1024;
+    // Saklanan en fazla adım sayısı
+    private static final int MAX_STEPS = 1024;
+
+    // Konum (long) + eski id << 16 | yeni id (int)
+    private static final int RECORD_SIZE = 8 + 4;
+
+    private final ByteBuffer buffer;
+    private final long capacity;
+
+    // Mutlak kayıt numaraları: tamponda [tail, head) geçerlidir
+    private long tail;
+    private long head;
+
+    // Mutlak adım numaraları: [oldestStep, currentStep) geri alınabilir,
+    // [currentStep, newestStep) yinelenebilir
+    private final long[] stepStart = new long[MAX_STEPS];
+    private final long[] stepEnd = new long[MAX_STEPS];
+    private long oldestStep;
+    private long currentStep;
+    private long newestStep;
+
+    // Kaydı süren adım
+    private int depth;
+    private long pendingStart;
+    private boolean overflowed;
+
+    public EditHistory() {
+        this(DEFAULT_CAPACITY_BYTES);
+    }
+
+    public EditHistory(int capacityBytes) {
+        int records = Math.max(1, capacityBytes / RECORD_SIZE);
+        this.buffer = ByteBuffer.allocateDirect(records * RECORD_SIZE);
+        this.capacity = records;
+    }
+
+    /**
+     * Yeni bir adım başlatır. İç içe çağrılar tek adımda birleşir.
+     */
+    public void begin() {
+        if (depth++ > 0) {
+            return;
+        }
+        // Yeni düzenleme yinelenebilir adımları geçersiz kılar
+        if (currentStep < newestStep) {
+            newestStep = currentStep;
+            head = currentStep > oldestStep ? stepEnd[slot(currentStep - 1)] : tail;
+        }
+        pendingStart = head;
+        overflowed = false;
+    }
+
+    public void record(int x, int y, int z, int oldId, int newId) {
+        if (overflowed) {
+            return;
+        }
+        if (head - tail == capacity && !evictFor(1)) {
+            // Adım tampona sığmıyor: geri alınamaz, bu noktaya kadar temizle
+            overflowed = true;
+            return;
+        }
+        int position = (int) (head % capacity) * RECORD_SIZE;
+        buffer.putLong(position, pack(x, y, z));
+        buffer.putInt(position + 8, (oldId << 16) | (newId & 0xFFFF));
+        head++;
+    }
+
+    /**
+     * Adımı kapatır; hiç değişiklik yoksa adım eklenmez.
+     */
+    public void end() {
+        if (depth == 0 || --depth > 0) {
+            return;
+        }
+        if (overflowed) {
+            System.err.println("Düzenleme geri alma geçmişine sığmadı, geçmiş temizlendi");
+            clear();
+            return;
+        }
+        if (head == pendingStart) {
+            return;
+        }
+        if (newestStep - oldestStep == MAX_STEPS) {
+            dropOldest();
+        }
+        int slot = slot(newestStep);
+        stepStart[slot] = pendingStart;
+        stepEnd[slot] = head;
+        newestStep++;
+        currentStep = newestStep;
+    }
+
+    public boolean canUndo() {
+        return currentStep > oldestStep;
+    }
+
+    public boolean canRedo() {
+        return currentStep < newestStep;
+    }
+
+    /**
+     * Son adımı tek bir toplu düzenleme olarak geri alır. Dünya bu sırada
+     * geçmişe kayıt yapmamalıdır.
+     *
+     * @return geri alınan fark sayısı (adım yoksa -1)
+     */
+    public int undo(World world) {
+        if (!canUndo() || depth > 0) {
+            return -1;
+        }
+        int slot = slot(currentStep - 1);
+        long start = stepStart[slot];
+        long end = stepEnd[slot];
+        EditBatch batch = new EditBatch((int) (end - start));
+        // Tersten: aynı konumun en eski değeri en son yazılır
+        for (long i = end - 1; i >= start; i--) {
+            addToBatch(batch, i, true);
+        }
+        currentStep--;
+        world.applyHistoryBatch(batch);
+        return batch.size();
+    }
+
+    /**
+     * Geri alınan son adımı yeniden uygular.
+     *
+     * @return yinelenen fark sayısı (adım yoksa -1)
+     */
+    public int redo(World world) {
+        if (!canRedo() || depth > 0) {
+            return -1;
+        }
+        int slot = slot(currentStep);
+        long start = stepStart[slot];
+        long end = stepEnd[slot];
+        EditBatch batch = new EditBatch((int) (end - start));
+        for (long i = start; i < end; i++) {
+            addToBatch(batch, i, false);
+        }
+        currentStep++;
+        world.applyHistoryBatch(batch);
+        return batch.size();
+    }
+
+    public void clear() {
+        tail = head;
+        oldestStep = newestStep = currentStep = 0;
+        pendingStart = head;
+    }
+
+    public int getUndoSteps() {
+        return (int) (currentStep - oldestStep);
+    }
+
+    public int getRedoSteps() {
+        return (int) (newestStep - currentStep);
+    }
+
+    /**
+     * Tamponda kullanılan bayt sayısı.
+     */
+    public long getUsedBytes() {
+        return (head - tail) * RECORD_SIZE;
+    }
+
+    public long getCapacityBytes() {
+        return capacity * RECORD_SIZE;
+    }
+
+    private void addToBatch(EditBatch batch, long record, boolean undo) {
+        int position = (int) (record % capacity) * RECORD_SIZE;
+        long packed = buffer.getLong(position);
+        int ids = buffer.getInt(position + 8);
+        batch.set(unpackX(packed), unpackY(packed), unpackZ(packed), undo ? ids >>> 16 : ids & 0xFFFF);
+    }
+
+    /**
+     * Yer açmak için en eski tamamlanmış adımları siler.
+     */
+    private boolean evictFor(long records) {
+        while (head - tail + records > capacity) {
+            if (oldestStep == newestStep) {
+                return false; // Yalnızca süren adım kaldı
+            }
+            dropOldest();
+        }
+        return true;
+    }
+
+    private void dropOldest() {
+        oldestStep++;
+        if (currentStep < oldestStep) {
+            currentStep = oldestStep;
+        }
+        tail = oldestStep < newestStep ? stepStart[slot(oldestStep)] : pendingStart;
+    }
+
+    private static int slot(long step) {
+        return (int) (step % MAX_STEPS);
+    }
+
+    // x ve z için 26'şar bit, y için 12 bit (dünya tabanına göre)
+    private static long pack(int x, int y, int z) {
+        return ((long) x << 38) | ((z & 0x3FFFFFFL) << 12) | ((y - Chunk.MIN_Y) & 0xFFFL);
+    }
+
+    private static int unpackX(long packed) {
+        return (int) (packed >> 38);
+    }
+
+    private static int unpackZ(long packed) {
+        return (int) ((packed << 26) >> 38);
+    }
+
+    private static int unpackY(long packed) {
+        return (int) (packed & 0xFFFL) + Chunk.MIN_Y;
+    }
+}
@@ -0,0 +1,143 @@
+package com.blockworld.world;
+
+/**
+ * Yer çekimi olan blokların (kum) düşmesi.
+ *
+ * Değişiklik veri yolundan gelen her değişen vokselin kendisi ve üstündeki
+ * blok düşebiliyorsa {@link BlockTickScheduler} kuyruğuna eklenir; içinde ve
+ * üstünde kum olmayan bölümler palet kontrolüyle atlanır. Zamanı gelen blok
+ * yalnızca sütunun en altındaysa (altı boşsa) işlenir: üstündeki kesintisiz
+ * kum sütunu bir kerede yere indirilir. Sütunun eski ve yeni yeri arasındaki
+ * fark tick boyunca bir {@link EditBatch}'te toplanır ve tick sonunda tek
+ * toplu düzenleme olarak uygulanır (blok başına sil/ekle çifti yok).
+ *
+ * Bir tick'te taşınan blok sayısı {@link #MAX_BLOCKS_PER_TICK} ile
+ * sınırlıdır; bütçe biterse sütun kısaltılır veya sonraki tick'e ertelenir.
+ * Kalan kısım veri yolundan yeniden zamanlanır, böylece büyük bir kum
+ * yapısının tabanı silindiğinde çöküş birkaç tick'e yayılır.
+ */
+class FallingBlockSimulator implements BlockChangeListener {
+
+    // Desteği kalkan bloğun düşmeden önce beklediği tick
+    static final int FALL_DELAY = 2;
+
+    // Bir tick'te taşınabilecek en fazla blok (sütun uzunlukları toplamı)
+    static final int MAX_BLOCKS_PER_TICK = 8192;
+
+    private final World world;
+    private final EditBatch moves = new EditBatch(1024);
+    // Taşınan sütunun id'leri (alttan üste)
+    private final short[] column = new short[Chunk.HEIGHT];
+    private final BlockChangeSet.PositionVisitor scheduleAround = this::scheduleAround;
+
+    // Bu tick'te kalan taşıma bütçesi
+    private int budget;
+
+    FallingBlockSimulator(World world) {
+        this.world = world;
+    }
+
+    static boolean isFalling(int id) {
+        return BlockRegistry.hasGravity(id);
+    }
+
+    /**
+     * Düşen blok bu hücreye girebilir mi (hava veya sıvı).
+     */
+    private static boolean isPassable(int id) {
+        return id == Block.AIR_ID || FluidSimulator.isFluid(id);
+    }
+
+    @Override
+    public void onBlocksChanged(BlockChangeSet changes) {
+        for (int i = 0; i < changes.size(); i++) {
+            int chunkX = changes.getChunkX(i);
+            int chunkZ = changes.getChunkZ(i);
+            int mask = changes.getChangedSectionMask(i);
+            int nearFalling = 0;
+            while (mask != 0) {
+                int sy = Integer.numberOfTrailingZeros(mask);
+                if (hasFalling(chunkX, sy, chunkZ) || hasFalling(chunkX, sy + 1, chunkZ)) {
+                    nearFalling |= 1 << sy;
+                }
+                mask &= mask - 1;
+            }
+            if (nearFalling != 0) {
+                changes.forEachChanged(i, nearFalling, scheduleAround);
+            }
+        }
+    }
+
+    private boolean hasFalling(int chunkX, int sy, int chunkZ) {
+        if (sy >= Chunk.SECTION_COUNT) {
+            return false;
+        }
+        Chunk chunk = world.getChunkAt(chunkX, chunkZ);
+        ChunkSection section = chunk != null ? chunk.getSection(sy) : null;
+        return section != null && section.containsAny(BlockRegistry.gravityIds());
+    }
+
+    private void scheduleAround(int x, int y, int z) {
+        if (isFalling(world.getBlockId(x, y, z))) {
+            world.scheduleBlockTick(x, y, z, FALL_DELAY);
+        }
+        if (isFalling(world.getBlockId(x, y + 1, z))) {
+            world.scheduleBlockTick(x, y + 1, z, FALL_DELAY);
+        }
+    }
+
+    void beginTick() {
+        budget = MAX_BLOCKS_PER_TICK;
+    }
+
+    /**
+     * Zamanı gelen düşen bloğu işler: sütunun tabanıysa sütunu indirir.
+     */
+    void tick(int x, int y, int z) {
+        if (y <= Chunk.MIN_Y || !isPassable(world.getBlockId(x, y - 1, z))) {
+            return; // Desteği var (veya sütunun ortası: tabanı ayrıca işlenir)
+        }
+        if (budget <= 0) {
+            world.scheduleBlockTick(x, y, z, 1);
+            return;
+        }
+
+        // Kesintisiz sütun (bütçe kadar); fazlası sonra kendi tabanından düşer
+        int length = 0;
+        int id;
+        while (length < budget && y + length <= Chunk.MAX_Y
+                && isFalling(id = world.getBlockId(x, y + length, z))) {
+            column[length++] = (short) id;
+        }
+        int top = y + length - 1;
+
+        // İniş: altındaki en alçak geçilebilir hücre
+        int floor = y - 1;
+        while (floor > Chunk.MIN_Y && isPassable(world.getBlockId(x, floor - 1, z))) {
+            floor--;
+        }
+
+        // Yalnızca fark: yeni yer [floor, floor + length), boşalan [.., top]
+        for (int i = 0; i < length; i++) {
+            int target = floor + i;
+            // Eski sütunla çakışan hücrede aynı blok varsa yazılmaz
+            if (target < y || column[target - y] != column[i]) {
+                moves.set(x, target, z, column[i]);
+            }
+        }
+        for (int clearY = Math.max(floor + length, y); clearY <= top; clearY++) {
+            moves.set(x, clearY, z, Block.AIR_ID);
+        }
+        budget -= length;
+    }
+
+    /**
+     * Tick'in sütun taşımalarını tek toplu düzenleme olarak uygular.
+     */
+    void endTick() {
+        if (!moves.isEmpty()) {
+            world.applySimulatedBatch(moves);
+            moves.clear();
+        }
+    }
+}
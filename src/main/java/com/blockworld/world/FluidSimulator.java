@@ -0,0 +1,178 @@
+package com.blockworld.world;
+
+/**
+ * Su akışı: yalnızca değişikliğin yakınındaki su blokları simüle edilir.
+ *
+ * Değişiklik veri yolundan gelen her değişen vokselin kendisi ve altı komşusu
+ * suysa {@link BlockTickScheduler} kuyruğuna {@link #FLOW_DELAY} tick sonrası
+ * için eklenir. İçinde ve çevresinde su olmayan bölümlerin değişiklikleri
+ * (palet kontrolüyle) atlanır; chunk yükleme hiçbir şey zamanlamaz. Sıvının
+ * kendi yazdığı bloklar da veri yolundan döner, böylece akış adım adım
+ * ilerler ve durulduğunda kuyruk boşalır.
+ *
+ * Kurallar: kaynak (seviye 8) ve akan su (7..1). Akan suyun seviyesi üstünde
+ * su varsa 7, yoksa en yüksek yatay komşusunun bir eksiğidir; desteği
+ * kalmayan su çekilir. İki kaynak arasında, zemini dolu olan akan su kaynağa
+ * dönüşür (havuzlar dolar, yüzey düzleşir). Su önce aşağı akar; aşağısı dolu
+ * ise yanlara bir seviye azalarak yayılır. Yüklü olmayan chunk'lara akmaz.
+ */
+class FluidSimulator implements BlockChangeListener {
+
+    // Akışın bir adım ilerlemesi için beklenen tick (60 UPS'te saniyede 12 adım)
+    static final int FLOW_DELAY = 5;
+
+    private static final int MAX_LEVEL = Block.MAX_FLUID_LEVEL;
+
+    // Seviye -> id (seviyeler kayıt defterinden)
+    private static final int[] IDS_BY_LEVEL = new int[MAX_LEVEL + 1];
+
+    static {
+        for (int id = 1; id < BlockRegistry.size(); id++) {
+            if (BlockRegistry.isFluid(id)) {
+                IDS_BY_LEVEL[BlockRegistry.getFluidLevel(id)] = id;
+            }
+        }
+    }
+
+    private final World world;
+    private final BlockChangeSet.PositionVisitor scheduleAround = this::scheduleAround;
+
+    FluidSimulator(World world) {
+        this.world = world;
+    }
+
+    static boolean isFluid(int id) {
+        return BlockRegistry.isFluid(id);
+    }
+
+    static int levelOf(int id) {
+        return BlockRegistry.getFluidLevel(id);
+    }
+
+    @Override
+    public void onBlocksChanged(BlockChangeSet changes) {
+        for (int i = 0; i < changes.size(); i++) {
+            // Chunk yükleme konum işaretlemez (changedMask boş kalır): durgun su uyandırılmaz
+            int chunkX = changes.getChunkX(i);
+            int chunkZ = changes.getChunkZ(i);
+            int mask = changes.getChangedSectionMask(i);
+            int nearFluid = 0;
+            while (mask != 0) {
+                int sy = Integer.numberOfTrailingZeros(mask);
+                if (hasFluidNear(chunkX, sy, chunkZ)) {
+                    nearFluid |= 1 << sy;
+                }
+                mask &= mask - 1;
+            }
+            if (nearFluid != 0) {
+                changes.forEachChanged(i, nearFluid, scheduleAround);
+            }
+        }
+    }
+
+    private boolean hasFluidNear(int chunkX, int sy, int chunkZ) {
+        return hasFluid(chunkX, sy, chunkZ)
+                || hasFluid(chunkX, sy - 1, chunkZ) || hasFluid(chunkX, sy + 1, chunkZ)
+                || hasFluid(chunkX - 1, sy, chunkZ) || hasFluid(chunkX + 1, sy, chunkZ)
+                || hasFluid(chunkX, sy, chunkZ - 1) || hasFluid(chunkX, sy, chunkZ + 1);
+    }
+
+    private boolean hasFluid(int chunkX, int sy, int chunkZ) {
+        if (sy < 0 || sy >= Chunk.SECTION_COUNT) {
+            return false;
+        }
+        Chunk chunk = world.getChunkAt(chunkX, chunkZ);
+        ChunkSection section = chunk != null ? chunk.getSection(sy) : null;
+        return section != null && section.containsAny(BlockRegistry.fluidIds());
+    }
+
+    private void scheduleAround(int x, int y, int z) {
+        scheduleIfFluid(x, y, z);
+        scheduleIfFluid(x - 1, y, z);
+        scheduleIfFluid(x + 1, y, z);
+        scheduleIfFluid(x, y - 1, z);
+        scheduleIfFluid(x, y + 1, z);
+        scheduleIfFluid(x, y, z - 1);
+        scheduleIfFluid(x, y, z + 1);
+    }
+
+    private void scheduleIfFluid(int x, int y, int z) {
+        if (isFluid(world.getBlockId(x, y, z))) {
+            world.scheduleBlockTick(x, y, z, FLOW_DELAY);
+        }
+    }
+
+    /**
+     * Zamanı gelen su bloğunu işler: önce seviyesini komşularına göre
+     * düzeltir, seviye değişmediyse akar.
+     */
+    void tick(int x, int y, int z, int id) {
+        int level = levelOf(id);
+        if (level < MAX_LEVEL) {
+            int expected = supportedLevel(x, y, z);
+            if (expected != level) {
+                // Değişiklik veri yolundan döner; blok yeni seviyesiyle yeniden zamanlanır
+                world.setSimulatedBlockId(x, y, z, expected > 0 ? IDS_BY_LEVEL[expected] : Block.AIR_ID);
+                return;
+            }
+        }
+
+        // Önce aşağı
+        if (y > Chunk.MIN_Y) {
+            int below = world.getBlockId(x, y - 1, z);
+            if (canFlowInto(below, MAX_LEVEL - 1)) {
+                world.setSimulatedBlockId(x, y - 1, z, IDS_BY_LEVEL[MAX_LEVEL - 1]);
+                return;
+            }
+            if (isFluid(below) && levelOf(below) < MAX_LEVEL) {
+                return; // Düşen suyun üstündeki su yanlara yayılmaz
+            }
+        }
+
+        // Sonra yanlara, bir seviye azalarak
+        int next = level - 1;
+        if (next > 0) {
+            flowInto(x - 1, y, z, next);
+            flowInto(x + 1, y, z, next);
+            flowInto(x, y, z - 1, next);
+            flowInto(x, y, z + 1, next);
+        }
+    }
+
+    /**
+     * Akan suyun komşularına göre olması gereken seviyesi (0: çekilir).
+     */
+    private int supportedLevel(int x, int y, int z) {
+        if (isFluid(world.getBlockId(x, y + 1, z))) {
+            return MAX_LEVEL - 1;
+        }
+        int west = horizontalLevel(x - 1, y, z);
+        int east = horizontalLevel(x + 1, y, z);
+        int north = horizontalLevel(x, y, z - 1);
+        int south = horizontalLevel(x, y, z + 1);
+        int best = Math.max(Math.max(west, east), Math.max(north, south));
+        if (best == MAX_LEVEL && y > Chunk.MIN_Y) {
+            int sources = (west == MAX_LEVEL ? 1 : 0) + (east == MAX_LEVEL ? 1 : 0)
+                    + (north == MAX_LEVEL ? 1 : 0) + (south == MAX_LEVEL ? 1 : 0);
+            int below = world.getBlockId(x, y - 1, z);
+            if (sources >= 2 && below != Block.AIR_ID && (!isFluid(below) || levelOf(below) == MAX_LEVEL)) {
+                return MAX_LEVEL;
+            }
+        }
+        return best - 1;
+    }
+
+    private int horizontalLevel(int x, int y, int z) {
+        return levelOf(world.getBlockId(x, y, z));
+    }
+
+    private void flowInto(int x, int y, int z, int level) {
+        if (world.isLoaded(x, z) && canFlowInto(world.getBlockId(x, y, z), level)) {
+            world.setSimulatedBlockId(x, y, z, IDS_BY_LEVEL[level]);
+        }
+    }
+
+    private static boolean canFlowInto(int id, int level) {
+        return id == Block.AIR_ID || (isFluid(id) && levelOf(id) < level);
+    }
+}
@@ -0,0 +1,475 @@
+package com.blockworld.world;
+
+/**
+ * Gökyüzü ve blok ışığının taşma dolgusu (BFS) ile yayılması.
+ *
+ * Her voksel iki ışık seviyesi (0-15) tutar: gökyüzü ışığı yukarıdan gelir ve
+ * havada/suda aşağı doğru azalmadan, yanlara birer azalarak yayılır; blok
+ * ışığı ışık veren bloklardan (lamba) başlar ve her adımda bir azalır. Opak
+ * bloklar ışık geçirmez.
+ *
+ * Chunk yüklenince bir kez tamamen aydınlatılır: sütun yükseklikleri üstü 15,
+ * gölgedeki hücrelere ve komşu chunk'lara kuyrukla yayılır. Sonraki blok
+ * değişikliklerinde yalnızca etkilenen bölge yeniden hesaplanır: değişen
+ * hücrenin ışığı komşularından beklenenle aynıysa hiçbir şey yapılmaz; artan
+ * ışık artış kuyruğuyla yayılır, azalan ışık önce azalış kuyruğuyla bağlı
+ * hücrelerden silinir, sonra sınırdaki parlak hücrelerden yeniden doldurulur.
+ * Yüklü olmayan (veya henüz aydınlatılmamış) chunk'lara ışık girmez.
+ *
+ * Işığı değişen bölümler (ve kenardaysa komşuları) teslim edilmekte olan
+ * değişiklik kümesine eklenir, böylece sonraki dinleyiciler (mesh
+ * önbelleği) aynı tick'te güncel ışıkla yeniden oluşturur. Bu yüzden
+ * dinleyicilerin ilkidir. Günün saati ışığı değiştirmez; gölgelendiricide
+ * gökyüzü ışığının çarpanıdır.
+ */
+class LightEngine implements BlockChangeListener {
+
+    static final int MAX_LIGHT = 15;
+
+    // Komşu yönleri; DOWN gökyüzü ışığının azalmadan indiği yön
+    private static final int[] DX = { 0, 0, 0, 0, 1, -1 };
+    private static final int[] DY = { 1, -1, 0, 0, 0, 0 };
+    private static final int[] DZ = { 0, 0, 1, -1, 0, 0 };
+    private static final int UP = 0;
+    private static final int DOWN = 1;
+
+    private final World world;
+    private final LightQueue increase = new LightQueue();
+    private final LightQueue decrease = new LightQueue();
+    private final BlockChangeSet.PositionVisitor relight = this::relight;
+    // Sütun başına ilk gökyüzü ışıklı hücre (chunk aydınlatma sırasında)
+    private final int[] heights = new int[ChunkSection.SIZE * ChunkSection.SIZE];
+
+    // Teslim edilmekte olan küme (ışığı değişen bölümler buraya eklenir)
+    private BlockChangeSet changes;
+    // Son erişilen aydınlatılmış chunk
+    private Chunk cached;
+
+    LightEngine(World world) {
+        this.world = world;
+    }
+
+    static boolean isTransparent(int id) {
+        return !BlockRegistry.isOpaque(id);
+    }
+
+    static int emissionOf(int id) {
+        return BlockRegistry.getLightEmission(id);
+    }
+
+    @Override
+    public void onBlocksChanged(BlockChangeSet changes) {
+        this.changes = changes;
+        try {
+            // Girdi sayısı ışık işaretlemeleriyle artabilir; yeni girdiler yalnızca bölüm maskelidir
+            int count = changes.size();
+            // Önce yeni yüklenen chunk'lar, sonra düzenlemeler (komşu ışığı hazır olsun)
+            for (int i = 0; i < count; i++) {
+                if (changes.isWholeChunk(i)) {
+                    Chunk chunk = world.getChunkAt(changes.getChunkX(i), changes.getChunkZ(i));
+                    if (chunk != null && !chunk.isLit()) {
+                        lightChunk(chunk);
+                    }
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                if (changes.getChangedSectionMask(i) != 0
+                        && litChunk(changes.getChunkX(i) << 4, changes.getChunkZ(i) << 4) != null) {
+                    changes.forEachChanged(i, relight);
+                }
+            }
+        } finally {
+            this.changes = null;
+        }
+    }
+
+    /**
+     * Yeni yüklenen chunk'ı baştan aydınlatır ve ışığını yüklü komşularıyla
+     * birleştirir.
+     */
+    private void lightChunk(Chunk chunk) {
+        NibbleArray[] sky = new NibbleArray[Chunk.SECTION_COUNT];
+        NibbleArray[] block = new NibbleArray[Chunk.SECTION_COUNT];
+        int top = -1;
+        for (int sy = 0; sy < Chunk.SECTION_COUNT; sy++) {
+            block[sy] = new NibbleArray(0);
+            if (chunk.getSection(sy) != null) {
+                top = sy;
+            }
+        }
+        // En üstteki dolu bölümün üstü tamamen açık gökyüzü
+        for (int sy = 0; sy < Chunk.SECTION_COUNT; sy++) {
+            sky[sy] = new NibbleArray(sy > top ? MAX_LIGHT : 0);
+        }
+        chunk.setLight(sky, block);
+        cached = chunk;
+
+        int baseX = chunk.getChunkX() << 4;
+        int baseZ = chunk.getChunkZ() << 4;
+        int topY = Chunk.MIN_Y + ((top + 1) << 4);
+
+        // Sütun yükseklikleri: yukarıdan ilk opak bloğa kadar 15
+        for (int lz = 0; lz < 16; lz++) {
+            for (int lx = 0; lx < 16; lx++) {
+                int y = topY - 1;
+                while (y >= Chunk.MIN_Y && isTransparent(blockId(chunk, lx, y, lz))) {
+                    sky[Chunk.sectionIndex(y)].set(ChunkSection.index(lx, y & 15, lz), MAX_LIGHT);
+                    y--;
+                }
+                heights[(lz << 4) | lx] = y + 1;
+            }
+        }
+
+        // Yanlara yayılacak hücreler: komşu sütunun gölgede kalan yüksekliği
+        // boyunca (chunk kenarında komşu bilinmediği için en üste kadar)
+        for (int lz = 0; lz < 16; lz++) {
+            for (int lx = 0; lx < 16; lx++) {
+                int h = heights[(lz << 4) | lx];
+                int limit = topY;
+                if (lx > 0 && lx < 15 && lz > 0 && lz < 15) {
+                    limit = Math.max(Math.max(heights[(lz << 4) | (lx - 1)], heights[(lz << 4) | (lx + 1)]),
+                            Math.max(heights[((lz - 1) << 4) | lx], heights[((lz + 1) << 4) | lx]));
+                }
+                for (int y = h; y < limit; y++) {
+                    increase.push(BlockTickScheduler.pack(baseX + lx, y, baseZ + lz), MAX_LIGHT);
+                }
+            }
+        }
+        seedFromNeighbors(chunk, true);
+        propagateIncrease(true);
+
+        // Işık veren bloklar (palette yoksa bölüm atlanır)
+        for (int sy = 0; sy <= top; sy++) {
+            ChunkSection section = chunk.getSection(sy);
+            if (section == null || !section.containsAny(BlockRegistry.emitterIds())) {
+                continue;
+            }
+            int baseY = Chunk.MIN_Y + (sy << 4);
+            for (int index = 0; index < ChunkSection.VOLUME; index++) {
+                int emission = emissionOf(section.get(index));
+                if (emission > 0) {
+                    block[sy].set(index, emission);
+                    increase.push(BlockTickScheduler.pack(baseX + (index & 15), baseY + (index >> 8),
+                            baseZ + ((index >> 4) & 15)), emission);
+                }
+            }
+        }
+        seedFromNeighbors(chunk, false);
+        propagateIncrease(false);
+    }
+
+    /**
+     * Aydınlatılmış komşu chunk'ların bu chunk'a bakan kenar hücrelerini artış
+     * kuyruğuna ekler (ışık 2'den azsa içeri ulaşamaz).
+     */
+    private void seedFromNeighbors(Chunk chunk, boolean sky) {
+        for (int side = 2; side < 6; side++) {
+            Chunk neighbor = world.getChunkAt(chunk.getChunkX() + DX[side], chunk.getChunkZ() + DZ[side]);
+            if (neighbor == null || !neighbor.isLit()) {
+                continue;
+            }
+            // Komşunun bu chunk'a bakan kenarı
+            int edgeX = DX[side] > 0 ? 0 : 15;
+            int edgeZ = DZ[side] > 0 ? 0 : 15;
+            int baseX = neighbor.getChunkX() << 4;
+            int baseZ = neighbor.getChunkZ() << 4;
+            for (int sy = 0; sy < Chunk.SECTION_COUNT; sy++) {
+                NibbleArray light = lightSection(neighbor, sy, sky);
+                int uniform = light.getUniformValue();
+                if (uniform >= 0 && (uniform < 2
+                        || uniform - 1 <= lightSection(chunk, sy, sky).getUniformValue())) {
+                    continue; // Karanlık veya zaten en az o kadar aydınlık
+                }
+                int baseY = Chunk.MIN_Y + (sy << 4);
+                for (int ly = 0; ly < 16; ly++) {
+                    for (int i = 0; i < 16; i++) {
+                        int lx = DX[side] != 0 ? edgeX : i;
+                        int lz = DX[side] != 0 ? i : edgeZ;
+                        int level = light.get(lx, ly, lz);
+                        if (level >= 2) {
+                            increase.push(BlockTickScheduler.pack(baseX + lx, baseY + ly, baseZ + lz), level);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Değişen hücrenin iki ışığını yeniden hesaplar.
+     */
+    private void relight(int x, int y, int z) {
+        Chunk chunk = litChunk(x, z);
+        if (chunk == null) {
+            return;
+        }
+        int id = blockId(chunk, x & 15, y, z & 15);
+        update(chunk, x, y, z, id, true);
+        update(chunk, x, y, z, id, false);
+    }
+
+    private void update(Chunk chunk, int x, int y, int z, int id, boolean sky) {
+        int sy = Chunk.sectionIndex(y);
+        int index = ChunkSection.index(x & 15, y & 15, z & 15);
+        NibbleArray light = lightSection(chunk, sy, sky);
+        int stored = light.get(index);
+        int emission = sky ? 0 : emissionOf(id);
+        int expected = isTransparent(id) ? Math.max(emission, fromNeighbors(x, y, z, sky)) : emission;
+        if (expected == stored) {
+            return; // Işık zaten tutarlı: bölge yeniden hesaplanmaz
+        }
+
+        long position = BlockTickScheduler.pack(x, y, z);
+        if (expected < stored) {
+            // Bu hücreye bağlı ışığı sil, sınırdaki parlak hücreler artış kuyruğuna düşer
+            setLight(light, index, x, y, z, 0);
+            decrease.push(position, stored);
+            propagateDecrease(sky);
+            if (emission > 0) {
+                setLight(light, index, x, y, z, emission);
+                increase.push(position, emission);
+            }
+        } else {
+            setLight(light, index, x, y, z, expected);
+            increase.push(position, expected);
+        }
+        propagateIncrease(sky);
+    }
+
+    /**
+     * Saydam hücrenin komşularından alacağı ışık.
+     */
+    private int fromNeighbors(int x, int y, int z, boolean sky) {
+        int best = 0;
+        for (int dir = 0; dir < 6; dir++) {
+            int ny = y + DY[dir];
+            int level;
+            if (ny > Chunk.MAX_Y) {
+                level = sky ? MAX_LIGHT : 0;
+            } else if (ny < Chunk.MIN_Y) {
+                continue;
+            } else {
+                int nx = x + DX[dir];
+                int nz = z + DZ[dir];
+                Chunk chunk = litChunk(nx, nz);
+                if (chunk == null) {
+                    continue;
+                }
+                level = lightSection(chunk, Chunk.sectionIndex(ny), sky).get(nx & 15, ny & 15, nz & 15);
+            }
+            int received = sky && dir == UP && level == MAX_LIGHT ? MAX_LIGHT : level - 1;
+            best = Math.max(best, received);
+        }
+        return best;
+    }
+
+    /**
+     * Artış kuyruğundaki hücrelerin ışığını saydam komşularına yayar.
+     */
+    private void propagateIncrease(boolean sky) {
+        LightQueue queue = increase;
+        while (!queue.isEmpty()) {
+            long position = queue.headPosition();
+            queue.poll();
+            int x = BlockTickScheduler.unpackX(position);
+            int y = BlockTickScheduler.unpackY(position);
+            int z = BlockTickScheduler.unpackZ(position);
+            Chunk origin = litChunk(x, z);
+            if (origin == null) {
+                continue;
+            }
+            // Kuyruktayken değişmiş olabilir: güncel değer yayılır
+            int level = lightSection(origin, Chunk.sectionIndex(y), sky).get(x & 15, y & 15, z & 15);
+            if (level <= 1) {
+                continue;
+            }
+            for (int dir = 0; dir < 6; dir++) {
+                int ny = y + DY[dir];
+                if (ny < Chunk.MIN_Y || ny > Chunk.MAX_Y) {
+                    continue;
+                }
+                int nx = x + DX[dir];
+                int nz = z + DZ[dir];
+                Chunk chunk = litChunk(nx, nz);
+                if (chunk == null) {
+                    continue;
+                }
+                int lx = nx & 15;
+                int lz = nz & 15;
+                if (!isTransparent(blockId(chunk, lx, ny, lz))) {
+                    continue;
+                }
+                int next = sky && dir == DOWN && level == MAX_LIGHT ? MAX_LIGHT : level - 1;
+                NibbleArray light = lightSection(chunk, Chunk.sectionIndex(ny), sky);
+                int index = ChunkSection.index(lx, ny & 15, lz);
+                if (light.get(index) < next) {
+                    setLight(light, index, nx, ny, nz, next);
+                    queue.push(BlockTickScheduler.pack(nx, ny, nz), next);
+                }
+            }
+        }
+    }
+
+    /**
+     * Azalış kuyruğundaki hücrelerden aldığı ışığı komşulardan siler; başka
+     * kaynaktan beslenen (eşit veya daha parlak) komşular artış kuyruğuna
+     * eklenir.
+     */
+    private void propagateDecrease(boolean sky) {
+        LightQueue queue = decrease;
+        while (!queue.isEmpty()) {
+            long position = queue.headPosition();
+            int level = queue.headLevel();
+            queue.poll();
+            int x = BlockTickScheduler.unpackX(position);
+            int y = BlockTickScheduler.unpackY(position);
+            int z = BlockTickScheduler.unpackZ(position);
+            for (int dir = 0; dir < 6; dir++) {
+                int ny = y + DY[dir];
+                if (ny < Chunk.MIN_Y || ny > Chunk.MAX_Y) {
+                    continue;
+                }
+                int nx = x + DX[dir];
+                int nz = z + DZ[dir];
+                Chunk chunk = litChunk(nx, nz);
+                if (chunk == null) {
+                    continue;
+                }
+                int lx = nx & 15;
+                int lz = nz & 15;
+                NibbleArray light = lightSection(chunk, Chunk.sectionIndex(ny), sky);
+                int index = ChunkSection.index(lx, ny & 15, lz);
+                int neighborLevel = light.get(index);
+                if (neighborLevel == 0) {
+                    continue;
+                }
+                long neighbor = BlockTickScheduler.pack(nx, ny, nz);
+                if (neighborLevel < level || (sky && dir == DOWN && level == MAX_LIGHT)) {
+                    setLight(light, index, nx, ny, nz, 0);
+                    decrease.push(neighbor, neighborLevel);
+                    int emission = sky ? 0 : emissionOf(blockId(chunk, lx, ny, lz));
+                    if (emission > 0) {
+                        setLight(light, index, nx, ny, nz, emission);
+                        increase.push(neighbor, emission);
+                    }
+                } else {
+                    increase.push(neighbor, neighborLevel);
+                }
+            }
+        }
+    }
+
+    /**
+     * Işığı yazar ve hücrenin bölümünü (kenardaysa komşu bölümü de) yeniden
+     * oluşturulacak işaretler.
+     */
+    private void setLight(NibbleArray light, int index, int x, int y, int z, int level) {
+        light.set(index, level);
+
+        int chunkX = x >> 4;
+        int chunkZ = z >> 4;
+        int sy = Chunk.sectionIndex(y);
+        int ly = y & 15;
+        int mask = 1 << sy;
+        if (ly == 0 && sy > 0) {
+            mask |= 1 << (sy - 1);
+        } else if (ly == 15 && sy < Chunk.SECTION_COUNT - 1) {
+            mask |= 1 << (sy + 1);
+        }
+        changes.markSections(chunkX, chunkZ, mask);
+        int lx = x & 15;
+        int lz = z & 15;
+        if (lx == 0) {
+            changes.markSections(chunkX - 1, chunkZ, 1 << sy);
+        } else if (lx == 15) {
+            changes.markSections(chunkX + 1, chunkZ, 1 << sy);
+        }
+        if (lz == 0) {
+            changes.markSections(chunkX, chunkZ - 1, 1 << sy);
+        } else if (lz == 15) {
+            changes.markSections(chunkX, chunkZ + 1, 1 << sy);
+        }
+    }
+
+    /**
+     * Dünya koordinatındaki aydınlatılmış chunk (yüklü değilse veya henüz
+     * aydınlatılmadıysa null).
+     */
+    private Chunk litChunk(int x, int z) {
+        int chunkX = x >> 4;
+        int chunkZ = z >> 4;
+        Chunk chunk = cached;
+        if (chunk != null && chunk.getChunkX() == chunkX && chunk.getChunkZ() == chunkZ && chunk.isInWorld()) {
+            return chunk;
+        }
+        chunk = world.getChunkAt(chunkX, chunkZ);
+        if (chunk == null || !chunk.isLit()) {
+            return null;
+        }
+        cached = chunk;
+        return chunk;
+    }
+
+    private static NibbleArray lightSection(Chunk chunk, int sy, boolean sky) {
+        return sky ? chunk.getSkyLightSection(sy) : chunk.getBlockLightSection(sy);
+    }
+
+    /**
+     * Bölümden doğrudan okur (yalnızca oyun döngüsü yazdığı için kilitsiz).
+     */
+    private static int blockId(Chunk chunk, int lx, int y, int lz) {
+        ChunkSection section = chunk.getSection(Chunk.sectionIndex(y));
+        return section != null ? section.get(lx, y & 15, lz) : Block.AIR_ID;
+    }
+
+    /**
+     * Paketlenmiş konum ve ışık seviyesi çiftlerinden oluşan FIFO halka
+     * tampon; gerektikçe büyür, boşalınca yeniden kullanılır.
+     */
+    private static final class LightQueue {
+        private long[] positions = new long[1024];
+        private byte[] levels = new byte[1024];
+        private int head;
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(long position, int level) {
+            if (size == positions.length) {
+                grow();
+            }
+            int tail = (head + size) & (positions.length - 1);
+            positions[tail] = position;
+            levels[tail] = (byte) level;
+            size++;
+        }
+
+        long headPosition() {
+            return positions[head];
+        }
+
+        int headLevel() {
+            return levels[head];
+        }
+
+        void poll() {
+            head = (head + 1) & (positions.length - 1);
+            size--;
+        }
+
+        private void grow() {
+            long[] grownPositions = new long[positions.length * 2];
+            byte[] grownLevels = new byte[levels.length * 2];
+            int first = positions.length - head;
+            System.arraycopy(positions, head, grownPositions, 0, first);
+            System.arraycopy(positions, 0, grownPositions, first, head);
+            System.arraycopy(levels, head, grownLevels, 0, first);
+            System.arraycopy(levels, 0, grownLevels, first, head);
+            positions = grownPositions;
+            levels = grownLevels;
+            head = 0;
+        }
+    }
+}
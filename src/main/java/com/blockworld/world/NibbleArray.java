@@ -0,0 +1,68 @@
+package com.blockworld.world;
+
+import java.util.Arrays;
+
+/**
+ * Bir bölümün voksel başına 4 bitlik değerleri (ışık seviyesi 0-15).
+ *
+ * Tek tip dizi bayt ayırmaz ({@link ChunkSection}'daki tek tip bölüm gibi):
+ * tüm vokseller aynı değerdeyken yalnızca o değer tutulur; farklı bir değer
+ * yazılınca 2048 baytlık dizi ayrılır. Açık gökyüzünün ve karanlık kayanın
+ * ışığı böylece neredeyse yer kaplamaz.
+ */
+public class NibbleArray {
+
+    private static final int BYTES = ChunkSection.VOLUME / 2;
+
+    private byte[] data;
+    private int uniformValue;
+
+    public NibbleArray(int value) {
+        this.uniformValue = value;
+    }
+
+    public int get(int index) {
+        if (data == null) {
+            return uniformValue;
+        }
+        return (data[index >> 1] >> ((index & 1) << 2)) & 15;
+    }
+
+    public int get(int x, int y, int z) {
+        return get(ChunkSection.index(x, y, z));
+    }
+
+    public void set(int index, int value) {
+        if (data == null) {
+            if (value == uniformValue) {
+                return;
+            }
+            data = new byte[BYTES];
+            if (uniformValue != 0) {
+                Arrays.fill(data, (byte) (uniformValue | (uniformValue << 4)));
+            }
+        }
+        int shift = (index & 1) << 2;
+        int i = index >> 1;
+        data[i] = (byte) ((data[i] & ~(15 << shift)) | ((value & 15) << shift));
+    }
+
+    /**
+     * Tüm vokselleri aynı değere ayarlar (diziyi bırakır).
+     */
+    public void fill(int value) {
+        data = null;
+        uniformValue = value;
+    }
+
+    /**
+     * Tek tipse değeri, değilse -1.
+     */
+    public int getUniformValue() {
+        return data == null ? uniformValue : -1;
+    }
+
+    public long estimateMemoryBytes() {
+        return 16 + 8 + (data != null ? 16 + BYTES : 0);
+    }
+}
@@ -0,0 +1,54 @@
+package com.blockworld.world;
+
+/**
+ * Yapı yerleştirme yönü: Y ekseni etrafında 90 derecelik dönüşler ve isteğe
+ * bağlı X aynalaması (önce aynalanır, sonra döndürülür).
+ */
+public enum Orientation {
+    NONE(0, false),
+    ROTATE_90(1, false),
+    ROTATE_180(2, false),
+    ROTATE_270(3, false),
+    MIRROR(0, true),
+    MIRROR_ROTATE_90(1, true),
+    MIRROR_ROTATE_180(2, true),
+    MIRROR_ROTATE_270(3, true);
+
+    private static final Orientation[] VALUES = values();
+
+    // Saat yönünde (yukarıdan bakınca) çeyrek dönüş sayısı
+    private final int quarterTurns;
+    private final boolean mirrored;
+
+    Orientation(int quarterTurns, boolean mirrored) {
+        this.quarterTurns = quarterTurns;
+        this.mirrored = mirrored;
+    }
+
+    public static Orientation of(int quarterTurns, boolean mirrored) {
+        return VALUES[(quarterTurns & 3) + (mirrored ? 4 : 0)];
+    }
+
+    public Orientation rotateClockwise() {
+        return of(quarterTurns + 1, mirrored);
+    }
+
+    public Orientation toggleMirror() {
+        return of(quarterTurns, !mirrored);
+    }
+
+    public int getQuarterTurns() {
+        return quarterTurns;
+    }
+
+    public boolean isMirrored() {
+        return mirrored;
+    }
+
+    /**
+     * Dönüşten sonra X ve Z boyutları yer değiştirir mi.
+     */
+    public boolean swapsAxes() {
+        return (quarterTurns & 1) != 0;
+    }
+}
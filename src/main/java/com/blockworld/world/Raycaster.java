@@ -6,11 +6,37 @@ import org.joml.Vector3i;
 
 /**
  * Kameranın baktığı yönde ışın gönderip blok tespiti yapar.
+ *
+ * Izgara geçişi (Amanatides-Woo): ışının kestiği her voksel tam bir kez,
+ * sırayla ziyaret edilir. Her eksen için bir sonraki voksel sınırına kalan
+ * ışın uzunluğu tutulur; en yakın sınır geçilir. Böylece kenar ve köşeler
+ * kaçırılmaz, girilen yüz ve uzaklık kesin olarak bilinir. Çağıranın
+ * {@link RaycastResult} nesnesini dolduran sürüm hiç nesne ayırmaz.
+ *
+ * Boş alan atlama (varsayılan açık): ışın yüklü olmayan bir chunk sütununa,
+ * boş bir bölüme, boş bir 4x4x4 tuğlaya ({@link ChunkSection#getBrickMask})
+ * ya da dünyanın üstüne/altına girdiğinde bu kutudan çıkışı tek adımda
+ * hesaplanır. Sınır geçiş zamanları yalnızca voksel koordinatından
+ * hesaplandığı için atlayan geçiş, voksel voksel geçişle aynı bloğu, yüzü
+ * ve uzaklığı bulur. Bölümler kilitsiz okunur; yalnızca oyun döngüsünden
+ * çağrılmalıdır.
  */
 public class Raycaster {
 
-    // Raycast adım boyutu
-    private static final float STEP_SIZE = 0.1f;
+    // Dünya dışı yarım uzayların yatay sınırı (taşma olmadan "sonsuz")
+    private static final int FAR = 1 << 30;
+
+    private boolean emptySpaceSkipping = true;
+
+    // Atlanacak boş kutu (uçlar dahil), findEmptyBox doldurur
+    private int boxMinX, boxMinY, boxMinZ;
+    private int boxMaxX, boxMaxY, boxMaxZ;
+    // Son bakılan chunk (sütun başına bir tablo sorgusu)
+    private Chunk chunk;
+    private int chunkX, chunkZ;
+    private boolean chunkValid;
+    // findEmptyBox false döndüğünde vokselin bölümü
+    private ChunkSection section;
 
     /**
      * Raycast sonucu
@@ -18,7 +44,14 @@ public class Raycaster {
     public static class RaycastResult {
         public Vector3i blockPos; // Vurulan bloğun pozisyonu
         public Vector3i faceNormal; // Vurulan yüzeyin normali
-        public float distance; // Kameradan uzaklık
+        public float distance; // Kameradan uzaklık (ışının bloğa girdiği nokta)
+
+        /**
+         * Yeniden kullanılmak üzere boş sonuç.
+         */
+        public RaycastResult() {
+            this(new Vector3i(), new Vector3i(), 0);
+        }
 
         public RaycastResult(Vector3i blockPos, Vector3i faceNormal, float distance) {
             this.blockPos = blockPos;
@@ -28,62 +61,217 @@ public class Raycaster {
     }
 
     /**
-     * Kamera yönünde ışın gönderir ve ilk vurulan bloğu bulur.
+     * Boş bölge atlamayı açar/kapatır (sonuç değişmez; kıyaslama için).
+     */
+    public void setEmptySpaceSkipping(boolean emptySpaceSkipping) {
+        this.emptySpaceSkipping = emptySpaceSkipping;
+    }
+
+    public boolean isEmptySpaceSkipping() {
+        return emptySpaceSkipping;
+    }
+
+    /**
+     * Kamera yönünde ışın gönderir ve ilk vurulan bloğu bulur (yoksa null).
+     * Her isabette yeni bir sonuç nesnesi döner.
      */
     public RaycastResult cast(Camera camera, World world, float maxDistance) {
-        Vector3f rayOrigin = new Vector3f(camera.getPosition());
-        Vector3f rayDir = new Vector3f(camera.getFront()).normalize();
+        RaycastResult result = new RaycastResult();
+        return cast(camera, world, maxDistance, result) ? result : null;
+    }
 
-        Vector3f currentPos = new Vector3f(rayOrigin);
-        Vector3i lastEmptyBlock = null;
+    /**
+     * Kamera yönünde ışın gönderir; isabet varsa sonucu verilen nesneye yazar.
+     * Nesne ayırmaz.
+     *
+     * @return bir bloğa çarptı mı (çarpmadıysa sonuç değişmez)
+     */
+    public boolean cast(Camera camera, World world, float maxDistance, RaycastResult result) {
+        Vector3f position = camera.getPosition();
+        Vector3f front = camera.getFront();
+        return cast(world, position.x, position.y, position.z, front.x, front.y, front.z, maxDistance, result);
+    }
 
-        float distance = 0;
+    /**
+     * Başlangıç noktası ve yönü verilen ışını gönderir (yön birim olmak
+     * zorunda değildir). Başlangıç vokseli doluysa uzaklık 0 ve normal
+     * yukarıdır.
+     *
+     * @return bir bloğa çarptı mı (çarpmadıysa sonuç değişmez)
+     */
+    public boolean cast(World world, float originX, float originY, float originZ,
+            float dirX, float dirY, float dirZ, float maxDistance, RaycastResult result) {
+        float length = (float) Math.sqrt(dirX * dirX + dirY * dirY + dirZ * dirZ);
+        if (length == 0) {
+            return false;
+        }
+        dirX /= length;
+        dirY /= length;
+        dirZ /= length;
 
-        while (distance < maxDistance) {
-            // Mevcut pozisyonu blok koordinatlarına çevir
-            int blockX = (int) Math.floor(currentPos.x);
-            int blockY = (int) Math.floor(currentPos.y);
-            int blockZ = (int) Math.floor(currentPos.z);
+        int x = (int) Math.floor(originX);
+        int y = (int) Math.floor(originY);
+        int z = (int) Math.floor(originZ);
+        if (world.hasBlock(x, y, z)) {
+            result.blockPos.set(x, y, z);
+            result.faceNormal.set(0, 1, 0);
+            result.distance = 0;
+            return true;
+        }
 
-            Vector3i blockPos = new Vector3i(blockX, blockY, blockZ);
+        int stepX = dirX > 0 ? 1 : dirX < 0 ? -1 : 0;
+        int stepY = dirY > 0 ? 1 : dirY < 0 ? -1 : 0;
+        int stepZ = dirZ > 0 ? 1 : dirZ < 0 ? -1 : 0;
+        // Bir voksel boyunca ilerlemek için gereken ışın uzunluğu
+        float deltaX = stepX != 0 ? Math.abs(1 / dirX) : Float.POSITIVE_INFINITY;
+        float deltaY = stepY != 0 ? Math.abs(1 / dirY) : Float.POSITIVE_INFINITY;
+        float deltaZ = stepZ != 0 ? Math.abs(1 / dirZ) : Float.POSITIVE_INFINITY;
+        chunkValid = false;
+        boolean empty = emptySpaceSkipping && findEmptyBox(world, x, y, z);
 
-            // Bu pozisyonda blok var mı?
-            if (world.hasBlock(blockPos)) {
-                // Yüzey normalini hesapla
-                Vector3i faceNormal = calculateFaceNormal(lastEmptyBlock, blockPos);
-                return new RaycastResult(blockPos, faceNormal, distance);
+        while (true) {
+            int lastX = x, lastY = y, lastZ = z;
+            if (empty) {
+                // Kutudan çıkmadan önceki son voksel koordinatları
+                lastX = stepX > 0 ? boxMaxX : stepX < 0 ? boxMinX : x;
+                lastY = stepY > 0 ? boxMaxY : stepY < 0 ? boxMinY : y;
+                lastZ = stepZ > 0 ? boxMaxZ : stepZ < 0 ? boxMinZ : z;
             }
+            // Eksen başına son vokselden çıkış anı; en erkeni (eşitlikte
+            // x, y, z sırası) ışının girdiği sonraki vokseli belirler
+            float exitX = boundary(originX, lastX, stepX, deltaX);
+            float exitY = boundary(originY, lastY, stepY, deltaY);
+            float exitZ = boundary(originZ, lastZ, stepZ, deltaZ);
+            float t;
+            int axis;
+            if (exitX <= exitY && exitX <= exitZ) {
+                t = exitX;
+                axis = 0;
+            } else if (exitY <= exitZ) {
+                t = exitY;
+                axis = 1;
+            } else {
+                t = exitZ;
+                axis = 2;
+            }
+            if (!(t <= maxDistance)) {
+                // Boşaltılabilecek chunk'a referans tutulmaz
+                chunk = null;
+                section = null;
+                return false;
+            }
+            // Diğer eksenlerde o ana kadar geçilen sınırlar
+            x = axis == 0 ? lastX + stepX : advance(originX, dirX, x, lastX, stepX, deltaX, t, 0 < axis);
+            y = axis == 1 ? lastY + stepY : advance(originY, dirY, y, lastY, stepY, deltaY, t, 1 < axis);
+            z = axis == 2 ? lastZ + stepZ : advance(originZ, dirZ, z, lastZ, stepZ, deltaZ, t, 2 < axis);
 
-            // Son boş bloğu kaydet (yüzey normali için)
-            lastEmptyBlock = new Vector3i(blockX, blockY, blockZ);
-
-            // Işını ilerlet
-            currentPos.add(new Vector3f(rayDir).mul(STEP_SIZE));
-            distance += STEP_SIZE;
+            boolean solid;
+            if (emptySpaceSkipping) {
+                empty = findEmptyBox(world, x, y, z);
+                solid = !empty && section.get(x & 15, y & 15, z & 15) != ChunkSection.AIR;
+            } else {
+                solid = world.hasBlock(x, y, z);
+            }
+            if (solid) {
+                chunk = null;
+                section = null;
+                result.blockPos.set(x, y, z);
+                // Girilen yüz, ilerleme yönünün tersine bakar
+                switch (axis) {
+                    case 0 -> result.faceNormal.set(-stepX, 0, 0);
+                    case 1 -> result.faceNormal.set(0, -stepY, 0);
+                    default -> result.faceNormal.set(0, 0, -stepZ);
+                }
+                result.distance = t;
+                return true;
+            }
         }
+    }
 
-        return null; // Hiçbir bloğa çarpmadı
+    /**
+     * Vokseli içeren en büyük boş kutuyu (dünya dışı yarım uzay, yüklü
+     * olmayan chunk sütunu, boş bölüm veya boş tuğla) box* alanlarına yazar.
+     * Voksel dolu bir tuğladaysa false; o zaman section vokselin bölümüdür.
+     */
+    private boolean findEmptyBox(World world, int x, int y, int z) {
+        if (y > Chunk.MAX_Y || y < Chunk.MIN_Y) {
+            boxMinX = boxMinZ = -FAR;
+            boxMaxX = boxMaxZ = FAR;
+            boxMinY = y > Chunk.MAX_Y ? Chunk.MAX_Y + 1 : -FAR;
+            boxMaxY = y > Chunk.MAX_Y ? FAR : Chunk.MIN_Y - 1;
+            return true;
+        }
+        int cx = x >> 4;
+        int cz = z >> 4;
+        if (!chunkValid || cx != chunkX || cz != chunkZ) {
+            chunk = world.getChunkAt(cx, cz);
+            chunkX = cx;
+            chunkZ = cz;
+            chunkValid = true;
+        }
+        boxMinX = cx << 4;
+        boxMinZ = cz << 4;
+        if (chunk == null) {
+            boxMaxX = boxMinX + 15;
+            boxMaxZ = boxMinZ + 15;
+            boxMinY = Chunk.MIN_Y;
+            boxMaxY = Chunk.MAX_Y;
+            return true;
+        }
+        int sy = Chunk.sectionIndex(y);
+        section = chunk.getSection(sy);
+        if (section == null) {
+            boxMaxX = boxMinX + 15;
+            boxMaxZ = boxMinZ + 15;
+            boxMinY = Chunk.MIN_Y + (sy << 4);
+            boxMaxY = boxMinY + 15;
+            return true;
+        }
+        if ((section.getBrickMask() & (1L << ChunkSection.brickIndex(x & 15, y & 15, z & 15))) != 0) {
+            return false;
+        }
+        boxMinX = x & ~3;
+        boxMinY = y & ~3;
+        boxMinZ = z & ~3;
+        boxMaxX = boxMinX + 3;
+        boxMaxY = boxMinY + 3;
+        boxMaxZ = boxMinZ + 3;
+        return true;
     }
 
     /**
-     * Hangi yüzeyden bloğa girildiğini hesaplar.
+     * Bir eksendeki voksel koordinatını t anındaki çıkış olayına kadar
+     * ilerletir: sınır geçişi t'den önceyse (eşitlikte ekseni önce gelirse)
+     * geçilmiştir. Sonuç from ile last arasındadır; tahmin kayan nokta
+     * hatası için sınır zamanlarıyla düzeltilir.
      */
-    private Vector3i calculateFaceNormal(Vector3i from, Vector3i to) {
-        if (from == null) {
-            return new Vector3i(0, 1, 0); // Varsayılan: yukarı
+    private static int advance(float origin, float dir, int from, int last, int step, float delta,
+            float t, boolean before) {
+        if (step == 0 || from == last) {
+            return from;
+        }
+        int cell = (int) Math.floor(origin + dir * t);
+        cell = step > 0 ? Math.max(from, Math.min(last, cell)) : Math.min(from, Math.max(last, cell));
+        while (cell != last && crossed(boundary(origin, cell, step, delta), t, before)) {
+            cell += step;
+        }
+        while (cell != from && !crossed(boundary(origin, cell - step, step, delta), t, before)) {
+            cell -= step;
         }
+        return cell;
+    }
+
+    private static boolean crossed(float time, float t, boolean before) {
+        return time < t || (time == t && before);
+    }
 
-        int dx = from.x - to.x;
-        int dy = from.y - to.y;
-        int dz = from.z - to.z;
-
-        // En büyük farkı bul
-        if (Math.abs(dx) >= Math.abs(dy) && Math.abs(dx) >= Math.abs(dz)) {
-            return new Vector3i(dx > 0 ? 1 : -1, 0, 0);
-        } else if (Math.abs(dy) >= Math.abs(dx) && Math.abs(dy) >= Math.abs(dz)) {
-            return new Vector3i(0, dy > 0 ? 1 : -1, 0);
-        } else {
-            return new Vector3i(0, 0, dz > 0 ? 1 : -1);
+    private static float boundary(float origin, int cell, int step, float delta) {
+        if (step > 0) {
+            return (cell + 1 - origin) * delta;
+        }
+        if (step < 0) {
+            return (origin - cell) * delta;
         }
+        return Float.POSITIVE_INFINITY;
     }
 }
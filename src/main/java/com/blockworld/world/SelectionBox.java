@@ -4,14 +4,29 @@ import org.joml.Vector3i;
 
 /**
  * Yapı seçimi için kullanılan kutu aracı.
+ *
+ * Kutudaki blok sayıları tick sonunda bir kez güncellenir: kutu değişmediyse
+ * yalnızca tick'in değişiklik kümesinde kutuyla kesişen değişmiş bir bölüm
+ * ya da yüklenen/boşaltılan bir chunk varsa yeniden sayılır.
  */
-public class SelectionBox {
+public class SelectionBox implements BlockChangeListener {
 
     private Vector3i corner1;
     private Vector3i corner2;
+    // İkinci köşe seçilene kadar bakılan blok (canlı önizleme)
+    private Vector3i previewCorner;
     private boolean isSelecting;
     private boolean hasSelection;
 
+    // Son sayımın yapıldığı kutu (uçlar dahil)
+    private boolean counted;
+    private int countedMinX, countedMinY, countedMinZ;
+    private int countedMaxX, countedMaxY, countedMaxZ;
+    // Son sayımdan beri kutudaki bloklar değişti mi
+    private boolean countsStale;
+    private long[] histogram;
+    private String summary;
+
     public SelectionBox() {
         this.corner1 = null;
         this.corner2 = null;
@@ -31,6 +46,7 @@ public class SelectionBox {
             isSelecting = true;
             corner1 = null;
             corner2 = null;
+            previewCorner = null;
             hasSelection = false;
             System.out.println("Seçim modu aktif! İlk köşeyi belirlemek için tıklayın.");
         }
@@ -49,9 +65,13 @@ public class SelectionBox {
             System.out.println("İkinci köşeyi belirlemek için tıklayın.");
         } else if (corner2 == null) {
             corner2 = new Vector3i(pos);
+            previewCorner = null;
             hasSelection = true;
             isSelecting = false;
             System.out.println("İkinci köşe belirlendi: " + corner2);
+            if (summary != null) {
+                System.out.println(summary);
+            }
             System.out.println("Seçim tamamlandı! 'C' tuşuna basarak yapıyı kopyalayabilirsiniz.");
         }
     }
@@ -62,6 +82,7 @@ public class SelectionBox {
     public void cancelSelection() {
         corner1 = null;
         corner2 = null;
+        previewCorner = null;
         isSelecting = false;
         hasSelection = false;
         System.out.println("Seçim iptal edildi.");
@@ -91,12 +112,17 @@ public class SelectionBox {
                 Math.max(corner1.z, corner2.z));
     }
 
+    /**
+     * Çizilecek kutunun minimum köşesi: seçim bitmediyse ilk köşe ile bakılan
+     * blok arasındaki kutu.
+     */
     public Vector3i getMin() {
-        if (corner1 != null && corner2 != null) {
+        Vector3i other = getOtherCorner();
+        if (other != null) {
             return new Vector3i(
-                    Math.min(corner1.x, corner2.x),
-                    Math.min(corner1.y, corner2.y),
-                    Math.min(corner1.z, corner2.z));
+                    Math.min(corner1.x, other.x),
+                    Math.min(corner1.y, other.y),
+                    Math.min(corner1.z, other.z));
         } else if (corner1 != null) {
             return new Vector3i(corner1);
         }
@@ -104,17 +130,160 @@ public class SelectionBox {
     }
 
     public Vector3i getMax() {
-        if (corner1 != null && corner2 != null) {
+        Vector3i other = getOtherCorner();
+        if (other != null) {
             return new Vector3i(
-                    Math.max(corner1.x, corner2.x),
-                    Math.max(corner1.y, corner2.y),
-                    Math.max(corner1.z, corner2.z));
+                    Math.max(corner1.x, other.x),
+                    Math.max(corner1.y, other.y),
+                    Math.max(corner1.z, other.z));
         } else if (corner1 != null) {
             return new Vector3i(corner1);
         }
         return null;
     }
 
+    private Vector3i getOtherCorner() {
+        if (corner1 == null) {
+            return null;
+        }
+        return corner2 != null ? corner2 : previewCorner;
+    }
+
+    /**
+     * Seçim sürerken bakılan bloğu önizleme köşesi yapar (null: bakılan blok
+     * yok).
+     */
+    public void setPreviewCorner(Vector3i pos) {
+        if (!isSelecting || corner1 == null || pos == null) {
+            previewCorner = null;
+        } else if (previewCorner == null) {
+            previewCorner = new Vector3i(pos);
+        } else {
+            previewCorner.set(pos);
+        }
+    }
+
+    /**
+     * Sayılan kutuyla kesişen değişiklik varsa sayımı eskimiş işaretler.
+     */
+    @Override
+    public void onBlocksChanged(BlockChangeSet changes) {
+        if (!counted || countsStale) {
+            return;
+        }
+        int minSection = Chunk.sectionIndex(Math.max(Chunk.MIN_Y, countedMinY));
+        int maxSection = Chunk.sectionIndex(Math.min(Chunk.MAX_Y, countedMaxY));
+        int boxSections = minSection <= maxSection
+                ? (-1 >>> (31 - maxSection)) & (-1 << minSection)
+                : 0;
+        for (int i = 0; i < changes.size(); i++) {
+            int chunkX = changes.getChunkX(i) << 4;
+            int chunkZ = changes.getChunkZ(i) << 4;
+            if (chunkX > countedMaxX || chunkX + 15 < countedMinX
+                    || chunkZ > countedMaxZ || chunkZ + 15 < countedMinZ) {
+                continue;
+            }
+            if (changes.isWholeChunk(i) || (changes.getChangedSectionMask(i) & boxSections) != 0) {
+                countsStale = true;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Kutudaki blok sayılarını günceller (tick sonunda, değişiklikler
+     * bildirildikten sonra). Yalnızca kutu değiştiyse veya içindeki bloklar
+     * değiştiyse yeniden sayılır; dolu bölümler palet sayaçlarından okunduğu
+     * için büyük seçimler de ucuzdur. Nesne ayırmaz (sayım hariç).
+     */
+    public void updateCounts(World world) {
+        Vector3i other = getOtherCorner();
+        if (corner1 == null) {
+            histogram = null;
+            summary = null;
+            counted = false;
+            return;
+        }
+        if (other == null) {
+            other = corner1;
+        }
+        int minX = Math.min(corner1.x, other.x);
+        int minY = Math.min(corner1.y, other.y);
+        int minZ = Math.min(corner1.z, other.z);
+        int maxX = Math.max(corner1.x, other.x);
+        int maxY = Math.max(corner1.y, other.y);
+        int maxZ = Math.max(corner1.z, other.z);
+        if (counted && !countsStale
+                && minX == countedMinX && minY == countedMinY && minZ == countedMinZ
+                && maxX == countedMaxX && maxY == countedMaxY && maxZ == countedMaxZ) {
+            return;
+        }
+        countedMinX = minX;
+        countedMinY = minY;
+        countedMinZ = minZ;
+        countedMaxX = maxX;
+        countedMaxY = maxY;
+        countedMaxZ = maxZ;
+        counted = true;
+        countsStale = false;
+        histogram = world.getBlockHistogram(minX, minY, minZ, maxX, maxY, maxZ);
+        summary = createSummary();
+    }
+
+    private String createSummary() {
+        long blocks = getBlockCount();
+        StringBuilder text = new StringBuilder();
+        text.append("Seçim ")
+                .append(countedMaxX - countedMinX + 1).append('x')
+                .append(countedMaxY - countedMinY + 1).append('x')
+                .append(countedMaxZ - countedMinZ + 1)
+                .append(": ").append(blocks).append(" blok");
+        if (blocks > 0) {
+            text.append(" (");
+            boolean first = true;
+            for (int id = 1; id < histogram.length; id++) {
+                if (histogram[id] > 0) {
+                    if (!first) {
+                        text.append(", ");
+                    }
+                    text.append(Block.Type.fromId(id).getDisplayName()).append(' ').append(histogram[id]);
+                    first = false;
+                }
+            }
+            text.append(')');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Son sayımdaki hava olmayan blok sayısı.
+     */
+    public long getBlockCount() {
+        if (histogram == null) {
+            return 0;
+        }
+        long count = 0;
+        for (int id = 1; id < histogram.length; id++) {
+            count += histogram[id];
+        }
+        return count;
+    }
+
+    /**
+     * Son sayımın tip histogramı (indeks = blok id, 0 = hava), kutu yoksa null.
+     */
+    public long[] getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Son sayımın okunabilir özeti (kutu yoksa null). Yalnızca sayım
+     * yenilenince değişir.
+     */
+    public String getSummary() {
+        return summary;
+    }
+
     public Vector3i getCorner1() {
         return corner1;
     }
@@ -2,108 +2,470 @@ package com.blockworld.world;
 
 import org.joml.Vector3i;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 
 /**
  * Kaydedilmiş bir yapı (birden fazla blok).
+ *
+ * Bloklar yapının köşesine hizalı 16x16x16'lık parçalarda (brick) tutulur
+ * (voksel başına 2 bayt, hava = 0); tamamen hava olan parçalar için dizi
+ * ayrılmaz. Parça içi indeks sırası dünya bölümleriyle aynıdır (x en hızlı).
+ * Aynı içerikli parçalar yapılar arasında paylaşılabilir
+ * ({@link #internBricks(BrickPool)}); paylaşılan bir parçaya yazılırken önce
+ * kopyası alınır. Toplu erişim satırlar (sabit y ve z) üzerinden yapılır;
+ * diskteki biçim de (y, z, x) sırasını kullanır.
  */
 public class Structure {
 
+    public static final int BRICK_SIZE = 16;
+    public static final int BRICK_VOLUME = BRICK_SIZE * BRICK_SIZE * BRICK_SIZE;
+
     private String name;
-    private List<StructureBlock> blocks;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final int bricksX;
+    private final int bricksZ;
+    // Parçalar (null = tamamen hava), indeks (by * bricksZ + bz) * bricksX + bx
+    private final short[][] bricks;
+    // Parça başka yapılarla paylaşılıyor mu (yazmadan önce kopyalanır)
+    private final boolean[] sharedBricks;
+    // Paylaşılan parçaların alındığı havuz (yoksa null)
+    private BrickPool pool;
+    private int blockCount;
+
+    // Yön başına dönüştürülmüş kopyalar (ilk kullanımda hesaplanır, yapı
+    // değişince silinir)
+    private Structure[] oriented;
+    // İçerik özeti (ilk kullanımda hesaplanır, yapı değişince silinir)
+    private byte[] contentHash;
+
+    public Structure(String name, int sizeX, int sizeY, int sizeZ) {
+        if (sizeX < 0 || sizeY < 0 || sizeZ < 0) {
+            throw new IllegalArgumentException("Geçersiz yapı boyutu: " + sizeX + "x" + sizeY + "x" + sizeZ);
+        }
+        Math.multiplyExact(Math.multiplyExact(sizeX, sizeY), sizeZ);
+        this.name = name;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.bricksX = (sizeX + BRICK_SIZE - 1) / BRICK_SIZE;
+        this.bricksZ = (sizeZ + BRICK_SIZE - 1) / BRICK_SIZE;
+        int brickCount = bricksX * ((sizeY + BRICK_SIZE - 1) / BRICK_SIZE) * bricksZ;
+        this.bricks = new short[brickCount][];
+        this.sharedBricks = new boolean[brickCount];
+    }
 
     /**
-     * Yapı içindeki tek bir blok.
+     * Dünyadan belirli bir alandaki blokları yapı olarak kaydet (bitene kadar
+     * bekler; oyun döngüsünde {@link StructureCapture} tercih edilmelidir).
      */
-    public static class StructureBlock {
-        public int offsetX, offsetY, offsetZ;
-        public Block.Type type;
+    public static Structure createFromWorld(World world, Vector3i corner1, Vector3i corner2, String name) {
+        return StructureCapture.start(world, corner1, corner2, name).getResult();
+    }
+
+    private int brickIndex(int x, int y, int z) {
+        return ((y >> 4) * bricksZ + (z >> 4)) * bricksX + (x >> 4);
+    }
+
+    private static int localIndex(int x, int y, int z) {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    public boolean contains(int x, int y, int z) {
+        return x >= 0 && y >= 0 && z >= 0 && x < sizeX && y < sizeY && z < sizeZ;
+    }
+
+    public void addBlock(int offsetX, int offsetY, int offsetZ, Block.Type type) {
+        setBlockId(offsetX, offsetY, offsetZ, type != null ? type.getId() : Block.AIR_ID);
+    }
 
-        public StructureBlock(int offsetX, int offsetY, int offsetZ, Block.Type type) {
-            this.offsetX = offsetX;
-            this.offsetY = offsetY;
-            this.offsetZ = offsetZ;
-            this.type = type;
+    public void setBlockId(int x, int y, int z, int id) {
+        if (!contains(x, y, z)) {
+            throw new IndexOutOfBoundsException("Yapı dışında: " + x + ", " + y + ", " + z);
+        }
+        int brick = brickIndex(x, y, z);
+        if (bricks[brick] == null && id == Block.AIR_ID) {
+            return;
+        }
+        short[] data = writableBrick(brick);
+        int index = localIndex(x, y, z);
+        int old = data[index];
+        if (old == Block.AIR_ID && id != Block.AIR_ID) {
+            blockCount++;
+        } else if (old != Block.AIR_ID && id == Block.AIR_ID) {
+            blockCount--;
         }
+        data[index] = (short) id;
+        changed();
     }
 
-    public Structure(String name) {
-        this.name = name;
-        this.blocks = new ArrayList<>();
+    public int getBlockId(int x, int y, int z) {
+        if (!contains(x, y, z)) {
+            return Block.AIR_ID;
+        }
+        short[] data = bricks[brickIndex(x, y, z)];
+        return data != null ? data[localIndex(x, y, z)] : Block.AIR_ID;
     }
 
     /**
-     * Dünyadan belirli bir alandaki blokları yapı olarak kaydet.
+     * Bir satırın (sabit y, z) x'ten başlayan parçasını okur.
      */
-    public static Structure createFromWorld(World world, Vector3i corner1, Vector3i corner2, String name) {
-        Structure structure = new Structure(name);
-
-        int minX = Math.min(corner1.x, corner2.x);
-        int minY = Math.min(corner1.y, corner2.y);
-        int minZ = Math.min(corner1.z, corner2.z);
-        int maxX = Math.max(corner1.x, corner2.x);
-        int maxY = Math.max(corner1.y, corner2.y);
-        int maxZ = Math.max(corner1.z, corner2.z);
-
-        // Alandaki tüm blokları tara
-        for (int x = minX; x <= maxX; x++) {
-            for (int y = minY; y <= maxY; y++) {
-                for (int z = minZ; z <= maxZ; z++) {
-                    Block block = world.getBlock(x, y, z);
-                    if (block != null) {
-                        // Offset olarak kaydet (minX, minY, minZ'ye göre)
-                        structure.addBlock(x - minX, y - minY, z - minZ, block.getType());
+    public void readRow(int x, int y, int z, short[] out, int offset, int length) {
+        int end = x + length;
+        while (x < end) {
+            int run = Math.min(end, (x | 15) + 1) - x;
+            short[] data = bricks[brickIndex(x, y, z)];
+            if (data != null) {
+                System.arraycopy(data, localIndex(x, y, z), out, offset, run);
+            } else {
+                Arrays.fill(out, offset, offset + run, (short) Block.AIR_ID);
+            }
+            x += run;
+            offset += run;
+        }
+    }
+
+    /**
+     * Bir satırın (sabit y, z) x'ten başlayan parçasını yazar. Blok sayısı
+     * güncellenmez ({@link #recountBlocks()} veya {@link #setBlockCount}).
+     * Farklı vokselleri yazan iş parçacıklarından aynı anda çağrılabilir.
+     */
+    public void writeRow(int x, int y, int z, short[] in, int offset, int length) {
+        int end = x + length;
+        while (x < end) {
+            int run = Math.min(end, (x | 15) + 1) - x;
+            int brick = brickIndex(x, y, z);
+            short[] data = bricks[brick];
+            if (data == null || sharedBricks[brick]) {
+                if (data == null && isAir(in, offset, run)) {
+                    x += run;
+                    offset += run;
+                    continue;
+                }
+                synchronized (bricks) {
+                    data = writableBrick(brick);
+                }
+            }
+            System.arraycopy(in, offset, data, localIndex(x, y, z), run);
+            x += run;
+            offset += run;
+        }
+        changed();
+    }
+
+    private static boolean isAir(short[] values, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (values[i] != Block.AIR_ID) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parçayı yazılabilir hale getirir (yoksa ayırır, paylaşılıyorsa kopyalar).
+     */
+    private short[] writableBrick(int brick) {
+        short[] data = bricks[brick];
+        if (data == null) {
+            data = new short[BRICK_VOLUME];
+            bricks[brick] = data;
+        } else if (sharedBricks[brick]) {
+            short[] copy = data.clone();
+            if (pool != null) {
+                pool.release(data);
+            }
+            sharedBricks[brick] = false;
+            bricks[brick] = copy;
+            data = copy;
+        }
+        return data;
+    }
+
+    private void changed() {
+        oriented = null;
+        contentHash = null;
+    }
+
+    void setBlockCount(int blockCount) {
+        this.blockCount = blockCount;
+    }
+
+    /**
+     * Blok sayısını parçalar üzerinden yeniden hesaplar.
+     */
+    public void recountBlocks() {
+        int count = 0;
+        for (short[] data : bricks) {
+            if (data != null) {
+                for (short id : data) {
+                    if (id != Block.AIR_ID) {
+                        count++;
                     }
                 }
             }
         }
+        blockCount = count;
+        changed();
+    }
 
-        return structure;
+    /**
+     * Parçaları havuzdaki aynı içerikli parçalarla değiştirir (her parça için
+     * havuzda bir referans alınır). Yapı tek bir havuza bağlanabilir.
+     */
+    void internBricks(BrickPool brickPool) {
+        if (pool != null) {
+            return;
+        }
+        pool = brickPool;
+        for (int i = 0; i < bricks.length; i++) {
+            if (bricks[i] != null) {
+                bricks[i] = brickPool.acquire(bricks[i]);
+                sharedBricks[i] = true;
+            }
+        }
     }
 
-    public void addBlock(int offsetX, int offsetY, int offsetZ, Block.Type type) {
-        blocks.add(new StructureBlock(offsetX, offsetY, offsetZ, type));
+    /**
+     * internBricks ile alınan referansları bırakır.
+     */
+    void releaseBricks() {
+        if (pool == null) {
+            return;
+        }
+        for (int i = 0; i < bricks.length; i++) {
+            if (sharedBricks[i]) {
+                // Dizi başka yapılarda da olabilir; paylaşılmış sayılmaya
+                // devam eder (yazmadan önce yine kopyalanır)
+                pool.release(bricks[i]);
+            }
+        }
+        pool = null;
+    }
+
+    /**
+     * Yapıdaki hava olmayan blokları gezer (koordinatlar yapı köşesine göredir).
+     */
+    public void forEachBlock(BlockVisitor visitor) {
+        short[] row = new short[sizeX];
+        for (int y = 0; y < sizeY; y++) {
+            for (int z = 0; z < sizeZ; z++) {
+                readRow(0, y, z, row, 0, sizeX);
+                for (int x = 0; x < sizeX; x++) {
+                    if (row[x] != Block.AIR_ID) {
+                        visitor.visit(x, y, z, Block.Type.fromId(row[x]));
+                    }
+                }
+            }
+        }
     }
 
     /**
      * Yapıyı dünyaya yerleştir.
      */
     public void placeInWorld(World world, int baseX, int baseY, int baseZ) {
-        for (StructureBlock block : blocks) {
-            world.addBlock(
-                    baseX + block.offsetX,
-                    baseY + block.offsetY,
-                    baseZ + block.offsetZ,
-                    block.type);
+        placeInWorld(world, baseX, baseY, baseZ, Orientation.NONE);
+    }
+
+    /**
+     * Yapıyı verilen yönde dünyaya yerleştirir. Köşe, dönüştürülmüş yapının
+     * en küçük köşesidir.
+     */
+    public void placeInWorld(World world, int baseX, int baseY, int baseZ, Orientation orientation) {
+        world.placeStructure(oriented(orientation), baseX, baseY, baseZ);
+    }
+
+    /**
+     * Yapının verilen yöne dönüştürülmüş hali (NONE için kendisi).
+     */
+    public Structure oriented(Orientation orientation) {
+        if (orientation == Orientation.NONE) {
+            return this;
+        }
+        if (oriented == null) {
+            oriented = new Structure[Orientation.values().length];
+        }
+        Structure result = oriented[orientation.ordinal()];
+        if (result == null) {
+            result = transform(orientation);
+            oriented[orientation.ordinal()] = result;
+        }
+        return result;
+    }
+
+    private Structure transform(Orientation orientation) {
+        boolean swap = orientation.swapsAxes();
+        Structure result = new Structure(name, swap ? sizeZ : sizeX, sizeY, swap ? sizeX : sizeZ);
+        int turns = orientation.getQuarterTurns();
+        short[] row = new short[sizeX];
+        for (int y = 0; y < sizeY; y++) {
+            for (int z = 0; z < sizeZ; z++) {
+                readRow(0, y, z, row, 0, sizeX);
+                for (int x = 0; x < sizeX; x++) {
+                    short id = row[x];
+                    if (id == Block.AIR_ID) {
+                        continue;
+                    }
+                    int mx = orientation.isMirrored() ? sizeX - 1 - x : x;
+                    int tx;
+                    int tz;
+                    // Saat yönünde dönüş (+x doğu, +z güney)
+                    switch (turns) {
+                        case 1:
+                            tx = sizeZ - 1 - z;
+                            tz = mx;
+                            break;
+                        case 2:
+                            tx = sizeX - 1 - mx;
+                            tz = sizeZ - 1 - z;
+                            break;
+                        case 3:
+                            tx = z;
+                            tz = sizeX - 1 - mx;
+                            break;
+                        default:
+                            tx = mx;
+                            tz = z;
+                            break;
+                    }
+                    result.writableBrick(result.brickIndex(tx, y, tz))[localIndex(tx, y, tz)] = id;
+                }
+            }
+        }
+        result.blockCount = blockCount;
+        return result;
+    }
+
+    /**
+     * Yapının içerik özeti (SHA-256): boyutlar, blok tipi adlarından oluşan
+     * palet (ilk görülme sırasıyla) ve voksellerin palet indeksleri. Sayısal
+     * id'lerden bağımsızdır; aynı içerikli yapıların özeti aynıdır.
+     */
+    public byte[] getContentHash() {
+        if (contentHash != null) {
+            return contentHash;
         }
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(new byte[] {
+                (byte) (sizeX >>> 24), (byte) (sizeX >>> 16), (byte) (sizeX >>> 8), (byte) sizeX,
+                (byte) (sizeY >>> 24), (byte) (sizeY >>> 16), (byte) (sizeY >>> 8), (byte) sizeY,
+                (byte) (sizeZ >>> 24), (byte) (sizeZ >>> 16), (byte) (sizeZ >>> 8), (byte) sizeZ });
+
+        // id -> palet indeksi + 1 (0 = henüz görülmedi)
+        int[] paletteIndex = new int[Block.Type.values().length + 2];
+        paletteIndex[Block.AIR_ID] = 1;
+        StringBuilder palette = new StringBuilder();
+        int paletteSize = 1;
+        short[] row = new short[sizeX];
+        byte[] bytes = new byte[sizeX * 2];
+        for (int y = 0; y < sizeY; y++) {
+            for (int z = 0; z < sizeZ; z++) {
+                readRow(0, y, z, row, 0, sizeX);
+                for (int x = 0; x < sizeX; x++) {
+                    int id = row[x] & 0xFFFF;
+                    if (id >= paletteIndex.length) {
+                        paletteIndex = Arrays.copyOf(paletteIndex, id + 1);
+                    }
+                    if (paletteIndex[id] == 0) {
+                        paletteIndex[id] = ++paletteSize;
+                        Block.Type type = Block.Type.fromId(id);
+                        palette.append(type != null ? type.name() : "").append(';');
+                    }
+                    int value = paletteIndex[id] - 1;
+                    bytes[x * 2] = (byte) (value >>> 8);
+                    bytes[x * 2 + 1] = (byte) value;
+                }
+                digest.update(bytes);
+            }
+        }
+        digest.update(palette.toString().getBytes(StandardCharsets.UTF_8));
+        contentHash = digest.digest();
+        return contentHash;
     }
 
     public String getName() {
         return name;
     }
 
-    public List<StructureBlock> getBlocks() {
-        return blocks;
+    public int getBlockCount() {
+        return blockCount;
     }
 
-    public int getBlockCount() {
-        return blocks.size();
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    public int getSizeZ() {
+        return sizeZ;
+    }
+
+    public int getVolume() {
+        return sizeX * sizeY * sizeZ;
     }
 
     /**
      * Yapının boyutlarını hesapla.
      */
     public Vector3i getSize() {
-        if (blocks.isEmpty())
-            return new Vector3i(0, 0, 0);
+        return new Vector3i(sizeX, sizeY, sizeZ);
+    }
 
-        int maxX = 0, maxY = 0, maxZ = 0;
-        for (StructureBlock block : blocks) {
-            maxX = Math.max(maxX, block.offsetX);
-            maxY = Math.max(maxY, block.offsetY);
-            maxZ = Math.max(maxZ, block.offsetZ);
+    /**
+     * Yapının yukarıdan görünen küçük resmini oluşturur: her hücre için en
+     * üstteki bloğun rengi (yüksekliğe göre gölgeli), hücre başına RGBA.
+     * Boş hücrelerin alfa değeri 0'dır.
+     */
+    public byte[] createThumbnail(int resolution) {
+        byte[] pixels = new byte[resolution * resolution * 4];
+        for (int cz = 0; cz < resolution; cz++) {
+            for (int cx = 0; cx < resolution; cx++) {
+                // Hücrenin ortasındaki sütun
+                int x = (int) ((cx + 0.5f) * sizeX / resolution);
+                int z = (int) ((cz + 0.5f) * sizeZ / resolution);
+                if (x >= sizeX || z >= sizeZ) {
+                    continue;
+                }
+                for (int y = sizeY - 1; y >= 0; y--) {
+                    Block.Type type = Block.Type.fromId(getBlockId(x, y, z));
+                    if (type != null) {
+                        float shade = 0.6f + 0.4f * (y + 1) / sizeY;
+                        int p = (cz * resolution + cx) * 4;
+                        pixels[p] = (byte) (type.getR() * shade * 255);
+                        pixels[p + 1] = (byte) (type.getG() * shade * 255);
+                        pixels[p + 2] = (byte) (type.getB() * shade * 255);
+                        pixels[p + 3] = (byte) 255;
+                        break;
+                    }
+                }
+            }
+        }
+        return pixels;
+    }
+
+    /**
+     * Yaklaşık bellek kullanımı (bayt; yön kopyaları hariç). Paylaşılan
+     * parçalar sayılmaz, onlar havuzun payıdır.
+     */
+    public long estimateMemoryBytes() {
+        long bytes = 16 + 8 * 4 + 3 * 8 + 2 * 16 + 5L * bricks.length;
+        for (int i = 0; i < bricks.length; i++) {
+            if (bricks[i] != null && !sharedBricks[i]) {
+                bytes += 16 + 2L * BRICK_VOLUME;
+            }
         }
-        return new Vector3i(maxX + 1, maxY + 1, maxZ + 1);
+        return bytes;
     }
 }
@@ -0,0 +1,188 @@
+package com.blockworld.world;
+
+import org.joml.Vector3i;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Dünyadaki bir alanı arka planda {@link Structure} olarak yakalar.
+ *
+ * Oyun döngüsünde yalnızca alanla kesişen dolu bölümlerin kopyası alınır
+ * (boş bölümler atlanır). Kopyalar ortak havuzda paralel olarak yapıya satır
+ * satır toplu kopyalanır; her bölüm farklı vokselleri yazar, yalnızca yeni
+ * parça ayırma kilitlidir. İlerleme {@link #getProgress()} ile izlenir.
+ */
+public class StructureCapture {
+
+    // Yakalanacak bölümün kopyası ve dünya koordinatındaki köşesi
+    private static class SectionCopy {
+        final ChunkSection section;
+        final int baseX;
+        final int baseY;
+        final int baseZ;
+
+        SectionCopy(ChunkSection section, int baseX, int baseY, int baseZ) {
+            this.section = section;
+            this.baseX = baseX;
+            this.baseY = baseY;
+            this.baseZ = baseZ;
+        }
+    }
+
+    // Bölüm açma tamponu (iş parçacığı başına)
+    private static final ThreadLocal<short[]> ID_BUFFER =
+            ThreadLocal.withInitial(() -> new short[ChunkSection.VOLUME]);
+
+    private final String name;
+    private final int minX;
+    private final int minY;
+    private final int minZ;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final List<SectionCopy> sections;
+    private final AtomicInteger completed;
+    private final CompletableFuture<Structure> future;
+
+    private StructureCapture(World world, Vector3i corner1, Vector3i corner2, String name) {
+        this.minX = Math.min(corner1.x, corner2.x);
+        this.minY = Math.min(corner1.y, corner2.y);
+        this.minZ = Math.min(corner1.z, corner2.z);
+        int maxX = Math.max(corner1.x, corner2.x);
+        int maxY = Math.max(corner1.y, corner2.y);
+        int maxZ = Math.max(corner1.z, corner2.z);
+
+        this.name = name;
+        this.sizeX = maxX - minX + 1;
+        this.sizeY = maxY - minY + 1;
+        this.sizeZ = maxZ - minZ + 1;
+        this.sections = new ArrayList<>();
+        this.completed = new AtomicInteger();
+
+        // Oyun döngüsünde: alanla kesişen dolu bölümlerin kopyası
+        int minSection = Chunk.sectionIndex(Math.max(minY, Chunk.MIN_Y));
+        int maxSection = Chunk.sectionIndex(Math.min(maxY, Chunk.MAX_Y));
+        if (minY <= Chunk.MAX_Y && maxY >= Chunk.MIN_Y) {
+            for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+                for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                    Chunk chunk = world.getChunkAt(chunkX, chunkZ);
+                    if (chunk == null) {
+                        continue;
+                    }
+                    for (int sy = minSection; sy <= maxSection; sy++) {
+                        ChunkSection section = chunk.getSection(sy);
+                        if (section != null) {
+                            sections.add(new SectionCopy(section.copy(),
+                                    chunkX << 4, Chunk.MIN_Y + (sy << 4), chunkZ << 4));
+                        }
+                    }
+                }
+            }
+        }
+
+        this.future = CompletableFuture.supplyAsync(this::run);
+    }
+
+    /**
+     * Yakalamayı başlatır. Oyun döngüsünden çağrılmalıdır (bölümler burada
+     * kopyalanır).
+     */
+    public static StructureCapture start(World world, Vector3i corner1, Vector3i corner2, String name) {
+        return new StructureCapture(world, corner1, corner2, name);
+    }
+
+    private Structure run() {
+        long start = System.nanoTime();
+        Structure structure = new Structure(name, sizeX, sizeY, sizeZ);
+        AtomicLong blockCount = new AtomicLong();
+        IntStream.range(0, sections.size()).parallel().forEach(i -> {
+            blockCount.addAndGet(copySection(structure, sections.get(i)));
+            sections.set(i, null); // Kopyayı erkenden bırak
+            completed.incrementAndGet();
+        });
+        structure.setBlockCount((int) blockCount.get());
+        // Kütüphanede tekilleştirme için; oyun döngüsünde hesaplanmasın
+        structure.getContentHash();
+        System.out.printf("Yapı yakalandı: %d bölüm, %d blok, %.1f ms%n",
+                sections.size(), blockCount.get(), (System.nanoTime() - start) / 1e6);
+        return structure;
+    }
+
+    /**
+     * Bölümün alanla kesişen kısmını yapıya kopyalar.
+     *
+     * @return kopyalanan hava olmayan blok sayısı
+     */
+    private int copySection(Structure structure, SectionCopy copy) {
+        // Bölüm içindeki kesişim
+        int x0 = Math.max(minX, copy.baseX) - copy.baseX;
+        int x1 = Math.min(minX + sizeX - 1, copy.baseX + 15) - copy.baseX;
+        int y0 = Math.max(minY, copy.baseY) - copy.baseY;
+        int y1 = Math.min(minY + sizeY - 1, copy.baseY + 15) - copy.baseY;
+        int z0 = Math.max(minZ, copy.baseZ) - copy.baseZ;
+        int z1 = Math.min(minZ + sizeZ - 1, copy.baseZ + 15) - copy.baseZ;
+        int length = x1 - x0 + 1;
+        int targetX = copy.baseX + x0 - minX;
+
+        if (copy.section.isUniform()) {
+            int id = copy.section.get(0);
+            if (id == Block.AIR_ID) {
+                return 0; // Yapı zaten hava ile başlar
+            }
+            short[] row = new short[length];
+            Arrays.fill(row, (short) id);
+            for (int y = y0; y <= y1; y++) {
+                for (int z = z0; z <= z1; z++) {
+                    structure.writeRow(targetX, copy.baseY + y - minY, copy.baseZ + z - minZ, row, 0, length);
+                }
+            }
+            return length * (y1 - y0 + 1) * (z1 - z0 + 1);
+        }
+
+        short[] ids = ID_BUFFER.get();
+        copy.section.copyIds(ids);
+        int count = 0;
+        for (int y = y0; y <= y1; y++) {
+            for (int z = z0; z <= z1; z++) {
+                int src = ChunkSection.index(x0, y, z);
+                structure.writeRow(targetX, copy.baseY + y - minY, copy.baseZ + z - minZ, ids, src, length);
+                for (int i = src; i < src + length; i++) {
+                    if (ids[i] != Block.AIR_ID) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Tamamlanan bölüm oranı (0-1).
+     */
+    public float getProgress() {
+        int total = sections.size();
+        return total == 0 ? 1.0f : (float) completed.get() / total;
+    }
+
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    /**
+     * Sonucu döndürür; bitmediyse bekler. Yakalama başarısız olduysa null.
+     */
+    public Structure getResult() {
+        try {
+            return future.join();
+        } catch (RuntimeException e) {
+            System.err.println("Yapı yakalanamadı: " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,573 @@
+package com.blockworld.world;
+
+import com.blockworld.storage.StructureSerializer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diskteki yapı kütüphanesi.
+ *
+ * Açılışta yalnızca yapıların başlık bilgileri ve küçük resimleri okunur;
+ * bunlar bir dizin dosyasında (index.bwi) önbelleklenir, böylece binlerce
+ * yapı olsa bile yalnızca değişen dosyalar açılır. Voksel verisi bir yapı
+ * seçildiğinde arka planda yüklenir ve boyutu sınırlı bir LRU önbellekte
+ * tutulur.
+ *
+ * Yapılar içerik özetleriyle ({@link Structure#getContentHash()}) tekilleştirilir:
+ * aynı içerik ikinci kez kaydedilirse yeni bir .bws yazılmaz, yalnızca verinin
+ * bulunduğu dosyayı gösteren küçük bir bağlantı dosyası (.bwl) yazılır.
+ * Aynı içeriği gösteren kayıtlar bellekte tek bir yapıyı paylaşır. Yüklü
+ * yapıların 16³'lük parçaları da bir {@link BrickPool}'da paylaşılır, böylece
+ * kısmen aynı yapılar ortak parçaları bir kez tutar.
+ */
+public class StructureLibrary {
+
+    // Yüklenmiş yapılar için bellek sınırı
+    private static final long DEFAULT_CACHE_BYTES = 64L * 1024 * 1024;
+
+    private static final String INDEX_FILE = "index.bwi";
+    private static final int INDEX_MAGIC = 0x42574932; // "BWI2"
+
+    // Aynı içeriğin ikinci ve sonraki kayıtları için bağlantı dosyası
+    private static final String LINK_EXTENSION = ".bwl";
+    private static final int LINK_MAGIC = 0x42574C31; // "BWL1"
+
+    /**
+     * Tekil bir yapı içeriği; aynı içerikli tüm kayıtlar bunu gösterir.
+     */
+    private static final class Content {
+        // İçerik özeti (eski dosyalarda yüklenene kadar null)
+        byte[] hash;
+        // Voksel verisinin bulunduğu .bws dosyası (depo yoksa null)
+        final String dataFile;
+        // İlk kaydın başlığı (bağlantılar küçük resmi bununla paylaşır)
+        final StructureSerializer.Header header;
+
+        Content(byte[] hash, String dataFile, StructureSerializer.Header header) {
+            this.hash = hash;
+            this.dataFile = dataFile;
+            this.header = header;
+        }
+    }
+
+    /**
+     * Kütüphanedeki bir yapının her zaman bellekte duran bilgileri.
+     */
+    public static final class Entry {
+        // Kaydın kendi dosyası (.bws veya .bwl)
+        private final String fileName;
+        private final StructureSerializer.Header header;
+        private Content content;
+        // Dosya yazılınca güncellenir (0 = henüz yazılmadı)
+        private volatile long lastModified;
+        private volatile long fileSize;
+
+        Entry(String fileName, long lastModified, long fileSize, StructureSerializer.Header header) {
+            this.fileName = fileName;
+            this.lastModified = lastModified;
+            this.fileSize = fileSize;
+            this.header = header;
+        }
+
+        /**
+         * Bağlantı kaydıysa gösterdiği veri dosyası, değilse null.
+         */
+        private String getLinkTarget() {
+            return content != null && content.dataFile != null && !content.dataFile.equals(fileName)
+                    ? content.dataFile : null;
+        }
+
+        public String getName() {
+            return header.name;
+        }
+
+        public int getSizeX() {
+            return header.sizeX;
+        }
+
+        public int getSizeY() {
+            return header.sizeY;
+        }
+
+        public int getSizeZ() {
+            return header.sizeZ;
+        }
+
+        public int getBlockCount() {
+            return header.blockCount;
+        }
+
+        /**
+         * Yukarıdan görünüm, hücre başına RGBA (yoksa null).
+         */
+        public byte[] getThumbnail() {
+            return header.thumbnail;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+    }
+
+    private final Path directory;
+    private final List<Entry> entries;
+    private final long maxCacheBytes;
+
+    // İçerik özeti (onaltılık) -> içerik (cache kilidiyle korunur)
+    private final Map<String, Content> contents;
+
+    // Yüklü yapılar, en az kullanılan önce (cache kilidiyle korunur)
+    private final LinkedHashMap<Content, Structure> cache;
+    // Önbellekteki yapıların paylaşılmayan kısmı; parçalar havuzda sayılır
+    private long cacheBytes;
+    // Diske henüz yazılmamış (veya depo yoksa) atılamayacak yapılar
+    private final Map<Content, Structure> pinned;
+    // Yüklenmesi süren yapılar
+    private final Set<Content> loading;
+    // Yüklü yapıların paylaşılan parçaları
+    private final BrickPool bricks;
+
+    private final ExecutorService executor;
+    private boolean indexDirty;
+
+    /**
+     * @param directory yapı klasörü; null ise yapılar yalnızca bellekte tutulur
+     */
+    public StructureLibrary(Path directory) {
+        this(directory, DEFAULT_CACHE_BYTES);
+    }
+
+    public StructureLibrary(Path directory, long maxCacheBytes) {
+        this.directory = directory;
+        this.entries = new ArrayList<>();
+        this.maxCacheBytes = maxCacheBytes;
+        this.contents = new HashMap<>();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true);
+        this.pinned = new HashMap<>();
+        this.loading = new HashSet<>();
+        this.bricks = new BrickPool();
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "StructureLoader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Klasördeki yapıların bilgilerini okur. Dizin dosyasındaki kayıtlar,
+     * dosyası değişmemişse yeniden okunmaz.
+     */
+    public void load() {
+        if (directory == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        int scanned = 0;
+        try {
+            Files.createDirectories(directory);
+            Map<String, String> indexedTargets = new HashMap<>();
+            Map<String, Entry> indexed = readIndex(indexedTargets);
+
+            // Bağlantılar veri dosyalarından sonra çözülür
+            List<Entry> links = new ArrayList<>();
+            Map<String, String> linkTargets = new HashMap<>();
+            Map<String, Content> byDataFile = new HashMap<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                    "*{" + StructureSerializer.EXTENSION + "," + LINK_EXTENSION + "}")) {
+                for (Path path : stream) {
+                    String fileName = path.getFileName().toString();
+                    boolean link = fileName.endsWith(LINK_EXTENSION);
+                    long modified = Files.getLastModifiedTime(path).toMillis();
+                    long size = Files.size(path);
+                    Entry entry = indexed.get(fileName);
+                    String target = entry != null ? indexedTargets.get(fileName) : null;
+                    if (entry == null || entry.lastModified != modified || entry.fileSize != size) {
+                        try {
+                            if (link) {
+                                String[] nameAndTarget = readLink(path);
+                                target = nameAndTarget[1];
+                                entry = new Entry(fileName, modified, size, new StructureSerializer.Header(
+                                        nameAndTarget[0], 0, 0, 0, 0, null, null));
+                            } else {
+                                entry = new Entry(fileName, modified, size, StructureSerializer.readHeader(path));
+                            }
+                            scanned++;
+                        } catch (IOException e) {
+                            System.err.println("Yapı okunamadı (" + fileName + "): " + e.getMessage());
+                            continue;
+                        }
+                    }
+                    if (link) {
+                        links.add(entry);
+                        linkTargets.put(fileName, target);
+                    } else {
+                        entry.content = registerContent(entry.header.contentHash, fileName, entry.header);
+                        byDataFile.put(fileName, entry.content);
+                        entries.add(entry);
+                    }
+                }
+            }
+            for (Entry link : links) {
+                Content content = byDataFile.get(linkTargets.get(link.fileName));
+                if (content == null) {
+                    System.err.println("Yapı bağlantısı kırık (" + link.fileName + "), atlanıyor");
+                    continue;
+                }
+                Entry entry = new Entry(link.fileName, link.lastModified, link.fileSize,
+                        content.header.withName(link.getName()));
+                entry.content = content;
+                entries.add(entry);
+            }
+
+            // Kayıt sırasına göre (eskiden yeniye)
+            entries.sort((a, b) -> a.lastModified != b.lastModified
+                    ? Long.compare(a.lastModified, b.lastModified)
+                    : a.fileName.compareTo(b.fileName));
+            // Silinen veya değişen dosyalar varsa dizini yenile
+            indexDirty = scanned > 0 || indexed.size() != entries.size();
+            if (indexDirty) {
+                writeIndex();
+            }
+        } catch (IOException e) {
+            System.err.println("Yapı kütüphanesi okunamadı: " + e.getMessage());
+        }
+        System.out.printf("Yapı kütüphanesi: %d yapı, %d benzersiz (%d dosya okundu), %.1f ms%n",
+                entries.size(), contents.size(), scanned, (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * Veri dosyası için içerik oluşturur; özet biliniyorsa tekilleştirme
+     * tablosuna eklenir (aynı özetli ilk dosya geçerlidir).
+     */
+    private Content registerContent(byte[] hash, String dataFile, StructureSerializer.Header header) {
+        Content content = new Content(hash, dataFile, header);
+        if (hash != null) {
+            synchronized (cache) {
+                contents.putIfAbsent(toHex(hash), content);
+            }
+        }
+        return content;
+    }
+
+    private static String toHex(byte[] hash) {
+        StringBuilder builder = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            builder.append(Character.forDigit((b >> 4) & 15, 16)).append(Character.forDigit(b & 15, 16));
+        }
+        return builder.toString();
+    }
+
+    private static String[] readLink(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 512))) {
+            if (in.readInt() != LINK_MAGIC) {
+                throw new IOException("Yapı bağlantısı değil");
+            }
+            return new String[] { in.readUTF(), in.readUTF() };
+        }
+    }
+
+    private static void writeLink(Path path, String name, String target) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 512))) {
+            out.writeInt(LINK_MAGIC);
+            out.writeUTF(name);
+            out.writeUTF(target);
+        }
+    }
+
+    /**
+     * Dizin dosyasını okur; bağlantı kayıtlarının hedefleri targets'a yazılır.
+     */
+    private Map<String, Entry> readIndex(Map<String, String> targets) {
+        Map<String, Entry> indexed = new HashMap<>();
+        Path file = directory.resolve(INDEX_FILE);
+        if (!Files.exists(file)) {
+            return indexed;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != INDEX_MAGIC) {
+                return indexed;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String fileName = in.readUTF();
+                long modified = in.readLong();
+                long size = in.readLong();
+                String target = in.readUTF();
+                String name = in.readUTF();
+                int sizeX = in.readInt();
+                int sizeY = in.readInt();
+                int sizeZ = in.readInt();
+                int blockCount = in.readInt();
+                byte[] thumbnail = readBytes(in);
+                byte[] hash = readBytes(in);
+                indexed.put(fileName, new Entry(fileName, modified, size,
+                        new StructureSerializer.Header(name, sizeX, sizeY, sizeZ, blockCount, thumbnail, hash)));
+                if (!target.isEmpty()) {
+                    targets.put(fileName, target);
+                }
+            }
+        } catch (IOException e) {
+            // Bozuk dizin: tüm dosyalar yeniden okunur
+            System.err.println("Yapı dizini okunamadı, yeniden oluşturulacak: " + e.getMessage());
+            indexed.clear();
+            targets.clear();
+        }
+        return indexed;
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length <= 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes != null) {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else {
+            out.writeInt(0);
+        }
+    }
+
+    private void writeIndex() throws IOException {
+        Path file = directory.resolve(INDEX_FILE);
+        Path temp = directory.resolve(INDEX_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(INDEX_MAGIC);
+            List<Entry> saved = new ArrayList<>();
+            for (Entry entry : entries) {
+                if (entry.fileName != null && entry.fileSize > 0) {
+                    saved.add(entry);
+                }
+            }
+            out.writeInt(saved.size());
+            for (Entry entry : saved) {
+                StructureSerializer.Header header = entry.header;
+                String target = entry.getLinkTarget();
+                out.writeUTF(entry.fileName);
+                out.writeLong(entry.lastModified);
+                out.writeLong(entry.fileSize);
+                out.writeUTF(target != null ? target : "");
+                out.writeUTF(header.name);
+                out.writeInt(header.sizeX);
+                out.writeInt(header.sizeY);
+                out.writeInt(header.sizeZ);
+                out.writeInt(header.blockCount);
+                writeBytes(out, header.thumbnail);
+                writeBytes(out, header.contentHash);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        indexDirty = false;
+    }
+
+    /**
+     * Yapıyı kütüphaneye ekler. Aynı içerik zaten kayıtlıysa veri yeniden
+     * yazılmaz; yeni kayıt mevcut içeriği paylaşır. Aksi halde dosya arka
+     * planda yazılır; yazma bitene kadar yapı bellekte tutulur.
+     */
+    public Entry add(Structure structure) {
+        byte[] hash = structure.getContentHash();
+        String name = structure.getName();
+        Content content;
+        synchronized (cache) {
+            content = contents.get(toHex(hash));
+        }
+
+        if (content != null) {
+            String fileName = directory != null ? uniqueFileName(name, LINK_EXTENSION) : null;
+            Entry entry = new Entry(fileName, 0, 0, content.header.withName(name));
+            entry.content = content;
+            entries.add(entry);
+            indexDirty = directory != null;
+            System.out.println("Aynı yapı zaten kayıtlı, içerik paylaşılıyor: " + content.dataFile);
+            if (directory != null) {
+                executor.execute(() -> writeLinkFile(entry, content.dataFile));
+            }
+            return entry;
+        }
+
+        byte[] thumbnail = structure.createThumbnail(StructureSerializer.THUMBNAIL_SIZE);
+        StructureSerializer.Header header = new StructureSerializer.Header(name,
+                structure.getSizeX(), structure.getSizeY(), structure.getSizeZ(), structure.getBlockCount(),
+                thumbnail, hash);
+        String fileName = directory != null ? uniqueFileName(name, StructureSerializer.EXTENSION) : null;
+        Entry entry = new Entry(fileName, 0, 0, header);
+        entry.content = registerContent(hash, fileName, header);
+        entries.add(entry);
+        indexDirty = directory != null;
+        synchronized (cache) {
+            structure.internBricks(bricks);
+            pinned.put(entry.content, structure);
+        }
+        if (directory != null) {
+            executor.execute(() -> writeStructure(entry, structure));
+        }
+        return entry;
+    }
+
+    private void writeStructure(Entry entry, Structure structure) {
+        Path path = directory.resolve(entry.fileName);
+        try {
+            StructureSerializer.write(structure, path);
+            entry.lastModified = Files.getLastModifiedTime(path).toMillis();
+            entry.fileSize = Files.size(path);
+            synchronized (cache) {
+                pinned.remove(entry.content);
+                putInCache(entry.content, structure);
+            }
+        } catch (IOException e) {
+            System.err.println("Yapı kaydedilemedi (" + entry.fileName + "): " + e.getMessage());
+        }
+    }
+
+    private void writeLinkFile(Entry entry, String target) {
+        Path path = directory.resolve(entry.fileName);
+        try {
+            writeLink(path, entry.getName(), target);
+            entry.lastModified = Files.getLastModifiedTime(path).toMillis();
+            entry.fileSize = Files.size(path);
+        } catch (IOException e) {
+            System.err.println("Yapı bağlantısı kaydedilemedi (" + entry.fileName + "): " + e.getMessage());
+        }
+    }
+
+    private String uniqueFileName(String name, String extension) {
+        String base = name.replaceAll("[^A-Za-z0-9_-]", "_");
+        Set<String> used = new HashSet<>();
+        for (Entry entry : entries) {
+            used.add(entry.fileName);
+        }
+        String candidate = base + extension;
+        for (int n = 2; used.contains(candidate) || Files.exists(directory.resolve(candidate)); n++) {
+            candidate = base + "_" + n + extension;
+        }
+        return candidate;
+    }
+
+    /**
+     * Yapının voksel verisini döndürür. Yüklü değilse null döner ve arka
+     * planda yüklemeyi başlatır; yükleme bitince sonraki çağrılar yapıyı
+     * döndürür. Oyun döngüsünü bekletmez.
+     */
+    public Structure get(Entry entry) {
+        Content content = entry.content;
+        synchronized (cache) {
+            Structure structure = pinned.get(content);
+            if (structure == null) {
+                structure = cache.get(content);
+            }
+            if (structure != null || content.dataFile == null || !loading.add(content)) {
+                return structure;
+            }
+        }
+        executor.execute(() -> loadStructure(entry.getName(), content));
+        return null;
+    }
+
+    private void loadStructure(String name, Content content) {
+        long start = System.nanoTime();
+        try {
+            Structure structure = StructureSerializer.read(directory.resolve(content.dataFile));
+            synchronized (cache) {
+                if (content.hash == null) {
+                    // Özetsiz eski dosya: sonraki kayıtlar bununla tekilleştirilebilir
+                    content.hash = structure.getContentHash();
+                    contents.putIfAbsent(toHex(content.hash), content);
+                }
+                putInCache(content, structure);
+            }
+            System.out.printf("Yapı yüklendi: %s (%d blok, %.1f ms)%n", name,
+                    structure.getBlockCount(), (System.nanoTime() - start) / 1e6);
+        } catch (IOException e) {
+            System.err.println("Yapı yüklenemedi (" + content.dataFile + "): " + e.getMessage());
+        } finally {
+            synchronized (cache) {
+                loading.remove(content);
+            }
+        }
+    }
+
+    // cache kilidi tutulurken çağrılır
+    private void putInCache(Content content, Structure structure) {
+        structure.internBricks(bricks);
+        Structure old = cache.put(content, structure);
+        if (old != null && old != structure) {
+            cacheBytes -= old.estimateMemoryBytes();
+            old.releaseBricks();
+        } else if (old == structure) {
+            cacheBytes -= structure.estimateMemoryBytes();
+        }
+        cacheBytes += structure.estimateMemoryBytes();
+
+        // En az kullanılanları at (en son eklenen her zaman kalır)
+        Iterator<Map.Entry<Content, Structure>> it = cache.entrySet().iterator();
+        while (cacheBytes + bricks.estimateMemoryBytes() > maxCacheBytes && cache.size() > 1) {
+            Structure eldest = it.next().getValue();
+            cacheBytes -= eldest.estimateMemoryBytes();
+            it.remove();
+            eldest.releaseBricks();
+        }
+    }
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public String getCacheReport() {
+        synchronized (cache) {
+            return String.format("Yapı önbelleği: %d/%d içerik yüklü (%d kayıt), %d KB / %d KB, "
+                    + "%d benzersiz parça (%d referans)", cache.size() + pinned.size(), contents.size(),
+                    entries.size(), (cacheBytes + bricks.estimateMemoryBytes()) / 1024, maxCacheBytes / 1024,
+                    bricks.size(), bricks.getReferenceCount());
+        }
+    }
+
+    /**
+     * Bekleyen yazmaları bitirir ve dizin dosyasını günceller.
+     */
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (indexDirty) {
+            try {
+                writeIndex();
+            } catch (IOException e) {
+                System.err.println("Yapı dizini yazılamadı: " + e.getMessage());
+            }
+        }
+    }
+}
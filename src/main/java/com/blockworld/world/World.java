@@ -2,12 +2,19 @@ package com.blockworld.world;
 
 import com.blockworld.engine.Input;
 import com.blockworld.graphics.Camera;
+import com.blockworld.storage.RegionStorage;
+import com.blockworld.util.LongObjectMap;
+import com.blockworld.world.gen.ChunkGenerator;
+import com.blockworld.world.gen.NoiseTerrainGenerator;
 import org.joml.Vector3i;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import static org.lwjgl.glfw.GLFW.*;
 
@@ -16,57 +23,178 @@ import static org.lwjgl.glfw.GLFW.*;
  */
 public class World {
 
-    // Blokları pozisyonlarına göre tutan harita
-    private Map<Vector3i, Block> blocks;
+    // Chunk'lar (x, z) koordinatına göre; bloklar bölümlerde paletli olarak
+    // tutulur. Tablo kilitsizdir: oyun döngüsü yazar, arka plan işleri okur.
+    private final ChunkTable chunks;
 
-    // Raycaster
+    // Son erişilen chunk (sıkı döngülerde aynı chunk'a art arda erişim için).
+    // Tek referans olduğu için iş parçacıkları arasında yarış zararsızdır;
+    // boşaltılmış bir chunk inWorld bayrağıyla elenir.
+    private Chunk lastChunk;
+
+    // Kameranın etrafındaki chunk'ları yükleyip boşaltan akış sistemi
+    private ChunkStreamer streamer;
+
+    // Bölge dosyası deposu (null ise dünya kaydedilmez)
+    private RegionStorage storage;
+
+    // Düzenleme günlüğü (depo yoksa null)
+    private WorldJournal journal;
+
+    // Geri al / yinele geçmişi
+    private EditHistory history;
+
+    // Bu tick'te biriken değişiklikler; tick sonunda dinleyicilere teslim
+    // edilir (teslim sırasında yapılan düzenlemeler ikinci kümede birikir)
+    private BlockChangeSet pendingChanges;
+    private BlockChangeSet deliveringChanges;
+    private final List<BlockChangeListener> changeListeners = new ArrayList<>();
+    // Her kirli işaretlemede artar; önbellekli sorgular değişikliği bununla anlar
+    private long modificationCount;
+
+    // Zamanlanmış blok tick'leri (su akışı, düşen kum); yalnızca kuyruktaki
+    // konumlar işlenir
+    private final BlockTickScheduler tickScheduler = new BlockTickScheduler();
+    private final BlockTickScheduler.TickHandler blockTicker = this::tickBlock;
+    private FluidSimulator fluids;
+    private FallingBlockSimulator fallingBlocks;
+    private LightEngine lights;
+    private long tickCount;
+    // Bir güncellemede işlenecek en fazla blok tick'i (fazlası sonraki tick'e kalır)
+    private static final int BLOCK_TICK_BUDGET = 2048;
+
+    // Günün saati (0-1: 0 gece yarısı, 0.25 gün doğumu, 0.5 öğle); ışık
+    // yeniden hesaplanmaz, gölgelendiriciye çarpan olarak gider
+    private float timeOfDay = 0.3f;
+    // Bir tam günün süresi (saniye)
+    private static final float DAY_LENGTH_SECONDS = 20 * 60;
+    // Gece yarısı gökyüzü ışığının gündüze oranı
+    private static final float NIGHT_DAYLIGHT = 0.2f;
+
+    // Raycaster ve her tick yeniden kullanılan sonucu
     private Raycaster raycaster;
+    private final Raycaster.RaycastResult target = new Raycaster.RaycastResult();
 
     // Seçili blok tipi
     private Block.Type selectedBlockType;
 
     // Yapı sistemi
     private SelectionBox selectionBox;
-    private List<Structure> savedStructures;
+    private StructureLibrary structureLibrary;
     private Structure selectedStructure;
+    // Yapı yerleştirme yönü (R: döndür, M: aynala)
+    private Orientation structureOrientation = Orientation.NONE;
+    // Arka planda süren yapı yakalama (yoksa null)
+    private StructureCapture capture;
+
+    // Varsayılan arazi tohumu
+    private static final long DEFAULT_SEED = 20240917L;
 
-    // Dünya boyutları
-    private static final int WORLD_SIZE = 16;
+    // Varsayılan kayıt klasörü
+    private static final Path DEFAULT_SAVE_DIR = Paths.get("saves", "world");
+
+    // Başlangıçta beklenerek yüklenecek alan (chunk cinsinden yarıçap)
+    private static final int SPAWN_RADIUS = 2;
+
+    // Eski düzende blok başına maliyet: Vector3i (24) + Block (16) + HashMap.Node
+    // (32) + tablo yuvası (~8)
+    private static final long HASHMAP_BYTES_PER_BLOCK = 24 + 16 + 32 + 8;
 
     // Tıklama bekleme süresi (spam engelleme)
     private float clickCooldown = 0;
     private static final float CLICK_DELAY = 0.2f;
 
     public World() {
-        this.blocks = new HashMap<>();
+        this(openStorage(DEFAULT_SAVE_DIR));
+    }
+
+    public World(RegionStorage storage) {
+        this(new NoiseTerrainGenerator(loadSeed(storage)), storage);
+    }
+
+    public World(ChunkGenerator generator, RegionStorage storage) {
+        this.chunks = new ChunkTable();
+        this.storage = storage;
+        this.streamer = new ChunkStreamer(this, generator, storage);
+        this.journal = openJournal(storage);
+        if (journal != null) {
+            streamer.setJournal(journal);
+            journal.recover(generator);
+        }
+        this.pendingChanges = new BlockChangeSet();
+        this.deliveringChanges = new BlockChangeSet();
+        // Işık ilk dinleyicidir: değiştirdiği bölümleri sonrakiler aynı tick'te görür
+        this.lights = new LightEngine(this);
+        changeListeners.add(lights);
+        this.fluids = new FluidSimulator(this);
+        changeListeners.add(fluids);
+        this.fallingBlocks = new FallingBlockSimulator(this);
+        changeListeners.add(fallingBlocks);
+        this.history = new EditHistory();
         this.raycaster = new Raycaster();
         this.selectedBlockType = Block.Type.GRASS;
         this.selectionBox = new SelectionBox();
-        this.savedStructures = new ArrayList<>();
+        changeListeners.add(selectionBox);
+        this.structureLibrary = new StructureLibrary(
+                storage != null ? storage.getDirectory().resolve("structures") : null);
         this.selectedStructure = null;
     }
 
-    public void init() {
-        generateFloor();
-        System.out.println("Dünya oluşturuldu! Toplam blok: " + blocks.size());
+    private static RegionStorage openStorage(Path directory) {
+        try {
+            return new RegionStorage(directory);
+        } catch (IOException e) {
+            System.err.println("Kayıt klasörü açılamadı, dünya kaydedilmeyecek: " + e.getMessage());
+            return null;
+        }
     }
 
-    /**
-     * 16x16 düz zemin oluşturur.
-     */
-    private void generateFloor() {
-        for (int x = 0; x < WORLD_SIZE; x++) {
-            for (int z = 0; z < WORLD_SIZE; z++) {
-                // Zemin katmanı (y = 0)
-                addBlock(x, 0, z, Block.Type.GRASS);
-            }
+    private static WorldJournal openJournal(RegionStorage storage) {
+        if (storage == null) {
+            return null;
+        }
+        try {
+            return new WorldJournal(storage);
+        } catch (IOException e) {
+            System.err.println("Düzenleme günlüğü açılamadı: " + e.getMessage());
+            return null;
         }
     }
 
+    private static long loadSeed(RegionStorage storage) {
+        if (storage == null) {
+            return DEFAULT_SEED;
+        }
+        try {
+            return storage.loadOrCreateSeed(DEFAULT_SEED);
+        } catch (IOException e) {
+            System.err.println("Dünya tohumu okunamadı: " + e.getMessage());
+            return DEFAULT_SEED;
+        }
+    }
+
+    public void init() {
+        structureLibrary.load();
+        streamer.preload(0, 0, SPAWN_RADIUS);
+        System.out.println("Dünya oluşturuldu! Toplam blok: " + getBlockCount());
+        System.out.println(getMemoryReport());
+    }
+
     // Son kaydedilen yapıyı al ve listeyi temizle (GameLoop için)
-    private Structure justSavedStructure = null;
+    private StructureLibrary.Entry justSavedStructure = null;
 
     public void update(Input input, Camera camera) {
+        // Kameranın etrafındaki chunk'ları yükle/boşalt
+        streamer.update(camera.getPosition());
+        if (journal != null) {
+            journal.update(this);
+        }
+
+        // Su akışı ve düşen kum (bütçeli)
+        tickBlocks();
+
+        timeOfDay = (timeOfDay + 1.0f / 60.0f / DAY_LENGTH_SECONDS) % 1.0f;
+
         // Cooldown güncelle
         if (clickCooldown > 0) {
             clickCooldown -= 1.0f / 60.0f;
@@ -77,14 +205,38 @@ public class World {
             selectionBox.toggleSelectionMode();
         }
 
+        // Ctrl+Z / Ctrl+Y - Geri al / yinele
+        boolean control = input.isKeyDown(GLFW_KEY_LEFT_CONTROL) || input.isKeyDown(GLFW_KEY_RIGHT_CONTROL);
+        if (control && input.isKeyPressed(GLFW_KEY_Z)) {
+            undo();
+        } else if (control && input.isKeyPressed(GLFW_KEY_Y)) {
+            redo();
+        }
+
+        // R / M tuşları - Yerleştirilecek yapıyı döndür / aynala
+        if (selectedStructure != null && input.isKeyPressed(GLFW_KEY_R)) {
+            structureOrientation = structureOrientation.rotateClockwise();
+            System.out.println("Yapı yönü: " + structureOrientation);
+        }
+        if (selectedStructure != null && input.isKeyPressed(GLFW_KEY_M)) {
+            structureOrientation = structureOrientation.toggleMirror();
+            System.out.println("Yapı yönü: " + structureOrientation);
+        }
+
         // C tuşu - Seçili alanı yapı olarak kaydet (Sadece seçim varsa)
         if (input.isKeyPressed(GLFW_KEY_C) && selectionBox.hasSelection()) {
             saveSelection();
         }
+        if (capture != null && capture.isDone()) {
+            finishCapture();
+        }
 
         // Mouse yakalanmışsa blok etkileşimi
         if (input.isMouseCaptured() && clickCooldown <= 0) {
-            Raycaster.RaycastResult hit = raycaster.cast(camera, this, 10.0f);
+            Raycaster.RaycastResult hit = raycaster.cast(camera, this, 10.0f, target) ? target : null;
+
+            // Seçim sürerken kutu bakılan bloğa kadar uzar
+            selectionBox.setPreviewCorner(hit != null ? hit.blockPos : null);
 
             if (hit != null) {
                 // 1. Seçim Modu
@@ -99,7 +251,8 @@ public class World {
                     // Sağ Tık - Yapıyı yerleştir
                     if (input.isMouseButtonDown(GLFW_MOUSE_BUTTON_RIGHT)) {
                         Vector3i placePos = new Vector3i(hit.blockPos).add(hit.faceNormal);
-                        selectedStructure.placeInWorld(this, placePos.x, placePos.y, placePos.z);
+                        selectedStructure.placeInWorld(this, placePos.x, placePos.y, placePos.z,
+                                structureOrientation);
                         System.out.println("Yapı yerleştirildi: " + placePos);
                         clickCooldown = CLICK_DELAY;
                     }
@@ -128,62 +281,1112 @@ public class World {
             }
         }
 
+        // Tick'in değişikliklerini türetilmiş önbelleklere tek seferde bildir
+        flushChanges();
+
+        // Seçim sayımları: kutu veya içindeki bloklar değiştiyse yeniden sayılır
+        selectionBox.updateCounts(this);
+
         // NOT: 1-6 tuşları ve V tuşu artık GameLoop tarafından yönetiliyor.
     }
 
     private void saveSelection() {
-        String name = "Structure_" + (savedStructures.size() + 1);
-        Structure structure = Structure.createFromWorld(
-                this,
-                selectionBox.getCorner1(),
-                selectionBox.getCorner2(),
-                name);
+        if (capture != null) {
+            System.out.println("Önceki yapı kaydı sürüyor, lütfen bekleyin");
+            return;
+        }
+        String name = "Structure_" + (structureLibrary.size() + 1);
+        capture = StructureCapture.start(this, selectionBox.getCorner1(), selectionBox.getCorner2(), name);
+        selectionBox.cancelSelection();
+    }
+
+    private void finishCapture() {
+        Structure structure = capture.getResult();
+        capture = null;
+        if (structure == null) {
+            return;
+        }
 
         if (structure.getBlockCount() > 0) {
-            savedStructures.add(structure);
-            justSavedStructure = structure; // GameLoop'a bildir
-            System.out.println("Yapı kaydedildi: " + name + " (" + structure.getBlockCount() + " blok)");
+            justSavedStructure = structureLibrary.add(structure); // GameLoop'a bildir
+            System.out.println("Yapı kaydedildi: " + structure.getName() + " (" + structure.getBlockCount() + " blok)");
             System.out.println("Yapı Hotbar'a eklendi!");
         } else {
             System.out.println("Seçili alanda blok bulunamadı!");
         }
+    }
 
-        selectionBox.cancelSelection();
+    /**
+     * Süren yapı kaydının ilerlemesi (0-1), kayıt yoksa -1.
+     */
+    public float getCaptureProgress() {
+        return capture != null ? capture.getProgress() : -1;
     }
 
-    public Structure consumeJustSavedStructure() {
-        Structure s = justSavedStructure;
+    public StructureLibrary.Entry consumeJustSavedStructure() {
+        StructureLibrary.Entry s = justSavedStructure;
         justSavedStructure = null;
         return s;
     }
 
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private Chunk getChunk(int x, int z) {
+        int chunkX = x >> 4;
+        int chunkZ = z >> 4;
+        Chunk cached = lastChunk;
+        if (cached != null && cached.getChunkX() == chunkX && cached.getChunkZ() == chunkZ
+                && cached.isInWorld()) {
+            return cached;
+        }
+        Chunk chunk = chunks.get(chunkX, chunkZ);
+        if (chunk != null) {
+            lastChunk = chunk;
+        }
+        return chunk;
+    }
+
+    private Chunk getOrCreateChunk(int x, int z) {
+        Chunk chunk = getChunk(x, z);
+        if (chunk == null) {
+            // Henüz yüklenmemiş chunk: üretim gelince düzenlemelerle birleştirilir
+            chunk = new Chunk(x >> 4, z >> 4);
+            chunk.setInWorld(true);
+            chunks.put(chunk);
+        }
+        return chunk;
+    }
+
+    /**
+     * Chunk koordinatlarındaki yüklü chunk'ı döndürür (yoksa null). Her iş
+     * parçacığından çağrılabilir.
+     */
+    public Chunk getChunkAt(int chunkX, int chunkZ) {
+        return chunks.get(chunkX, chunkZ);
+    }
+
+    /**
+     * Bloğun chunk'ı yüklü mü (dünya koordinatı; son chunk önbelleğini
+     * kullanır).
+     */
+    boolean isLoaded(int x, int z) {
+        return getChunk(x, z) != null;
+    }
+
+    /**
+     * Chunk'ı dünyaya ekler (varsa eskisinin yerine).
+     */
+    void putChunk(Chunk chunk) {
+        chunk.setInWorld(true);
+        Chunk old = chunks.put(chunk);
+        if (old != null && old != chunk) {
+            old.setInWorld(false);
+        }
+        markChunkDirty(chunk.getChunkX(), chunk.getChunkZ());
+    }
+
+    Chunk removeChunk(int chunkX, int chunkZ) {
+        Chunk removed = chunks.remove(chunkX, chunkZ);
+        if (removed != null) {
+            removed.setInWorld(false);
+            markChunkDirty(chunkX, chunkZ);
+        }
+        return removed;
+    }
+
+    public List<Chunk> getLoadedChunks() {
+        return chunks.values();
+    }
+
+    /**
+     * Yüklü ve boşaltılıp henüz diske yazılmamış chunk'ların değişmez
+     * görüntüsü. Chunk başına sabit maliyetlidir (bölüm verisi kopyalanmaz);
+     * görüntüden sonra düzenlenen bölümler o anda kopyalanır. Oyun
+     * döngüsünden çağrılmalıdır; görüntü her iş parçacığında okunabilir.
+     */
+    public WorldSnapshot snapshot() {
+        List<Chunk> snapshots = new ArrayList<>(chunks.size());
+        AtomicReferenceArray<Chunk> view = chunks.view();
+        for (int slot = 0; slot < view.length(); slot++) {
+            Chunk chunk = ChunkTable.valueAt(view, slot);
+            if (chunk != null) {
+                snapshots.add(chunk.snapshot());
+            }
+        }
+        for (Chunk chunk : streamer.getUnsavedChunks()) {
+            if (getChunkAt(chunk.getChunkX(), chunk.getChunkZ()) == null) {
+                snapshots.add(chunk.snapshot());
+            }
+        }
+        return new WorldSnapshot(snapshots);
+    }
+
+    /**
+     * Chunk'ı (yüklendi/boşaltıldı) ve kenar ve çapraz komşularının tüm
+     * bölümlerini kirli işaretler.
+     */
+    private void markChunkDirty(int chunkX, int chunkZ) {
+        modificationCount++;
+        int all = (1 << Chunk.SECTION_COUNT) - 1;
+        pendingChanges.markWholeChunk(chunkX, chunkZ);
+        pendingChanges.markSections(chunkX - 1, chunkZ, all);
+        pendingChanges.markSections(chunkX + 1, chunkZ, all);
+        pendingChanges.markSections(chunkX, chunkZ - 1, all);
+        pendingChanges.markSections(chunkX, chunkZ + 1, all);
+        // Çapraz komşuların köşe sütunlarının ortam örtmesi
+        pendingChanges.markSections(chunkX - 1, chunkZ - 1, all);
+        pendingChanges.markSections(chunkX + 1, chunkZ - 1, all);
+        pendingChanges.markSections(chunkX - 1, chunkZ + 1, all);
+        pendingChanges.markSections(chunkX + 1, chunkZ + 1, all);
+    }
+
+    /**
+     * Değişen bloğu ve etkilediği bölümü kirli işaretler. Kenardaki blok
+     * komşu bölümleri de (köşedeyse çapraz olanlar dahil: ortam örtmesi
+     * çapraz komşuya bakar) etkiler.
+     */
+    private void markBlockDirty(int x, int y, int z) {
+        pendingChanges.markPosition(x, y, z);
+
+        int chunkX = x >> 4;
+        int chunkZ = z >> 4;
+        int sy = Chunk.sectionIndex(y);
+        int lx = x & 15;
+        int ly = y & 15;
+        int lz = z & 15;
+        // Dikeyde etkilenen bölümler
+        int mask = 1 << sy;
+        if (ly == 0 && sy > 0) {
+            mask |= 1 << (sy - 1);
+        } else if (ly == 15 && sy < Chunk.SECTION_COUNT - 1) {
+            mask |= 1 << (sy + 1);
+        }
+        int dx = lx == 0 ? -1 : lx == 15 ? 1 : 0;
+        int dz = lz == 0 ? -1 : lz == 15 ? 1 : 0;
+        markSectionsDirty(chunkX, chunkZ, mask);
+        if (dx != 0) {
+            markSectionsDirty(chunkX + dx, chunkZ, mask);
+        }
+        if (dz != 0) {
+            markSectionsDirty(chunkX, chunkZ + dz, mask);
+        }
+        if (dx != 0 && dz != 0) {
+            markSectionsDirty(chunkX + dx, chunkZ + dz, mask);
+        }
+    }
+
+    private void markSectionDirty(int chunkX, int sectionIndex, int chunkZ) {
+        modificationCount++;
+        pendingChanges.markSections(chunkX, chunkZ, 1 << sectionIndex);
+    }
+
+    /**
+     * Tick'in değişikliklerini dinleyicilere tek bir birleştirilmiş küme olarak
+     * bildirir (tick sonunda {@link #update} çağırır). Değişiklik yoksa hiçbir
+     * şey yapmaz.
+     */
+    public void flushChanges() {
+        if (pendingChanges.isEmpty()) {
+            return;
+        }
+        BlockChangeSet changes = pendingChanges;
+        pendingChanges = deliveringChanges;
+        deliveringChanges = changes;
+        for (int i = 0; i < changeListeners.size(); i++) {
+            changeListeners.get(i).onBlocksChanged(changes);
+        }
+        changes.clear();
+    }
+
+    /**
+     * Zamanı gelen blok tick'lerini işler (oyun tick'i başına bir kez,
+     * {@link #update} çağırır). En fazla {@link #BLOCK_TICK_BUDGET} konum
+     * işlenir; kalanlar sırası bozulmadan sonraki tick'e kalır.
+     *
+     * @return işlenen konum sayısı
+     */
+    public int tickBlocks() {
+        tickCount++;
+        fallingBlocks.beginTick();
+        int processed = tickScheduler.runDue(tickCount, BLOCK_TICK_BUDGET, blockTicker);
+        // Düşen sütunlar tick sonunda tek toplu düzenleme olarak
+        fallingBlocks.endTick();
+        return processed;
+    }
+
+    private void tickBlock(int x, int y, int z) {
+        if (!isLoaded(x, z)) {
+            return; // Boşaltılmış chunk: tick düşer
+        }
+        int id = getBlockId(x, y, z);
+        if (FluidSimulator.isFluid(id)) {
+            fluids.tick(x, y, z, id);
+        } else if (FallingBlockSimulator.isFalling(id)) {
+            fallingBlocks.tick(x, y, z);
+        }
+    }
+
+    /**
+     * Konumu delay tick sonra işlenmek üzere zamanlar (zaten kuyruktaysa
+     * bir şey yapmaz).
+     */
+    void scheduleBlockTick(int x, int y, int z, int delay) {
+        tickScheduler.schedule(x, y, z, tickCount + delay);
+    }
+
+    /**
+     * Bloktaki gökyüzü ışığı (0-15). Dünyanın üstünde, yüklü olmayan ve henüz
+     * aydınlatılmamış chunk'larda 15 (yüklü alanın kenarı kararmasın).
+     */
+    public int getSkyLight(int x, int y, int z) {
+        Chunk chunk = getChunk(x, z);
+        return chunk != null ? chunk.getSkyLight(x & 15, y, z & 15) : LightEngine.MAX_LIGHT;
+    }
+
+    /**
+     * Bloktaki blok ışığı (0-15, lambalardan).
+     */
+    public int getBlockLight(int x, int y, int z) {
+        Chunk chunk = getChunk(x, z);
+        return chunk != null ? chunk.getBlockLight(x & 15, y, z & 15) : 0;
+    }
+
+    public float getTimeOfDay() {
+        return timeOfDay;
+    }
+
+    public void setTimeOfDay(float timeOfDay) {
+        this.timeOfDay = timeOfDay - (float) Math.floor(timeOfDay);
+    }
+
+    /**
+     * Gökyüzü ışığının şu anki çarpanı: öğlen 1, gece yarısı
+     * {@link #NIGHT_DAYLIGHT}; gün doğumu ve batımında yumuşak geçiş.
+     */
+    public float getDaylight() {
+        float sun = (float) Math.sin((timeOfDay - 0.25f) * 2 * Math.PI);
+        float day = Math.max(0, Math.min(1, sun * 2.5f + 0.5f));
+        return NIGHT_DAYLIGHT + (1 - NIGHT_DAYLIGHT) * day;
+    }
+
+    public BlockTickScheduler getTickScheduler() {
+        return tickScheduler;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public void addChangeListener(BlockChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(BlockChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    /**
+     * Dünyadaki blok değişikliği ve chunk yükleme/boşaltma sayacı. Değeri
+     * değişmediyse bölge sorgularının sonucu da değişmemiştir.
+     */
+    public long getModificationCount() {
+        return modificationCount;
+    }
+
+    public ChunkStreamer getStreamer() {
+        return streamer;
+    }
+
     public void addBlock(int x, int y, int z, Block.Type type) {
-        Vector3i pos = new Vector3i(x, y, z);
-        blocks.put(pos, new Block(type));
+        setBlockId(x, y, z, type.getId());
+    }
+
+    public void setBlock(int x, int y, int z, Block block) {
+        setBlockId(x, y, z, block != null ? block.getId() : Block.AIR_ID);
     }
 
     public void removeBlock(Vector3i pos) {
-        blocks.remove(pos);
+        removeBlock(pos.x, pos.y, pos.z);
+    }
+
+    public void removeBlock(int x, int y, int z) {
+        setBlockId(x, y, z, Block.AIR_ID);
+    }
+
+    /**
+     * Bloğu sayısal id ile değiştirir ve eski id'yi döndürür. Nesne ayırmaz
+     * (yeni chunk oluşturma hariç).
+     */
+    public int setBlockId(int x, int y, int z, int id) {
+        return setBlockId(x, y, z, id, true);
+    }
+
+    /**
+     * Simülasyonun (su akışı vb.) değişiklikleri: günlüğe yazılır ve
+     * dinleyicilere bildirilir, ama geri al geçmişine girmez.
+     */
+    int setSimulatedBlockId(int x, int y, int z, int id) {
+        return setBlockId(x, y, z, id, false);
+    }
+
+    private int setBlockId(int x, int y, int z, int id, boolean recordHistory) {
+        if (!Chunk.isInHeight(y)) {
+            return Block.AIR_ID;
+        }
+        Chunk chunk = id == Block.AIR_ID ? getChunk(x, z) : getOrCreateChunk(x, z);
+        if (chunk == null) {
+            return Block.AIR_ID;
+        }
+        int old = chunk.setBlockId(x & 15, y, z & 15, id);
+        if (old != id) {
+            chunk.setModified(true);
+            markBlockDirty(x, y, z);
+            if (journal != null) {
+                journal.recordSet(x, y, z, id);
+            }
+            if (recordHistory) {
+                history.begin();
+                history.record(x, y, z, old, id);
+                history.end();
+            }
+        }
+        return old;
+    }
+
+    /**
+     * Son düzenleme adımını (tek blok veya toplu düzenleme) geri alır.
+     *
+     * @return geri alma yapıldı mı
+     */
+    public boolean undo() {
+        int count = history.undo(this);
+        if (count < 0) {
+            return false;
+        }
+        System.out.println("Geri alındı: " + count + " blok");
+        return true;
+    }
+
+    public boolean redo() {
+        int count = history.redo(this);
+        if (count < 0) {
+            return false;
+        }
+        System.out.println("Yinelendi: " + count + " blok");
+        return true;
+    }
+
+    public EditHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Toplu değişiklikleri uygular. Değişiklikler bölümlere (16³) göre
+     * gruplanıp doğrudan bölüm dizilerine yazılır; her etkilenen chunk için
+     * kirli bölümler tek seferde işaretlenir. Günlükte tek bir toplu düzenleme
+     * olarak yer alır (çökmede ya hep ya hiç).
+     *
+     * @return değişen blok sayısı
+     */
+    public int applyBatch(EditBatch batch) {
+        history.begin();
+        try {
+            return applyBatch(batch, true);
+        } finally {
+            history.end();
+        }
+    }
+
+    /**
+     * Geri al / yinele için: geçmişe kayıt yapmadan uygular.
+     */
+    int applyHistoryBatch(EditBatch batch) {
+        return applyBatch(batch, false);
     }
 
+    /**
+     * Simülasyonun toplu değişiklikleri: günlüğe yazılır, geri al geçmişine
+     * girmez.
+     */
+    int applySimulatedBatch(EditBatch batch) {
+        return applyBatch(batch, false);
+    }
+
+    private int applyBatch(EditBatch batch, boolean recordHistory) {
+        int n = batch.size();
+        if (n == 0) {
+            return 0;
+        }
+
+        // 1. geçiş: her değişikliğin bölüm grubunu bul ve grupları say
+        LongObjectMap<SectionEdits> groups = new LongObjectMap<>();
+        List<SectionEdits> order = new ArrayList<>();
+        int[] groupOf = new int[n];
+        SectionEdits last = null;
+        for (int i = 0; i < n; i++) {
+            int y = batch.getY(i);
+            if (!Chunk.isInHeight(y)) {
+                groupOf[i] = -1;
+                continue;
+            }
+            int chunkX = batch.getX(i) >> 4;
+            int chunkZ = batch.getZ(i) >> 4;
+            int sy = Chunk.sectionIndex(y);
+            if (last == null || last.chunkX != chunkX || last.chunkZ != chunkZ || last.sy != sy) {
+                long key = Chunk.sectionKey(chunkX, sy, chunkZ);
+                last = groups.get(key);
+                if (last == null) {
+                    last = new SectionEdits(chunkX, chunkZ, sy, order.size());
+                    groups.put(key, last);
+                    order.add(last);
+                }
+            }
+            last.count++;
+            groupOf[i] = last.index;
+        }
+
+        // 2. geçiş: değişiklikleri gruplara göre (sırayı koruyarak) diz
+        int offset = 0;
+        for (SectionEdits group : order) {
+            group.start = offset;
+            offset += group.count;
+            group.count = 0;
+        }
+        int[] sorted = new int[offset];
+        for (int i = 0; i < n; i++) {
+            if (groupOf[i] >= 0) {
+                SectionEdits group = order.get(groupOf[i]);
+                sorted[group.start + group.count++] = i;
+            }
+        }
+
+        // 3. geçiş: bölüm bölüm uygula
+        if (journal != null) {
+            journal.beginBatch();
+        }
+        LongObjectMap<ChunkEdits> edited = new LongObjectMap<>();
+        List<ChunkEdits> editedChunks = new ArrayList<>();
+        ChunkEdits chunkEdits = null;
+        int changed = 0;
+        for (SectionEdits group : order) {
+            if (chunkEdits == null || chunkEdits.chunkX != group.chunkX || chunkEdits.chunkZ != group.chunkZ) {
+                long key = chunkKey(group.chunkX, group.chunkZ);
+                chunkEdits = edited.get(key);
+                if (chunkEdits == null) {
+                    chunkEdits = new ChunkEdits(group.chunkX, group.chunkZ);
+                    edited.put(key, chunkEdits);
+                    editedChunks.add(chunkEdits);
+                }
+            }
+
+            ChunkSection section = null;
+            // Bölüm grubu boyunca chunk'ın yazma kilidi (okuyucular grubu bütün görür)
+            long stamp = 0;
+            int baseX = group.chunkX << 4;
+            int baseZ = group.chunkZ << 4;
+            try {
+                for (int k = group.start; k < group.start + group.count; k++) {
+                    int i = sorted[k];
+                    int id = batch.getId(i);
+                    if (section == null) {
+                        if (chunkEdits.chunk == null) {
+                            chunkEdits.chunk = id == Block.AIR_ID ? getChunkAt(group.chunkX, group.chunkZ)
+                                    : getOrCreateChunk(baseX, baseZ);
+                            if (chunkEdits.chunk == null) {
+                                continue; // Yüklü olmayan chunk'tan silme
+                            }
+                        }
+                        section = chunkEdits.chunk.sectionForWrite(group.sy);
+                        if (section == null) {
+                            if (id == Block.AIR_ID) {
+                                continue; // Boş bölümden silme
+                            }
+                            section = new ChunkSection();
+                        }
+                        stamp = chunkEdits.chunk.beginWrite();
+                    }
+                    int x = batch.getX(i);
+                    int y = batch.getY(i);
+                    int z = batch.getZ(i);
+                    int old = section.set(x & 15, y & 15, z & 15, id);
+                    if (old != id) {
+                        chunkEdits.markChanged(x & 15, y, z & 15);
+                        pendingChanges.markPosition(x, y, z);
+                        if (journal != null) {
+                            journal.recordSet(x, y, z, id);
+                        }
+                        if (recordHistory) {
+                            history.record(x, y, z, old, id);
+                        }
+                        changed++;
+                    }
+                }
+            } finally {
+                if (section != null) {
+                    chunkEdits.chunk.endWrite(stamp);
+                }
+            }
+            if (section != null) {
+                // Boşalan bölüm null olarak saklanır
+                chunkEdits.chunk.setSection(group.sy, section);
+            }
+        }
+        if (journal != null) {
+            journal.endBatch();
+        }
+
+        for (ChunkEdits group : editedChunks) {
+            if (group.sectionMask != 0) {
+                group.chunk.setModified(true);
+                markChunkEdited(group);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Kutuyu (sınırlar dahil) tek bir blokla doldurur. Tamamen kapsanan
+     * bölümler tek tip bölüm olarak doğrudan yazılır. Günlüğe değişen her
+     * chunk için kırpılmış kutu düşer (tek bir toplu düzenleme olarak); hava
+     * ile doldururken atlanan yüklü olmayan chunk'lar tekrar oynatmada da
+     * dokunulmadan kalır.
+     *
+     * @return değişen bölüm sayısı (tamamen veya kısmen)
+     */
+    public int fillRegion(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int id) {
+        int x0 = Math.min(minX, maxX);
+        int x1 = Math.max(minX, maxX);
+        int y0 = Math.max(Chunk.MIN_Y, Math.min(minY, maxY));
+        int y1 = Math.min(Chunk.MAX_Y, Math.max(minY, maxY));
+        int z0 = Math.min(minZ, maxZ);
+        int z1 = Math.max(minZ, maxZ);
+        if (y0 > y1) {
+            return 0;
+        }
+
+        history.begin();
+        int changedSections = 0;
+        boolean journalBatch = false;
+        for (int chunkX = x0 >> 4; chunkX <= x1 >> 4; chunkX++) {
+            for (int chunkZ = z0 >> 4; chunkZ <= z1 >> 4; chunkZ++) {
+                Chunk chunk = id == Block.AIR_ID ? getChunkAt(chunkX, chunkZ)
+                        : getOrCreateChunk(chunkX << 4, chunkZ << 4);
+                if (chunk == null) {
+                    continue;
+                }
+                // Chunk içindeki yerel sınırlar
+                int lx0 = Math.max(x0, chunkX << 4) & 15;
+                int lx1 = Math.min(x1, (chunkX << 4) + 15) & 15;
+                int lz0 = Math.max(z0, chunkZ << 4) & 15;
+                int lz1 = Math.min(z1, (chunkZ << 4) + 15) & 15;
+
+                ChunkEdits group = new ChunkEdits(chunkX, chunkZ);
+                for (int sy = Chunk.sectionIndex(y0); sy <= Chunk.sectionIndex(y1); sy++) {
+                    int baseY = Chunk.MIN_Y + (sy << 4);
+                    int ly0 = Math.max(y0, baseY) - baseY;
+                    int ly1 = Math.min(y1, baseY + 15) - baseY;
+
+                    boolean changed = false;
+                    if (lx0 == 0 && lx1 == 15 && lz0 == 0 && lz1 == 15 && ly0 == 0 && ly1 == 15) {
+                        recordSectionFill(chunk, sy, id);
+                        changed = chunk.fillSection(sy, id);
+                        if (changed) {
+                            pendingChanges.markSectionFill(chunkX, sy, chunkZ);
+                        }
+                    } else {
+                        for (int ly = ly0; ly <= ly1; ly++) {
+                            for (int lz = lz0; lz <= lz1; lz++) {
+                                for (int lx = lx0; lx <= lx1; lx++) {
+                                    int old = chunk.setBlockId(lx, baseY + ly, lz, id);
+                                    if (old != id) {
+                                        history.record((chunkX << 4) + lx, baseY + ly, (chunkZ << 4) + lz, old, id);
+                                        pendingChanges.markPosition((chunkX << 4) + lx, baseY + ly,
+                                                (chunkZ << 4) + lz);
+                                        changed = true;
+                                    }
+                                }
+                            }
+                        }
+                    }
+                    if (changed) {
+                        group.markBox(sy, lx0, ly0, lz0, lx1, ly1, lz1);
+                        changedSections++;
+                    }
+                }
+                if (group.sectionMask != 0) {
+                    chunk.setModified(true);
+                    markChunkEdited(group);
+                    if (journal != null) {
+                        if (!journalBatch) {
+                            journal.beginBatch();
+                            journalBatch = true;
+                        }
+                        journal.recordFill((chunkX << 4) + lx0, y0, (chunkZ << 4) + lz0,
+                                (chunkX << 4) + lx1, y1, (chunkZ << 4) + lz1, id);
+                    }
+                }
+            }
+        }
+
+        history.end();
+
+        if (journalBatch) {
+            journal.endBatch();
+        }
+        return changedSections;
+    }
+
+    /**
+     * Yapının hava olmayan bloklarını yerleştirir. Her hedef bölüm bir kez
+     * düz id dizisine açılır, yapının satırları bu diziye yazılır ve bölüm
+     * tek geçişte yeniden paketlenir; palete voksel voksel yazılmaz.
+     * Günlükte ve geçmişte tek bir toplu düzenleme olarak yer alır.
+     *
+     * @return değişen blok sayısı
+     */
+    public int placeStructure(Structure structure, int baseX, int baseY, int baseZ) {
+        int maxX = baseX + structure.getSizeX() - 1;
+        int maxZ = baseZ + structure.getSizeZ() - 1;
+        int y0 = Math.max(baseY, Chunk.MIN_Y);
+        int y1 = Math.min(baseY + structure.getSizeY() - 1, Chunk.MAX_Y);
+        if (structure.getBlockCount() == 0 || y0 > y1) {
+            return 0;
+        }
+
+        short[] row = new short[ChunkSection.SIZE];
+        short[] ids = new short[ChunkSection.VOLUME];
+        int changed = 0;
+        if (journal != null) {
+            journal.beginBatch();
+        }
+        history.begin();
+        for (int chunkX = baseX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = baseZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                int worldX = chunkX << 4;
+                int worldZ = chunkZ << 4;
+                // Chunk içindeki yerel sınırlar
+                int lx0 = Math.max(baseX, worldX) - worldX;
+                int lx1 = Math.min(maxX, worldX + 15) - worldX;
+                int lz0 = Math.max(baseZ, worldZ) - worldZ;
+                int lz1 = Math.min(maxZ, worldZ + 15) - worldZ;
+
+                Chunk chunk = null;
+                ChunkEdits group = new ChunkEdits(chunkX, chunkZ);
+                for (int sy = Chunk.sectionIndex(y0); sy <= Chunk.sectionIndex(y1); sy++) {
+                    int sectionY = Chunk.MIN_Y + (sy << 4);
+                    int ly0 = Math.max(y0, sectionY) - sectionY;
+                    int ly1 = Math.min(y1, sectionY + 15) - sectionY;
+
+                    ChunkSection section = null;
+                    boolean loaded = false;
+                    int sectionChanges = 0;
+                    for (int ly = ly0; ly <= ly1; ly++) {
+                        for (int lz = lz0; lz <= lz1; lz++) {
+                            structure.readRow(worldX + lx0 - baseX, sectionY + ly - baseY, worldZ + lz - baseZ,
+                                    row, 0, lx1 - lx0 + 1);
+                            int dst = ChunkSection.index(lx0, ly, lz);
+                            for (int lx = lx0; lx <= lx1; lx++, dst++) {
+                                int id = row[lx - lx0];
+                                if (id == Block.AIR_ID) {
+                                    continue;
+                                }
+                                if (!loaded) {
+                                    // Bölüm yalnızca yazılacak blok varsa açılır
+                                    if (chunk == null) {
+                                        chunk = getOrCreateChunk(worldX, worldZ);
+                                    }
+                                    section = chunk.getSection(sy);
+                                    if (section != null) {
+                                        section.copyIds(ids);
+                                    } else {
+                                        Arrays.fill(ids, (short) Block.AIR_ID);
+                                    }
+                                    loaded = true;
+                                }
+                                int old = ids[dst];
+                                if (old != id) {
+                                    ids[dst] = (short) id;
+                                    if (journal != null) {
+                                        journal.recordSet(worldX + lx, sectionY + ly, worldZ + lz, id);
+                                    }
+                                    history.record(worldX + lx, sectionY + ly, worldZ + lz, old, id);
+                                    group.markChanged(lx, sectionY + ly, lz);
+                                    pendingChanges.markPosition(worldX + lx, sectionY + ly, worldZ + lz);
+                                    sectionChanges++;
+                                }
+                            }
+                        }
+                    }
+                    if (sectionChanges > 0) {
+                        chunk.setSection(sy, ChunkSection.fromIds(ids));
+                        changed += sectionChanges;
+                    }
+                }
+                if (group.sectionMask != 0) {
+                    chunk.setModified(true);
+                    markChunkEdited(group);
+                }
+            }
+        }
+        history.end();
+        if (journal != null) {
+            journal.endBatch();
+        }
+        return changed;
+    }
+
+    /**
+     * Tamamen doldurulacak bölümün değişecek vokselleri geçmişe yazılır.
+     */
+    private void recordSectionFill(Chunk chunk, int sy, int id) {
+        ChunkSection section = chunk.getSection(sy);
+        int baseX = chunk.getChunkX() << 4;
+        int baseY = Chunk.MIN_Y + (sy << 4);
+        int baseZ = chunk.getChunkZ() << 4;
+        if (section == null || section.isUniform()) {
+            int old = section == null ? Block.AIR_ID : section.get(0);
+            if (old == id) {
+                return;
+            }
+        }
+        for (int index = 0; index < ChunkSection.VOLUME; index++) {
+            int old = section == null ? Block.AIR_ID : section.get(index);
+            if (old != id) {
+                history.record(baseX + (index & 15), baseY + (index >> 8), baseZ + ((index >> 4) & 15), old, id);
+            }
+        }
+    }
+
+    /**
+     * Toplu değişiklikte tek bir bölüme düşen düzenlemeler (sıralı dizideki
+     * aralık).
+     */
+    private static class SectionEdits {
+        final int chunkX;
+        final int chunkZ;
+        final int sy;
+        final int index;
+        int start;
+        int count;
+
+        SectionEdits(int chunkX, int chunkZ, int sy, int index) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.sy = sy;
+            this.index = index;
+        }
+    }
+
+    /**
+     * Bir chunk'taki toplu değişikliklerin etkilediği bölümler (bit maskeleri,
+     * bölüm indeksine göre).
+     */
+    private static class ChunkEdits {
+        final int chunkX;
+        final int chunkZ;
+        Chunk chunk;
+
+        // Değişen bölümler (dikey komşular dahil)
+        int sectionMask;
+        // Kenardaki değişiklikler nedeniyle komşu chunk'larda etkilenen bölümler
+        int westMask;
+        int eastMask;
+        int northMask;
+        int southMask;
+        // Köşedeki değişiklikler nedeniyle çapraz komşularda (ortam örtmesi)
+        int northWestMask;
+        int northEastMask;
+        int southWestMask;
+        int southEastMask;
+
+        ChunkEdits(int chunkX, int chunkZ) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+
+        void markChanged(int lx, int y, int lz) {
+            int sy = Chunk.sectionIndex(y);
+            markBox(sy, lx, y & 15, lz, lx, y & 15, lz);
+        }
+
+        void markBox(int sy, int lx0, int ly0, int lz0, int lx1, int ly1, int lz1) {
+            int bit = 1 << sy;
+            if (ly0 == 0 && sy > 0) {
+                bit |= bit >>> 1;
+            }
+            if (ly1 == 15 && sy < Chunk.SECTION_COUNT - 1) {
+                bit |= (1 << sy) << 1;
+            }
+            sectionMask |= bit;
+            if (lx0 == 0) {
+                westMask |= bit;
+                if (lz0 == 0) {
+                    northWestMask |= bit;
+                }
+                if (lz1 == 15) {
+                    southWestMask |= bit;
+                }
+            }
+            if (lx1 == 15) {
+                eastMask |= bit;
+                if (lz0 == 0) {
+                    northEastMask |= bit;
+                }
+                if (lz1 == 15) {
+                    southEastMask |= bit;
+                }
+            }
+            if (lz0 == 0) {
+                northMask |= bit;
+            }
+            if (lz1 == 15) {
+                southMask |= bit;
+            }
+        }
+    }
+
+    /**
+     * Toplu değişiklik sonrası chunk'ın etkilenen bölümlerini ve kenar
+     * komşularını tek seferde kirli işaretler.
+     */
+    private void markChunkEdited(ChunkEdits group) {
+        markSectionsDirty(group.chunkX, group.chunkZ, group.sectionMask);
+        markSectionsDirty(group.chunkX - 1, group.chunkZ, group.westMask);
+        markSectionsDirty(group.chunkX + 1, group.chunkZ, group.eastMask);
+        markSectionsDirty(group.chunkX, group.chunkZ - 1, group.northMask);
+        markSectionsDirty(group.chunkX, group.chunkZ + 1, group.southMask);
+        markSectionsDirty(group.chunkX - 1, group.chunkZ - 1, group.northWestMask);
+        markSectionsDirty(group.chunkX + 1, group.chunkZ - 1, group.northEastMask);
+        markSectionsDirty(group.chunkX - 1, group.chunkZ + 1, group.southWestMask);
+        markSectionsDirty(group.chunkX + 1, group.chunkZ + 1, group.southEastMask);
+    }
+
+    private void markSectionsDirty(int chunkX, int chunkZ, int mask) {
+        while (mask != 0) {
+            int sy = Integer.numberOfTrailingZeros(mask);
+            markSectionDirty(chunkX, sy, chunkZ);
+            mask &= mask - 1;
+        }
+    }
+
+    /**
+     * Koordinattaki blok id'sini döndürür (hava için 0). Nesne ayırmaz.
+     */
+    public int getBlockId(int x, int y, int z) {
+        Chunk chunk = getChunk(x, z);
+        if (chunk == null) {
+            return Block.AIR_ID;
+        }
+        return chunk.getBlockId(x & 15, y, z & 15);
+    }
+
+    /**
+     * Koordinattaki blok tipini döndürür (hava için null). Nesne ayırmaz.
+     */
+    public Block.Type getBlockType(int x, int y, int z) {
+        return Block.Type.fromId(getBlockId(x, y, z));
+    }
+
+    /**
+     * Koordinattaki bloğun paylaşılan, salt okunur örneğini döndürür (hava için
+     * null). Nesne ayırmaz.
+     */
     public Block getBlock(int x, int y, int z) {
-        return blocks.get(new Vector3i(x, y, z));
+        return Block.byId(getBlockId(x, y, z));
     }
 
     public Block getBlock(Vector3i pos) {
-        return blocks.get(pos);
+        return getBlock(pos.x, pos.y, pos.z);
     }
 
     public boolean hasBlock(int x, int y, int z) {
-        return blocks.containsKey(new Vector3i(x, y, z));
+        return getBlockId(x, y, z) != Block.AIR_ID;
     }
 
     public boolean hasBlock(Vector3i pos) {
-        return blocks.containsKey(pos);
+        return hasBlock(pos.x, pos.y, pos.z);
     }
 
-    public Map<Vector3i, Block> getBlocks() {
-        return blocks;
+    /**
+     * Dünyadaki tüm blokları gezer. Boş bölümler atlanır.
+     */
+    public void forEachBlock(BlockVisitor visitor) {
+        AtomicReferenceArray<Chunk> view = chunks.view();
+        for (int slot = 0; slot < view.length(); slot++) {
+            Chunk chunk = ChunkTable.valueAt(view, slot);
+            if (chunk == null) {
+                continue;
+            }
+            int baseX = chunk.getChunkX() << 4;
+            int baseZ = chunk.getChunkZ() << 4;
+            for (int sy = 0; sy < Chunk.SECTION_COUNT; sy++) {
+                ChunkSection section = chunk.getSection(sy);
+                if (section == null || section.isEmpty()) {
+                    continue;
+                }
+                int baseY = Chunk.MIN_Y + (sy << 4);
+                for (int i = 0; i < ChunkSection.VOLUME; i++) {
+                    Block.Type type = Block.Type.fromId(section.get(i));
+                    if (type != null) {
+                        visitor.visit(baseX + (i & 15), baseY + (i >> 8), baseZ + ((i >> 4) & 15), type);
+                    }
+                }
+            }
+        }
+    }
+
+    // Bölge sorgusu için kutuyla kesişen bölüm ve bölüm içindeki yerel kutu
+    private interface SectionQuery {
+        void accept(ChunkSection section, int baseX, int baseY, int baseZ,
+                int x0, int y0, int z0, int x1, int y1, int z1);
+    }
+
+    /**
+     * Kutuyla (uçlar dahil) kesişen yüklü ve boş olmayan bölümleri gezer.
+     */
+    private void forEachSectionInBox(int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+            SectionQuery query) {
+        minY = Math.max(minY, Chunk.MIN_Y);
+        maxY = Math.min(maxY, Chunk.MAX_Y);
+        if (minX > maxX || minY > maxY || minZ > maxZ) {
+            return;
+        }
+        int minSection = Chunk.sectionIndex(minY);
+        int maxSection = Chunk.sectionIndex(maxY);
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            int baseX = chunkX << 4;
+            int x0 = Math.max(minX - baseX, 0);
+            int x1 = Math.min(maxX - baseX, 15);
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                Chunk chunk = getChunkAt(chunkX, chunkZ);
+                if (chunk == null) {
+                    continue;
+                }
+                int baseZ = chunkZ << 4;
+                int z0 = Math.max(minZ - baseZ, 0);
+                int z1 = Math.min(maxZ - baseZ, 15);
+                for (int sy = minSection; sy <= maxSection; sy++) {
+                    ChunkSection section = chunk.getSection(sy);
+                    if (section == null || section.isEmpty()) {
+                        continue;
+                    }
+                    int baseY = Chunk.MIN_Y + (sy << 4);
+                    int y0 = Math.max(minY - baseY, 0);
+                    int y1 = Math.min(maxY - baseY, 15);
+                    query.accept(section, baseX, baseY, baseZ, x0, y0, z0, x1, y1, z1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Kutudaki (uçlar dahil) hava olmayan blokları gezer. Boş bölümler ve
+     * yüklenmemiş chunk'lar atlanır; bölümler satır satır açılır.
+     */
+    public void forEachBlockInBox(int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+            BlockVisitor visitor) {
+        short[] ids = new short[ChunkSection.VOLUME];
+        forEachSectionInBox(minX, minY, minZ, maxX, maxY, maxZ,
+                (section, baseX, baseY, baseZ, x0, y0, z0, x1, y1, z1) -> {
+                    section.copyIds(ids);
+                    for (int y = y0; y <= y1; y++) {
+                        for (int z = z0; z <= z1; z++) {
+                            int row = ChunkSection.index(0, y, z);
+                            for (int x = x0; x <= x1; x++) {
+                                Block.Type type = Block.Type.fromId(ids[row + x]);
+                                if (type != null) {
+                                    visitor.visit(baseX + x, baseY + y, baseZ + z, type);
+                                }
+                            }
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Kutudaki (uçlar dahil) hava olmayan blok sayısı. Tamamen kapsanan
+     * bölümler sayaçtan okunur, yalnızca kenar bölümleri gezilir.
+     */
+    public long countBlocks(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        long[] count = new long[1];
+        forEachSectionInBox(minX, minY, minZ, maxX, maxY, maxZ,
+                (section, baseX, baseY, baseZ, x0, y0, z0, x1, y1, z1) -> {
+                    if (isWholeSection(x0, y0, z0, x1, y1, z1)) {
+                        count[0] += section.getNonAirCount();
+                    } else {
+                        count[0] += section.countNonAir(x0, y0, z0, x1, y1, z1);
+                    }
+                });
+        return count[0];
+    }
+
+    /**
+     * Kutudaki (uçlar dahil) blok tiplerinin sayısı: sonuç[id], sonuç[0] hava
+     * (yüklenmemiş alan dahil). Tamamen kapsanan bölümler palet sayaçlarından
+     * okunur. Dizi uzunluğu {@link BlockRegistry#size()}'dır.
+     *
+     * @throws IllegalStateException kayıt defterinde olmayan bir id bulunursa
+     */
+    public long[] getBlockHistogram(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        long[] histogram = new long[BlockRegistry.size()];
+        forEachSectionInBox(minX, minY, minZ, maxX, maxY, maxZ,
+                (section, baseX, baseY, baseZ, x0, y0, z0, x1, y1, z1) -> {
+                    if (isWholeSection(x0, y0, z0, x1, y1, z1)) {
+                        section.addTypeCounts(histogram);
+                    } else {
+                        section.addTypeCounts(histogram, x0, y0, z0, x1, y1, z1);
+                    }
+                });
+        long volume = (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+        long nonAir = 0;
+        for (int id = 1; id < histogram.length; id++) {
+            nonAir += histogram[id];
+        }
+        histogram[Block.AIR_ID] = Math.max(0, volume - nonAir);
+        return histogram;
+    }
+
+    private static boolean isWholeSection(int x0, int y0, int z0, int x1, int y1, int z1) {
+        return (x0 | y0 | z0) == 0 && (x1 & y1 & z1) == 15;
+    }
+
+    public int getBlockCount() {
+        int count = 0;
+        for (Chunk chunk : chunks.values()) {
+            count += chunk.getBlockCount();
+        }
+        return count;
+    }
+
+    /**
+     * Chunk deposunun bellek kullanımını, aynı blokların eski
+     * HashMap&lt;Vector3i, Block&gt; düzeninde tutacağı yerle karşılaştırır.
+     */
+    public String getMemoryReport() {
+        int sectionCount = 0;
+        int uniformCount = 0;
+        long bytes = 0;
+        for (Chunk chunk : chunks.values()) {
+            bytes += chunk.estimateMemoryBytes();
+            for (int sy = 0; sy < Chunk.SECTION_COUNT; sy++) {
+                ChunkSection section = chunk.getSection(sy);
+                if (section != null) {
+                    sectionCount++;
+                    if (section.isUniform()) {
+                        uniformCount++;
+                    }
+                }
+            }
+        }
+
+        long blockCount = getBlockCount();
+        long mapBytes = blockCount * HASHMAP_BYTES_PER_BLOCK;
+        return String.format(
+                "Bellek: %d chunk, %d bölüm (%d tek tip), %d blok -> ~%d KB (HashMap ile ~%d KB, %.1f bayt/blok)",
+                chunks.size(), sectionCount, uniformCount, blockCount, bytes / 1024, mapBytes / 1024,
+                blockCount > 0 ? (double) bytes / blockCount : 0.0);
     }
 
     public Block.Type getSelectedBlockType() {
@@ -194,8 +1397,8 @@ public class World {
         this.selectedBlockType = type;
     }
 
-    public List<Structure> getSavedStructures() {
-        return savedStructures;
+    public StructureLibrary getStructureLibrary() {
+        return structureLibrary;
     }
 
     public void setSelectedStructure(Structure structure) {
@@ -210,7 +1413,64 @@ public class World {
         return selectedStructure;
     }
 
+    /**
+     * Değiştirilmiş tüm chunk'ları (yüklü ve boşaltılmayı bekleyen) diske yazar.
+     *
+     * @return kayıt başarılıysa (veya yazılacak bir şey yoksa) true
+     */
+    public boolean save() {
+        if (storage == null) {
+            return false;
+        }
+        List<Chunk> modified = new ArrayList<>(streamer.getParkedChunks());
+        for (Chunk chunk : getLoadedChunks()) {
+            if (chunk.isModified()) {
+                modified.add(chunk);
+            }
+        }
+        if (modified.isEmpty()) {
+            return true;
+        }
+
+        long start = System.nanoTime();
+        try {
+            storage.saveChunks(modified);
+            for (Chunk chunk : modified) {
+                chunk.setModified(false);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Dünya kaydedildi: %d chunk, %.2f s (%.0f chunk/s)%n",
+                    modified.size(), seconds, modified.size() / seconds);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Dünya kaydedilemedi: " + e.getMessage());
+            return false;
+        }
+    }
+
     public void cleanup() {
-        blocks.clear();
+        streamer.shutdown();
+        if (journal != null) {
+            // Süren sıkıştırmanın eski görüntüleri son kaydı ezmemeli
+            journal.shutdown();
+        }
+        boolean saved = save();
+        if (journal != null) {
+            journal.close(saved);
+        }
+        structureLibrary.close();
+        if (storage != null) {
+            System.out.println(storage.getStatsReport());
+            try {
+                storage.close();
+            } catch (IOException e) {
+                System.err.println("Kayıt dosyaları kapatılamadı: " + e.getMessage());
+            }
+        }
+        for (Chunk chunk : chunks.values()) {
+            chunk.setInWorld(false);
+        }
+        chunks.clear();
+        lastChunk = null;
     }
 }
@@ -0,0 +1,274 @@
+package com.blockworld.world;
+
+import com.blockworld.storage.ChunkSerializer;
+import com.blockworld.storage.EditJournal;
+import com.blockworld.storage.RegionStorage;
+import com.blockworld.util.LongObjectMap;
+import com.blockworld.world.gen.ChunkGenerator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dünya düzenlemelerini {@link EditJournal}'a yazar, günlüğü bölge
+ * dosyalarına katlar (sıkıştırma) ve çökme sonrası günlüğü yeniden oynatır.
+ *
+ * Disk işlemleri ayrı bir iş parçacığında yapılır. Kurtarma veya sıkıştırma
+ * sürerken chunk yüklemeleri {@link #awaitDiskIdle()} ile bekletilir; böylece
+ * diskten henüz güncellenmemiş bir chunk okunmaz, oyun döngüsü ise hiç
+ * beklemez.
+ *
+ * Sıkıştırılan chunk'ların "değişti" bayrağı ancak yazma başarıyla bitince,
+ * görüntüden sonra yeniden değişmemişlerse temizlenir. Başarısız bir
+ * sıkıştırmadan sonra bir sıkıştırma başarılı olana kadar hiçbir parça
+ * silinmez; o ana kadar düzenlemeler hem bellekte değişmiş olarak hem de
+ * günlükte durur.
+ */
+public class WorldJournal {
+
+    // Sıkıştırma aralığı (60 UPS'de yaklaşık 5 dakika)
+    private static final int COMPACT_INTERVAL_TICKS = 60 * 60 * 5;
+    // Günlük parçası bu boyutu geçince beklemeden sıkıştır
+    private static final long COMPACT_SEGMENT_BYTES = 8L * 1024 * 1024;
+
+    private final RegionStorage storage;
+    private final EditJournal journal;
+    private final ExecutorService executor;
+
+    // Kurtarma/sıkıştırma bitene kadar tamamlanmayan iş
+    private volatile CompletableFuture<Void> loadBarrier;
+
+    // Önceki oturumdan kalan (kapanışta silinmemiş) parçalar
+    private List<Integer> pendingRecovery;
+    private volatile boolean recovered;
+
+    private int ticksSinceCompaction;
+
+    // Son sıkıştırmanın yazdığı yüklü chunk'lar ve görüntüleri (oyun döngüsü)
+    private List<Chunk> compactedChunks;
+    private List<Chunk> compactedSnapshots;
+    // Son sıkıştırma tamamlandı mı, başarılı mı
+    private volatile boolean compactionSucceeded;
+    // Başarısız bir sıkıştırmadan beri başarılı olan olmadı (parça silinmez)
+    private volatile boolean compactionFailed;
+
+    public WorldJournal(RegionStorage storage) throws IOException {
+        this.storage = storage;
+        List<Integer> leftover = EditJournal.listSegments(storage.getDirectory());
+        this.journal = new EditJournal(storage.getDirectory());
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "JournalCompactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.loadBarrier = CompletableFuture.completedFuture(null);
+        this.pendingRecovery = leftover;
+        this.recovered = leftover.isEmpty();
+    }
+
+    /**
+     * Önceki oturum düzgün kapanmadıysa kalan günlük parçalarını arka planda
+     * bölge dosyalarına uygular.
+     */
+    public void recover(ChunkGenerator generator) {
+        if (pendingRecovery.isEmpty()) {
+            return;
+        }
+        List<Integer> segments = pendingRecovery;
+        pendingRecovery = List.of();
+        loadBarrier = CompletableFuture.runAsync(() -> replay(segments, generator), executor);
+    }
+
+    private void replay(List<Integer> segments, ChunkGenerator generator) {
+        long start = System.nanoTime();
+        LongObjectMap<Chunk> touched = new LongObjectMap<>();
+        int[] records = new int[1];
+        try {
+            for (int id : segments) {
+                records[0] += EditJournal.read(EditJournal.segmentPath(storage.getDirectory(), id),
+                        (x, y, z, blockId) -> {
+                            int chunkX = x >> 4;
+                            int chunkZ = z >> 4;
+                            long key = World.chunkKey(chunkX, chunkZ);
+                            Chunk chunk = touched.get(key);
+                            if (chunk == null) {
+                                chunk = loadOrGenerate(chunkX, chunkZ, generator);
+                                touched.put(key, chunk);
+                            }
+                            chunk.setBlockId(x & 15, y, z & 15, blockId);
+                        });
+            }
+            storage.saveChunks(touched.values());
+            storage.flush();
+            journal.deleteSegmentsUpTo(segments.get(segments.size() - 1));
+            recovered = true;
+            System.out.printf("Günlük yeniden oynatıldı: %d düzenleme, %d chunk, %.2f s%n",
+                    records[0], touched.size(), (System.nanoTime() - start) / 1e9);
+        } catch (IOException e) {
+            // Parçalar silinmez, bir sonraki açılışta yeniden denenir
+            System.err.println("Günlük yeniden oynatılamadı: " + e.getMessage());
+        }
+    }
+
+    private Chunk loadOrGenerate(int chunkX, int chunkZ, ChunkGenerator generator) {
+        try {
+            Chunk loaded = storage.loadChunk(chunkX, chunkZ);
+            if (loaded != null && loaded.isPopulated()) {
+                return loaded;
+            }
+        } catch (IOException e) {
+            System.err.println("Chunk yüklenemedi (" + chunkX + ", " + chunkZ + "): " + e.getMessage());
+        }
+        // Günlük kayıtları mutlak olduğu için üretilmiş arazinin üzerine uygulanır
+        Chunk chunk = new Chunk(chunkX, chunkZ);
+        generator.generate(chunk);
+        chunk.setPopulated(true);
+        return chunk;
+    }
+
+    public void recordSet(int x, int y, int z, int id) {
+        journal.recordSet(x, y, z, id);
+    }
+
+    public void recordFill(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int id) {
+        journal.recordFill(minX, minY, minZ, maxX, maxY, maxZ, id);
+    }
+
+    public void beginBatch() {
+        journal.beginBatch();
+    }
+
+    public void endBatch() {
+        journal.endBatch();
+    }
+
+    /**
+     * Her tick çağrılır; zamanı gelince sıkıştırmayı başlatır.
+     */
+    public void update(World world) {
+        if (compactedChunks != null && loadBarrier.isDone()) {
+            finishCompaction();
+        }
+        ticksSinceCompaction++;
+        if (ticksSinceCompaction < COMPACT_INTERVAL_TICKS && journal.getSegmentSize() < COMPACT_SEGMENT_BYTES) {
+            return;
+        }
+        if (!loadBarrier.isDone() || !recovered) {
+            return; // Önceki iş sürüyor ya da eski parçalar uygulanamadı
+        }
+        ticksSinceCompaction = 0;
+        compact(world);
+    }
+
+    /**
+     * Günlüğü döndürür ve o ana kadarki değişiklikleri içeren chunk'ların
+     * copy-on-write görüntüsünü alır (oyun döngüsünde chunk başına sabit
+     * maliyet; serileştirme yok). Görüntüler arka planda serileştirilip
+     * yazılınca kapanan parçalar silinir.
+     */
+    private void compact(World world) {
+        int closed = journal.rotate();
+
+        List<Chunk> snapshots = new ArrayList<>();
+        for (Chunk chunk : world.getStreamer().getUnsavedChunks()) {
+            snapshots.add(chunk.snapshot());
+        }
+        // Bayraklar yazma bitene kadar kalır (finishCompaction)
+        List<Chunk> loaded = new ArrayList<>();
+        List<Chunk> loadedSnapshots = new ArrayList<>();
+        for (Chunk chunk : world.getLoadedChunks()) {
+            if (chunk.isModified()) {
+                Chunk snapshot = chunk.snapshot();
+                snapshots.add(snapshot);
+                loaded.add(chunk);
+                loadedSnapshots.add(snapshot);
+            }
+        }
+        compactedChunks = loaded;
+        compactedSnapshots = loadedSnapshots;
+        compactionSucceeded = false;
+
+        loadBarrier = CompletableFuture.runAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                journal.flush();
+                for (Chunk chunk : snapshots) {
+                    storage.saveSerialized(chunk.getChunkX(), chunk.getChunkZ(), ChunkSerializer.toBytes(chunk));
+                }
+                storage.flush();
+                // Önceki başarısız sıkıştırmanın chunk'ları hâlâ değişmiş
+                // işaretli olduğundan bu yazmaya dahildir
+                journal.deleteSegmentsUpTo(closed);
+                compactionFailed = false;
+                compactionSucceeded = true;
+                System.out.printf("Günlük sıkıştırıldı: %d chunk, %.2f s%n",
+                        snapshots.size(), (System.nanoTime() - start) / 1e9);
+            } catch (IOException | RuntimeException e) {
+                // Parçalar silinmez, bayraklar kalır; sonraki sıkıştırma veya
+                // kayıt yeniden yazar, çökmede yeniden oynatılır
+                compactionFailed = true;
+                System.err.println("Günlük sıkıştırılamadı: " + e.getMessage());
+            }
+        }, executor);
+    }
+
+    /**
+     * Biten sıkıştırmanın ardından (oyun döngüsünde): yazma başarılıysa
+     * görüntüden sonra değişmemiş chunk'ların bayrağını temizler.
+     */
+    private void finishCompaction() {
+        if (compactionSucceeded) {
+            for (int i = 0; i < compactedChunks.size(); i++) {
+                Chunk chunk = compactedChunks.get(i);
+                if (chunk.isUnchangedSince(compactedSnapshots.get(i))) {
+                    chunk.setModified(false);
+                }
+            }
+        }
+        compactedChunks = null;
+        compactedSnapshots = null;
+    }
+
+    /**
+     * Bölge dosyalarına dokunmadan önce (yükleme ve kaydetme) çağrılır; süren
+     * kurtarma veya sıkıştırma varsa bitmesini bekler. Oyun döngüsünden
+     * çağrılmamalıdır.
+     */
+    public void awaitDiskIdle() {
+        loadBarrier.join();
+    }
+
+    /**
+     * Yeni iş kabul etmeyi bırakır ve süren işin bitmesini bekler.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Günlüğü kapatır. Dünya başarıyla kaydedildiyse, eski parçalar
+     * uygulanmışsa ve son sıkıştırma başarısız kalmadıysa tüm parçalar
+     * silinir; aksi halde bir sonraki açılışta sırayla yeniden oynatılır.
+     */
+    public void close(boolean saved) {
+        try {
+            int last = journal.getSegment();
+            journal.close();
+            if (saved && recovered && !compactionFailed) {
+                journal.deleteSegmentsUpTo(last);
+            }
+        } catch (IOException e) {
+            System.err.println("Günlük kapatılamadı: " + e.getMessage());
+        }
+    }
+}
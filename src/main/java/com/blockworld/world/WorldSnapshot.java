@@ -0,0 +1,107 @@
+package com.blockworld.world;
+
+import com.blockworld.util.LongObjectMap;
+
+import java.util.List;
+
+/**
+ * Dünyanın bir andaki değişmez görüntüsü ({@link World#snapshot()}).
+ *
+ * Chunk görüntüleri canlı chunk'larla bölüm nesnelerini paylaşır; canlı
+ * taraf paylaşılan bir bölümü değiştirmeden önce kopyalar. Görüntü bu yüzden
+ * chunk sayısıyla orantılı sürede alınır, sonra hiç değişmez ve her iş
+ * parçacığından kilitsiz okunabilir (kaydediciler, yedekler, dışa aktarma).
+ */
+public class WorldSnapshot {
+
+    private final LongObjectMap<Chunk> chunks;
+
+    WorldSnapshot(List<Chunk> snapshots) {
+        this.chunks = new LongObjectMap<>(Math.max(16, snapshots.size()));
+        for (Chunk chunk : snapshots) {
+            chunks.put(World.chunkKey(chunk.getChunkX(), chunk.getChunkZ()), chunk);
+        }
+    }
+
+    /**
+     * Chunk görüntüsü (yoksa null). Döndürülen chunk salt okunurdur.
+     */
+    public Chunk getChunk(int chunkX, int chunkZ) {
+        return chunks.get(World.chunkKey(chunkX, chunkZ));
+    }
+
+    public List<Chunk> getChunks() {
+        return chunks.values();
+    }
+
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    public int getBlockId(int x, int y, int z) {
+        Chunk chunk = getChunk(x >> 4, z >> 4);
+        if (chunk == null || !Chunk.isInHeight(y)) {
+            return Block.AIR_ID;
+        }
+        ChunkSection section = chunk.getSection(Chunk.sectionIndex(y));
+        return section != null ? section.get(x & 15, y & 15, z & 15) : Block.AIR_ID;
+    }
+
+    public Block.Type getBlockType(int x, int y, int z) {
+        return Block.Type.fromId(getBlockId(x, y, z));
+    }
+
+    public long getBlockCount() {
+        long count = 0;
+        for (int slot = 0; slot < chunks.capacity(); slot++) {
+            Chunk chunk = chunks.valueAt(slot);
+            if (chunk != null) {
+                count += chunk.getBlockCount();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Bu görüntüyle daha eski bir görüntü arasında farklı olan bölümlerin
+     * anahtarlarını ({@link Chunk#sectionKey}) döndürür. Değişmeyen bölümler
+     * iki görüntüde aynı nesne olduğundan voksel karşılaştırması yapılmaz.
+     * Arada boşaltılıp diskten yeniden yüklenen bölümler içerik aynı olsa da
+     * değişmiş sayılır.
+     */
+    public long[] diffSections(WorldSnapshot older) {
+        LongObjectMap<Boolean> changed = new LongObjectMap<>();
+        for (int slot = 0; slot < chunks.capacity(); slot++) {
+            Chunk chunk = chunks.valueAt(slot);
+            if (chunk != null) {
+                collectChanged(chunk, older.getChunk(chunk.getChunkX(), chunk.getChunkZ()), changed);
+            }
+        }
+        // Yalnızca eski görüntüde bulunan chunk'lar
+        for (int slot = 0; slot < older.chunks.capacity(); slot++) {
+            Chunk chunk = older.chunks.valueAt(slot);
+            if (chunk != null && getChunk(chunk.getChunkX(), chunk.getChunkZ()) == null) {
+                collectChanged(chunk, null, changed);
+            }
+        }
+
+        long[] keys = new long[changed.size()];
+        int count = 0;
+        for (int slot = 0; slot < changed.capacity(); slot++) {
+            if (changed.valueAt(slot) != null) {
+                keys[count++] = changed.keyAt(slot);
+            }
+        }
+        return keys;
+    }
+
+    private static void collectChanged(Chunk chunk, Chunk other, LongObjectMap<Boolean> changed) {
+        for (int sy = 0; sy < Chunk.SECTION_COUNT; sy++) {
+            ChunkSection section = chunk.getSection(sy);
+            ChunkSection otherSection = other != null ? other.getSection(sy) : null;
+            if (section != otherSection) {
+                changed.put(Chunk.sectionKey(chunk.getChunkX(), sy, chunk.getChunkZ()), Boolean.TRUE);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.blockworld.world.gen;
+
+import com.blockworld.world.Chunk;
+
+/**
+ * Boş bir chunk'ın arazisini üreten arayüz.
+ *
+ * Uygulamalar birden fazla iş parçacığından aynı anda çağrılır; yalnızca
+ * verilen chunk'a yazmalı ve sonucu yalnızca tohum ile chunk koordinatlarına
+ * bağlı olmalıdır.
+ */
+public interface ChunkGenerator {
+
+    void generate(Chunk chunk);
+}
@@ -0,0 +1,29 @@
+package com.blockworld.world.gen;
+
+import com.blockworld.world.Block;
+import com.blockworld.world.Chunk;
+
+/**
+ * y = 0 seviyesinde tek katmanlı düz zemin üretir.
+ */
+public class FlatChunkGenerator implements ChunkGenerator {
+
+    private final Block.Type surface;
+
+    public FlatChunkGenerator() {
+        this(Block.Type.GRASS);
+    }
+
+    public FlatChunkGenerator(Block.Type surface) {
+        this.surface = surface;
+    }
+
+    @Override
+    public void generate(Chunk chunk) {
+        for (int x = 0; x < Chunk.SIZE; x++) {
+            for (int z = 0; z < Chunk.SIZE; z++) {
+                chunk.setBlockId(x, 0, z, surface.getId());
+            }
+        }
+    }
+}
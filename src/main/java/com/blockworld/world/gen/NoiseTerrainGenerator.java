@@ -0,0 +1,95 @@
+package com.blockworld.world.gen;
+
+import com.blockworld.world.Block;
+import com.blockworld.world.Chunk;
+import com.blockworld.world.ChunkSection;
+
+/**
+ * Tohumlu gürültüye dayalı arazi üretici.
+ *
+ * Yükseklik haritası fraktal Perlin gürültüsünden gelir; her sütun aşağıdan
+ * yukarı TAŞ, TOPRAK ve ÇİMEN ile doldurulur. Deniz seviyesine yakın yüzeyler
+ * KUM olur, deniz seviyesinin altındaki çukurlar SU ile dolar. Sonuç yalnızca
+ * tohuma ve chunk koordinatına bağlıdır.
+ */
+public class NoiseTerrainGenerator implements ChunkGenerator {
+
+    public static final int SEA_LEVEL = 0;
+
+    // Yükseklik haritası parametreleri
+    private static final double HORIZONTAL_SCALE = 1.0 / 96.0;
+    private static final int OCTAVES = 4;
+    private static final double HEIGHT_AMPLITUDE = 18.0;
+    private static final double HEIGHT_OFFSET = 3.0;
+
+    // Yüzeyin altındaki toprak kalınlığı
+    private static final int DIRT_DEPTH = 3;
+
+    private final PerlinNoise noise;
+
+    public NoiseTerrainGenerator(long seed) {
+        this.noise = new PerlinNoise(seed);
+    }
+
+    /**
+     * Dünya koordinatındaki yüzey yüksekliği.
+     */
+    public int getSurfaceHeight(int x, int z) {
+        double n = noise.fractal(x * HORIZONTAL_SCALE, z * HORIZONTAL_SCALE, OCTAVES, 2.0, 0.5);
+        int height = SEA_LEVEL + (int) Math.round(n * HEIGHT_AMPLITUDE + HEIGHT_OFFSET);
+        return Math.max(Chunk.MIN_Y + 1, Math.min(Chunk.MAX_Y, height));
+    }
+
+    @Override
+    public void generate(Chunk chunk) {
+        int baseX = chunk.getChunkX() << 4;
+        int baseZ = chunk.getChunkZ() << 4;
+
+        int[] heights = new int[Chunk.SIZE * Chunk.SIZE];
+        int minHeight = Integer.MAX_VALUE;
+        for (int z = 0; z < Chunk.SIZE; z++) {
+            for (int x = 0; x < Chunk.SIZE; x++) {
+                int h = getSurfaceHeight(baseX + x, baseZ + z);
+                heights[z * Chunk.SIZE + x] = h;
+                minHeight = Math.min(minHeight, h);
+            }
+        }
+
+        // Tamamen taş olan bölümler tek tip olarak doldurulur (hızlı yol)
+        int stoneTop = minHeight - DIRT_DEPTH - 1;
+        int fullSections = Math.max(0, (stoneTop - Chunk.MIN_Y + 1) / ChunkSection.SIZE);
+        for (int sy = 0; sy < fullSections; sy++) {
+            chunk.setSection(sy, new ChunkSection(Block.Type.STONE.getId()));
+        }
+        int startY = Chunk.MIN_Y + fullSections * ChunkSection.SIZE;
+
+        int stone = Block.Type.STONE.getId();
+        int dirt = Block.Type.DIRT.getId();
+        int grass = Block.Type.GRASS.getId();
+        int sand = Block.Type.SAND.getId();
+        int water = Block.Type.WATER.getId();
+
+        for (int z = 0; z < Chunk.SIZE; z++) {
+            for (int x = 0; x < Chunk.SIZE; x++) {
+                int h = heights[z * Chunk.SIZE + x];
+                boolean beach = h <= SEA_LEVEL + 1;
+
+                for (int y = startY; y <= h; y++) {
+                    int id;
+                    if (y <= h - DIRT_DEPTH - 1) {
+                        id = stone;
+                    } else if (y < h) {
+                        id = beach ? sand : dirt;
+                    } else {
+                        id = beach ? sand : grass;
+                    }
+                    chunk.setBlockId(x, y, z, id);
+                }
+
+                for (int y = h + 1; y <= SEA_LEVEL; y++) {
+                    chunk.setBlockId(x, y, z, water);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.blockworld.world.gen;
+
+/**
+ * Tohumlu 2D Perlin gürültüsü.
+ *
+ * Permütasyon tablosu yerine koordinat hash'i kullanılır; durum tutmadığı için
+ * iş parçacıkları arasında paylaşılabilir ve aynı tohum her zaman aynı değeri
+ * verir.
+ */
+public class PerlinNoise {
+
+    // Birim çember üzerinde 8 gradyan yönü
+    private static final double[] GRAD_X = { 1, -1, 0, 0, 0.7071, -0.7071, 0.7071, -0.7071 };
+    private static final double[] GRAD_Z = { 0, 0, 1, -1, 0.7071, 0.7071, -0.7071, -0.7071 };
+
+    private final long seed;
+
+    public PerlinNoise(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Yaklaşık [-1, 1] aralığında gürültü değeri.
+     */
+    public double noise(double x, double z) {
+        int x0 = (int) Math.floor(x);
+        int z0 = (int) Math.floor(z);
+        double fx = x - x0;
+        double fz = z - z0;
+
+        double n00 = gradient(x0, z0, fx, fz);
+        double n10 = gradient(x0 + 1, z0, fx - 1, fz);
+        double n01 = gradient(x0, z0 + 1, fx, fz - 1);
+        double n11 = gradient(x0 + 1, z0 + 1, fx - 1, fz - 1);
+
+        double u = fade(fx);
+        double v = fade(fz);
+        double nx0 = n00 + u * (n10 - n00);
+        double nx1 = n01 + u * (n11 - n01);
+        return (nx0 + v * (nx1 - nx0)) * 1.4142;
+    }
+
+    /**
+     * Birden fazla oktavın toplamı (fraktal gürültü), yaklaşık [-1, 1].
+     */
+    public double fractal(double x, double z, int octaves, double lacunarity, double gain) {
+        double sum = 0;
+        double amplitude = 1;
+        double frequency = 1;
+        double norm = 0;
+        for (int i = 0; i < octaves; i++) {
+            sum += amplitude * noise(x * frequency + i * 31.7, z * frequency - i * 17.3);
+            norm += amplitude;
+            amplitude *= gain;
+            frequency *= lacunarity;
+        }
+        return sum / norm;
+    }
+
+    private double gradient(int ix, int iz, double dx, double dz) {
+        int g = hash(ix, iz) & 7;
+        return GRAD_X[g] * dx + GRAD_Z[g] * dz;
+    }
+
+    private int hash(int ix, int iz) {
+        long h = seed ^ (ix * 0x9E3779B97F4A7C15L) ^ (iz * 0xC2B2AE3D27D4EB4FL);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private static double fade(double t) {
+        return t * t * t * (t * (t * 6 - 15) + 10);
+    }
+}